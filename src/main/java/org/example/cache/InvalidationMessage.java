@@ -0,0 +1,76 @@
+package org.example.cache;
+
+import org.example.event.TaskChangedEvent.Type;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Сообщение шины инвалидации, передаваемое в payload PostgreSQL NOTIFY
+ * в виде "узел;номер;время отправки;тип;id,id,...". Пустой тип означает,
+ * что получатели должны сбросить кэши целиком
+ *
+ * @param node   идентификатор узла-отправителя
+ * @param seq    порядковый номер сообщения этого узла, без пропусков
+ * @param sentAt время отправки на узле-отправителе, мс
+ * @param type   тип изменения; null — полный сброс
+ * @param ids    идентификаторы изменённых задач
+ */
+public record InvalidationMessage(String node, long seq, long sentAt, Type type, List<Long> ids) {
+
+    /**
+     * Предел payload NOTIFY в PostgreSQL — 8000 байт; берём с запасом
+     */
+    static final int MAX_PAYLOAD = 7900;
+
+    /**
+     * Сообщение о полном сбросе
+     */
+    public boolean isFlush() {
+        return type == null;
+    }
+
+    /**
+     * Кодирует сообщение; если идентификаторы не помещаются в payload, возвращает сообщение о полном сбросе
+     */
+    public String encode() {
+        String header = node + ";" + seq + ";" + sentAt + ";";
+        if (isFlush()) {
+            return header + ";";
+        }
+        StringBuilder payload = new StringBuilder(header).append(type.name()).append(';');
+        for (int i = 0; i < ids.size(); i++) {
+            if (i > 0) {
+                payload.append(',');
+            }
+            payload.append(ids.get(i));
+            if (payload.length() > MAX_PAYLOAD) {
+                return header + ";";
+            }
+        }
+        return payload.toString();
+    }
+
+    /**
+     * Разбирает payload; бросает IllegalArgumentException, если формат не распознан
+     */
+    public static InvalidationMessage parse(String payload) {
+        String[] parts = payload.split(";", -1);
+        if (parts.length != 5) {
+            throw new IllegalArgumentException("Malformed invalidation payload: " + payload);
+        }
+        try {
+            Type type = parts[3].isEmpty() ? null : Type.valueOf(parts[3]);
+            List<Long> ids = new ArrayList<>();
+            if (!parts[4].isEmpty()) {
+                for (String id : parts[4].split(",")) {
+                    ids.add(Long.parseLong(id));
+                }
+            }
+            return new InvalidationMessage(parts[0], Long.parseLong(parts[1]), Long.parseLong(parts[2]),
+                    type, List.copyOf(ids));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed invalidation payload: " + payload, e);
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package org.example.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.example.config.CacheConfig;
+import org.example.datasource.ReplicaRoutingDataSource;
+import org.example.event.TaskChangedEvent;
+import org.example.event.TaskChangedEvent.Type;
+import org.example.reminder.DueReminderEngine;
+import org.example.service.DueDateIndex;
+import org.example.service.TaskChangeFeed;
+import org.example.service.TaskChangeTracker;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Принимает уведомления других узлов на выделенном соединении (LISTEN) и вычищает
+ * изменённые задачи из локальных кэшей, сдвигает счётчик ETag, добавляет изменения в ленту SSE
+ * этого узла, обновляет индекс дедлайнов и таймеры напоминаний (при полном сбросе — перечитывает
+ * их из БД). Индекс и таймеры читают основную БД: реплика может ещё не видеть изменение из уведомления.
+ * Полный сброс не несёт идентификаторов и в ленту SSE не попадает.
+ *
+ * <p>Уведомления, пришедшие в пределах coalesce-window, применяются одной пачкой; если
+ * за окно набралось больше max-pending-ids задач, кэши сбрасываются целиком. Кэши также
+ * сбрасываются целиком после переподключения и при пропуске в номерах сообщений узла,
+ * не закрытом за gap-grace (уведомления одного узла могут приходить не по порядку, так как
+ * транзакции фиксируются не в том порядке, в каком ставили NOTIFY). Задержка от отправки
+ * до применения публикуется в tasks.cache.invalidation.lag
+ */
+@Component
+@ConditionalOnProperty(name = "tasks.cache.invalidation.enabled", havingValue = "true")
+public class TaskInvalidationListener implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskInvalidationListener.class);
+
+    private static final int POLL_MILLIS = 500;
+    private static final int MAX_MISSING = 1000;
+
+    /**
+     * Номера сообщений одного узла: последний полученный и ещё не пришедшие более ранние
+     */
+    private static final class Sender {
+        private long last;
+        private final Map<Long, Long> missingUntil = new HashMap<>();
+
+        private Sender(long last) {
+            this.last = last;
+        }
+    }
+
+    private final DataSourceProperties dataSourceProperties;
+    private final TaskInvalidationPublisher publisher;
+    private final Cache tasksCache;
+    private final Cache statsCache;
+    private final TaskChangeTracker changeTracker;
+    private final TaskChangeFeed changeFeed;
+    private final ObjectProvider<DueDateIndex> dueDateIndex;
+    private final ObjectProvider<DueReminderEngine> reminderEngine;
+    private final MeterRegistry meterRegistry;
+    private final long coalesceWindowMillis;
+    private final long gapGraceMillis;
+    private final int maxPendingIds;
+    private final Duration reconnectBackoff;
+    private final Timer lag;
+
+    // Состояние ниже меняет только поток-слушатель
+    private final Map<String, Sender> senders = new HashMap<>();
+    private final Map<Type, Set<Long>> pending = new EnumMap<>(Type.class);
+    private final List<Long> pendingSentAt = new ArrayList<>();
+    private int pendingIds;
+    private String flushReason;
+
+    private volatile boolean running;
+    private Thread thread;
+
+    /**
+     * Создаёт слушателя; поток запускается после старта приложения
+     */
+    @Autowired
+    public TaskInvalidationListener(
+            DataSourceProperties dataSourceProperties,
+            TaskInvalidationPublisher publisher,
+            CacheManager cacheManager,
+            TaskChangeTracker changeTracker,
+            TaskChangeFeed changeFeed,
+            ObjectProvider<DueDateIndex> dueDateIndex,
+            ObjectProvider<DueReminderEngine> reminderEngine,
+            MeterRegistry meterRegistry,
+            @Value("${tasks.cache.invalidation.coalesce-window:50ms}") Duration coalesceWindow,
+            @Value("${tasks.cache.invalidation.gap-grace:2s}") Duration gapGrace,
+            @Value("${tasks.cache.invalidation.max-pending-ids:5000}") int maxPendingIds,
+            @Value("${tasks.cache.invalidation.reconnect-backoff:1s}") Duration reconnectBackoff
+    ) {
+        this.dataSourceProperties = dataSourceProperties;
+        this.publisher = publisher;
+        this.tasksCache = cacheManager.getCache(CacheConfig.TASKS_CACHE);
+        this.statsCache = cacheManager.getCache(CacheConfig.STATS_CACHE);
+        this.changeTracker = changeTracker;
+        this.changeFeed = changeFeed;
+        this.dueDateIndex = dueDateIndex;
+        this.reminderEngine = reminderEngine;
+        this.meterRegistry = meterRegistry;
+        this.coalesceWindowMillis = coalesceWindow.toMillis();
+        this.gapGraceMillis = gapGrace.toMillis();
+        this.maxPendingIds = maxPendingIds;
+        this.reconnectBackoff = reconnectBackoff;
+        this.lag = Timer.builder("tasks.cache.invalidation.lag")
+                .description("Time from NOTIFY on the writing node to local cache eviction")
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Запускает поток-слушатель
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (thread != null) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::run, "task-invalidation-listener");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        Thread listener;
+        synchronized (this) {
+            listener = thread;
+        }
+        if (listener != null) {
+            listener.interrupt();
+            listener.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try (Connection connection = connect()) {
+                // Пока соединения не было, уведомления могли потеряться: нумерация начинается заново
+                senders.clear();
+                requestFlush("reconnect");
+                apply(System.currentTimeMillis());
+                PGConnection pg = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pg.getNotifications(POLL_MILLIS);
+                    if (notifications != null && notifications.length > 0) {
+                        receive(notifications);
+                        long deadline = System.currentTimeMillis() + coalesceWindowMillis;
+                        long remaining;
+                        while ((remaining = deadline - System.currentTimeMillis()) > 0) {
+                            receive(pg.getNotifications((int) remaining));
+                        }
+                    }
+                    long now = System.currentTimeMillis();
+                    checkGaps(now);
+                    apply(now);
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (running) {
+                    log.warn("Invalidation listener connection lost, reconnecting", e);
+                    sleep(reconnectBackoff);
+                }
+            }
+        }
+    }
+
+    private Connection connect() throws SQLException {
+        Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword());
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("LISTEN " + publisher.channel());
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+        return connection;
+    }
+
+    private void receive(PGNotification[] notifications) {
+        if (notifications == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (PGNotification notification : notifications) {
+            try {
+                handle(InvalidationMessage.parse(notification.getParameter()), now);
+            } catch (IllegalArgumentException e) {
+                log.warn("Ignoring invalidation message", e);
+            }
+        }
+    }
+
+    /**
+     * Учитывает сообщение: проверяет номер, добавляет задачи в ожидающую пачку
+     */
+    void handle(InvalidationMessage message, long now) {
+        if (message.node().equals(publisher.node())) {
+            return;
+        }
+        Sender sender = senders.get(message.node());
+        if (sender == null) {
+            senders.put(message.node(), new Sender(message.seq()));
+        } else if (message.seq() > sender.last) {
+            for (long seq = sender.last + 1; seq < message.seq() && sender.missingUntil.size() <= MAX_MISSING; seq++) {
+                sender.missingUntil.put(seq, now + gapGraceMillis);
+            }
+            sender.last = message.seq();
+            if (sender.missingUntil.size() > MAX_MISSING) {
+                sender.missingUntil.clear();
+                requestFlush("gap");
+            }
+        } else {
+            sender.missingUntil.remove(message.seq());
+        }
+
+        pendingSentAt.add(message.sentAt());
+        if (message.isFlush()) {
+            requestFlush("remote");
+            return;
+        }
+        pending.computeIfAbsent(message.type(), type -> new LinkedHashSet<>()).addAll(message.ids());
+        pendingIds += message.ids().size();
+        if (pendingIds > maxPendingIds) {
+            requestFlush("storm");
+        }
+    }
+
+    /**
+     * Запрашивает полный сброс, если пропущенное сообщение не пришло за gap-grace
+     */
+    void checkGaps(long now) {
+        for (Sender sender : senders.values()) {
+            if (sender.missingUntil.values().stream().anyMatch(deadline -> deadline <= now)) {
+                sender.missingUntil.clear();
+                requestFlush("gap");
+            }
+        }
+    }
+
+    /**
+     * Применяет накопленную пачку к локальным кэшам
+     */
+    void apply(long now) {
+        if (flushReason != null) {
+            tasksCache.clear();
+            statsCache.clear();
+            changeTracker.onTaskChanged(new TaskChangedEvent(Type.UPDATED, List.of()));
+            // Сброс означает, что уведомления могли потеряться: индекс дедлайнов и таймеры перечитываются из БД
+            // (до готовности индекса его первый прогрев и так читает свежие данные)
+            dueDateIndex.ifAvailable(index -> {
+                if (index.isReady()) {
+                    ReplicaRoutingDataSource.runOnPrimary(index::warmUp);
+                }
+            });
+            reminderEngine.ifAvailable(engine -> ReplicaRoutingDataSource.runOnPrimary(engine::reload));
+            meterRegistry.counter("tasks.cache.invalidation.flushes", "reason", flushReason).increment();
+            log.debug("Flushed local task caches: {}", flushReason);
+        } else if (!pending.isEmpty()) {
+            pending.values().forEach(ids -> ids.forEach(tasksCache::evict));
+            statsCache.clear();
+            changeTracker.onTaskChanged(new TaskChangedEvent(Type.UPDATED, List.of()));
+            List<TaskChangedEvent> events = new ArrayList<>(pending.size());
+            pending.forEach((type, ids) -> events.add(new TaskChangedEvent(type, List.copyOf(ids))));
+            events.forEach(changeFeed::onTaskChanged);
+            dueDateIndex.ifAvailable(index -> ReplicaRoutingDataSource.runOnPrimary(
+                    () -> events.forEach(index::onTaskChanged)));
+            reminderEngine.ifAvailable(engine -> ReplicaRoutingDataSource.runOnPrimary(
+                    () -> events.forEach(engine::onTaskChanged)));
+        }
+        for (long sentAt : pendingSentAt) {
+            lag.record(Math.max(0, now - sentAt), TimeUnit.MILLISECONDS);
+        }
+        pending.clear();
+        pendingSentAt.clear();
+        pendingIds = 0;
+        flushReason = null;
+    }
+
+    private void requestFlush(String reason) {
+        if (flushReason == null) {
+            flushReason = reason;
+        }
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
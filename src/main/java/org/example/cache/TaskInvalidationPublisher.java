@@ -0,0 +1,65 @@
+package org.example.cache;
+
+import jakarta.persistence.EntityManager;
+import org.example.event.TaskChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Отправляет изменения задач другим узлам через PostgreSQL NOTIFY. Уведомление ставится
+ * в той же транзакции, что и запись, поэтому PostgreSQL доставит его только после фиксации
+ * и не доставит при откате; одна транзакция — одно уведомление со всеми идентификаторами
+ */
+@Component
+@ConditionalOnProperty(name = "tasks.cache.invalidation.enabled", havingValue = "true")
+public class TaskInvalidationPublisher {
+
+    private final EntityManager entityManager;
+    private final String channel;
+    private final String node = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+    private final AtomicLong seq = new AtomicLong();
+
+    /**
+     * Создаёт отправителя для канала tasks.cache.invalidation.channel
+     */
+    @Autowired
+    public TaskInvalidationPublisher(EntityManager entityManager,
+                                     @Value("${tasks.cache.invalidation.channel:tasks_changed}") String channel) {
+        this.entityManager = entityManager;
+        this.channel = channel;
+    }
+
+    /**
+     * Ставит уведомление перед фиксацией транзакции; вне транзакции отправляет сразу
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        InvalidationMessage message = new InvalidationMessage(node, seq.incrementAndGet(),
+                System.currentTimeMillis(), event.type(), event.ids());
+        entityManager.createNativeQuery("select pg_notify(:channel, :payload)")
+                .setParameter("channel", channel)
+                .setParameter("payload", message.encode())
+                .getSingleResult();
+    }
+
+    /**
+     * Идентификатор этого узла; свои уведомления получатель пропускает
+     */
+    public String node() {
+        return node;
+    }
+
+    /**
+     * Канал уведомлений
+     */
+    public String channel() {
+        return channel;
+    }
+}
@@ -0,0 +1,56 @@
+package org.example.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Конфигурация кэшей приложения
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    /**
+     * Кэш задач по идентификатору
+     */
+    public static final String TASKS_CACHE = "tasks";
+
+    /**
+     * Кэш сводной статистики с коротким TTL: сводка может отставать от записей на ttl
+     */
+    public static final String STATS_CACHE = "taskStats";
+
+    /**
+     * Менеджер кэшей на Caffeine (вытеснение W-TinyLFU по размеру и TTL);
+     * статистика попаданий и промахов публикуется в метриках cache.*.
+     * Запись и вытеснение внутри транзакции откладываются до её фиксации: иначе параллельное
+     * чтение успело бы вернуть в кэш ещё не изменённую строку до конца TTL
+     */
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${tasks.cache.maximum-size:10000}") long maximumSize,
+            @Value("${tasks.cache.ttl:5m}") Duration ttl,
+            @Value("${tasks.cache.stats-ttl:10s}") Duration statsTtl
+    ) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(TASKS_CACHE, Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(STATS_CACHE, Caffeine.newBuilder()
+                .maximumSize(1000)
+                .expireAfterWrite(statsTtl)
+                .recordStats()
+                .build());
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
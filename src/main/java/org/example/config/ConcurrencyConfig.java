@@ -0,0 +1,41 @@
+package org.example.config;
+
+import org.example.web.DatabaseBulkheadFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Настройки режима виртуальных потоков
+ *
+ * <p>Сам режим включается стандартным свойством spring.threads.virtual.enabled:
+ * Tomcat и applicationTaskExecutor (в том числе асинхронные ответы MVC)
+ * переходят на виртуальные потоки. Здесь к нему добавляется ограничение
+ * параллелизма, согласованное с размером пула Hikari.
+ */
+@Configuration
+public class ConcurrencyConfig {
+
+    /**
+     * Ограничитель параллельных запросов к API, активный только с виртуальными потоками;
+     * регистрируется после цепочки безопасности, поэтому отклонённые ею запросы разрешений не занимают
+     */
+    @Bean
+    @ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+    public FilterRegistrationBean<DatabaseBulkheadFilter> databaseBulkheadFilter(
+            @Value("${tasks.bulkhead.max-concurrent-requests:${spring.datasource.hikari.maximum-pool-size:10}}")
+            int maxConcurrentRequests,
+            @Value("${tasks.bulkhead.max-wait:2s}") Duration maxWait,
+            @Value("${tasks.bulkhead.exclude-paths:/api/tasks/changes}") List<String> excludedPaths
+    ) {
+        FilterRegistrationBean<DatabaseBulkheadFilter> registration = new FilterRegistrationBean<>(
+                new DatabaseBulkheadFilter(maxConcurrentRequests, maxWait, excludedPaths));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+}
@@ -0,0 +1,76 @@
+package org.example.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.metrics.FirstRequestFilter;
+import org.example.metrics.QueryCountFilter;
+import org.example.metrics.QueryCountInspector;
+import org.example.metrics.ResultSizeAspect;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Метрики горячих путей: таймеры сервисов, размеры результатов,
+ * число SQL-запросов на HTTP-запрос и время до первого ответа после запуска
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Обработка аннотаций @Timed на сервисах
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    /**
+     * Размеры результатов методов сервисов
+     */
+    @Bean
+    public ResultSizeAspect resultSizeAspect(MeterRegistry meterRegistry) {
+        return new ResultSizeAspect(meterRegistry);
+    }
+
+    /**
+     * Счётчик SQL-запросов, подключаемый к Hibernate
+     */
+    @Bean
+    public QueryCountInspector queryCountInspector() {
+        return new QueryCountInspector();
+    }
+
+    /**
+     * Регистрирует счётчик запросов как StatementInspector Hibernate
+     */
+    @Bean
+    public HibernatePropertiesCustomizer queryCountCustomizer(QueryCountInspector queryCountInspector) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, queryCountInspector);
+    }
+
+    /**
+     * Фильтр, публикующий число SQL-запросов на запрос к API
+     */
+    @Bean
+    public FilterRegistrationBean<QueryCountFilter> queryCountFilter(QueryCountInspector queryCountInspector,
+                                                                     MeterRegistry meterRegistry) {
+        FilterRegistrationBean<QueryCountFilter> registration =
+                new FilterRegistrationBean<>(new QueryCountFilter(queryCountInspector, meterRegistry));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+
+    /**
+     * Фильтр, замеряющий время от запуска JVM до первого ответа
+     */
+    @Bean
+    public FilterRegistrationBean<FirstRequestFilter> firstRequestFilter(MeterRegistry meterRegistry) {
+        FilterRegistrationBean<FirstRequestFilter> registration =
+                new FilterRegistrationBean<>(new FirstRequestFilter(meterRegistry));
+        registration.addUrlPatterns("/*");
+        return registration;
+    }
+}
@@ -0,0 +1,118 @@
+package org.example.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.security.AdaptiveConcurrencyLimiter;
+import org.example.security.RateLimitFilter;
+import org.example.security.RequestClass;
+import org.example.security.TokenBucketLimiter;
+import org.example.security.TokenBucketLimiter.Limit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.IntSupplier;
+
+/**
+ * Ограничение частоты запросов и сброс нагрузки; фильтр встраивается в цепочку безопасности
+ * после аутентификации (SecurityConfig), чтобы лимиты считались по пользователю
+ */
+@Configuration
+@ConditionalOnProperty(name = "tasks.rate-limit.enabled", havingValue = "true", matchIfMissing = true)
+public class RateLimitConfig {
+
+    /**
+     * Token bucket по пользователю и классу запроса
+     */
+    @Bean
+    public TokenBucketLimiter tokenBucketLimiter(
+            @Value("${tasks.rate-limit.read.rate:50}") double readRate,
+            @Value("${tasks.rate-limit.read.burst:100}") int readBurst,
+            @Value("${tasks.rate-limit.write.rate:10}") double writeRate,
+            @Value("${tasks.rate-limit.write.burst:20}") int writeBurst,
+            @Value("${tasks.rate-limit.scan.rate:0.2}") double scanRate,
+            @Value("${tasks.rate-limit.scan.burst:2}") int scanBurst,
+            @Value("${tasks.rate-limit.idle-timeout:10m}") Duration idleTimeout,
+            @Value("${tasks.rate-limit.maximum-subjects:100000}") long maximumSubjects
+    ) {
+        return new TokenBucketLimiter(Map.of(
+                RequestClass.READ, new Limit(readRate, readBurst),
+                RequestClass.WRITE, new Limit(writeRate, writeBurst),
+                RequestClass.SCAN, new Limit(scanRate, scanBurst)
+        ), idleTimeout, maximumSubjects);
+    }
+
+    /**
+     * Адаптивный лимит параллелизма по числу потоков, ожидающих соединение Hikari
+     */
+    @Bean
+    public AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter(
+            DataSource dataSource,
+            MeterRegistry meterRegistry,
+            @Value("${tasks.load-shedding.max-pending-connections:5}") int maxPending,
+            @Value("${tasks.load-shedding.min-limit:4}") int minLimit,
+            @Value("${tasks.load-shedding.initial-limit:100}") int initialLimit,
+            @Value("${tasks.load-shedding.max-limit:1000}") int maxLimit,
+            @Value("${tasks.load-shedding.interval:100ms}") Duration interval
+    ) {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(pendingConnections(dataSource),
+                maxPending, minLimit, initialLimit, maxLimit, interval);
+        Gauge.builder("tasks.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::limit)
+                .description("Current adaptive concurrency limit for API requests")
+                .register(meterRegistry);
+        Gauge.builder("tasks.concurrency.in.flight", limiter, AdaptiveConcurrencyLimiter::inFlight)
+                .register(meterRegistry);
+        return limiter;
+    }
+
+    /**
+     * Фильтр допуска запросов; вызывается только из цепочки безопасности
+     */
+    @Bean
+    public RateLimitFilter rateLimitFilter(
+            TokenBucketLimiter tokenBucketLimiter,
+            AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter,
+            MeterRegistry meterRegistry,
+            @Value("${tasks.rate-limit.admin-multiplier:4}") double adminMultiplier
+    ) {
+        return new RateLimitFilter(tokenBucketLimiter, adaptiveConcurrencyLimiter,
+                Map.of("ROLE_ADMIN", adminMultiplier), meterRegistry);
+    }
+
+    /**
+     * Отключает автоматическую регистрацию фильтра в контейнере, чтобы он не сработал до аутентификации
+     */
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration(RateLimitFilter rateLimitFilter) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(rateLimitFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
+    /**
+     * Число потоков в очереди за соединением; 0, если пул не Hikari или ещё не запущен
+     */
+    private static IntSupplier pendingConnections(DataSource dataSource) {
+        HikariDataSource hikari;
+        try {
+            if (!dataSource.isWrapperFor(HikariDataSource.class)) {
+                return () -> 0;
+            }
+            hikari = dataSource.unwrap(HikariDataSource.class);
+        } catch (SQLException e) {
+            return () -> 0;
+        }
+        return () -> {
+            HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+            return pool == null ? 0 : pool.getThreadsAwaitingConnection();
+        };
+    }
+}
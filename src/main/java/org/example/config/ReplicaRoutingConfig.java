@@ -0,0 +1,110 @@
+package org.example.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.datasource.ReplicaRoutingDataSource;
+import org.example.web.ReadYourWritesFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Разделение чтения и записи: транзакции readOnly = true идут на реплики из tasks.datasource.replicas,
+ * остальные — в основную БД из spring.datasource. Без списка реплик конфигурация не активна
+ * и Spring Boot создаёт обычный единственный пул
+ */
+@Configuration
+@ConditionalOnExpression("'${tasks.datasource.replicas:}' != ''")
+public class ReplicaRoutingConfig {
+
+    /**
+     * Пул основной БД с настройками spring.datasource.hikari
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    /**
+     * Маршрутизатор между основной БД и пулами реплик; контекст закрывает его вместе с пулами реплик
+     */
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            HikariDataSource primaryDataSource,
+            DataSourceProperties properties,
+            MeterRegistry meterRegistry,
+            @Value("${tasks.datasource.replicas}") List<String> replicaUrls,
+            @Value("${tasks.datasource.replica-pool-size:${spring.datasource.hikari.maximum-pool-size:10}}")
+            int replicaPoolSize,
+            @Value("${tasks.datasource.replica-lag-query:}") String lagQuery,
+            @Value("${tasks.datasource.max-replica-lag:5s}") Duration maxLag,
+            @Value("${tasks.datasource.health-interval:5s}") Duration healthInterval
+    ) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            String name = "replica-" + (i + 1);
+            HikariDataSource replica = properties.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .url(replicaUrls.get(i).trim())
+                    .build();
+            replica.setPoolName(name);
+            replica.setMaximumPoolSize(replicaPoolSize);
+            replica.setConnectionTimeout(primaryDataSource.getConnectionTimeout());
+            replica.setReadOnly(true);
+            // Реплики не бины, поэтому метрики пула Hikari подключаются здесь
+            replica.setMetricRegistry(meterRegistry);
+            replicas.put(name, replica);
+        }
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primaryDataSource, replicas,
+                lagQuery, maxLag, meterRegistry);
+        routing.startHealthChecks(healthInterval);
+        return routing;
+    }
+
+    /**
+     * Источник соединений для JPA и остальных потребителей DataSource: соединение берётся
+     * у маршрутизатора при первом запросе, когда признак readOnly транзакции уже известен
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    /**
+     * Фильтр чтения своих записей; вызывается только из цепочки безопасности
+     */
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(
+            @Value("${tasks.datasource.read-your-writes:2s}") Duration window,
+            @Value("${tasks.datasource.read-your-writes-clients:100000}") long maximumClients
+    ) {
+        return new ReadYourWritesFilter(window, maximumClients);
+    }
+
+    /**
+     * Отключает автоматическую регистрацию фильтра в контейнере, чтобы он сработал после аутентификации
+     */
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilterRegistration(
+            ReadYourWritesFilter readYourWritesFilter) {
+        FilterRegistrationBean<ReadYourWritesFilter> registration = new FilterRegistrationBean<>(readYourWritesFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+}
@@ -1,8 +1,17 @@
 package org.example.config;
 
+import org.example.security.AuthenticationCache;
+import org.example.security.CacheEvictingUserDetailsManager;
+import org.example.security.CachingAuthenticationProvider;
+import org.example.security.RateLimitFilter;
+import org.example.web.ReadYourWritesFilter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.core.userdetails.User;
@@ -10,8 +19,10 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
-import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
+
+import java.time.Duration;
 
 /**
  * Конфигурация безопасности приложения
@@ -20,10 +31,15 @@ import org.springframework.security.web.SecurityFilterChain;
 public class SecurityConfig {
 
     /**
-     * Определяет правила доступа и тип аутентификации
+     * Определяет правила доступа и тип аутентификации;
+     * ограничение частоты запросов (если включено) выполняется сразу после аутентификации,
+     * за ним — привязка к основной БД после записи клиента (если включено чтение с реплик)
      */
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http,
+                                                   ObjectProvider<RateLimitFilter> rateLimitFilter,
+                                                   ObjectProvider<ReadYourWritesFilter> readYourWritesFilter)
+            throws Exception {
         http
                 .csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(auth -> auth
@@ -34,12 +50,16 @@ public class SecurityConfig {
 
                         .requestMatchers(HttpMethod.PUT, "/api/tasks/**")
                         .hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.PATCH, "/api/tasks/**")
+                        .hasRole("ADMIN")
                         .requestMatchers(HttpMethod.DELETE, "/api/tasks/**")
                         .hasRole("ADMIN")
 
                         .anyRequest().authenticated()
                 )
                 .httpBasic(Customizer.withDefaults());
+        rateLimitFilter.ifAvailable(filter -> http.addFilterAfter(filter, BasicAuthenticationFilter.class));
+        readYourWritesFilter.ifAvailable(filter -> http.addFilterAfter(filter, BasicAuthenticationFilter.class));
 
         return http.build();
     }
@@ -52,11 +72,36 @@ public class SecurityConfig {
         return new BCryptPasswordEncoder();
     }
 
+    /**
+     * Кэш успешных аутентификаций, снимающий стоимость BCrypt с повторных запросов
+     */
+    @Bean
+    public AuthenticationCache authenticationCache(
+            @Value("${tasks.security.auth-cache.ttl:60s}") Duration ttl,
+            @Value("${tasks.security.auth-cache.maximum-size:10000}") long maximumSize
+    ) {
+        return new AuthenticationCache(ttl, maximumSize);
+    }
+
+    /**
+     * Проверка логина и пароля через BCrypt с кэшированием успешных результатов
+     */
+    @Bean
+    public AuthenticationProvider authenticationProvider(UserDetailsService userDetailsService,
+                                                         PasswordEncoder passwordEncoder,
+                                                         AuthenticationCache authenticationCache) {
+        DaoAuthenticationProvider daoProvider = new DaoAuthenticationProvider();
+        daoProvider.setUserDetailsService(userDetailsService);
+        daoProvider.setPasswordEncoder(passwordEncoder);
+        return new CachingAuthenticationProvider(daoProvider, authenticationCache);
+    }
+
     /**
      * Пользователи в памяти
      */
     @Bean
-    public UserDetailsService userDetailsService(PasswordEncoder passwordEncoder) {
+    public UserDetailsService userDetailsService(PasswordEncoder passwordEncoder,
+                                                 AuthenticationCache authenticationCache) {
         UserDetails user = User.builder()
                 .username("user")
                 .password(passwordEncoder.encode("user123"))
@@ -69,6 +114,6 @@ public class SecurityConfig {
                 .roles("ADMIN")
                 .build();
 
-        return new InMemoryUserDetailsManager(user, admin);
+        return new CacheEvictingUserDetailsManager(authenticationCache, user, admin);
     }
 }
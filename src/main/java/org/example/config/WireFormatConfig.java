@@ -0,0 +1,56 @@
+package org.example.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Двоичные форматы ответов для сервисов-потребителей: CBOR (application/cbor)
+ * и Smile (application/x-jackson-smile) выбираются по заголовку Accept
+ */
+@Configuration
+public class WireFormatConfig {
+
+    /**
+     * Тип содержимого Smile
+     */
+    public static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+
+    /**
+     * Конвертер CBOR на настройках основного ObjectMapper
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(ObjectMapper objectMapper) {
+        return new MappingJackson2CborHttpMessageConverter(cbor(objectMapper));
+    }
+
+    /**
+     * Конвертер Smile на настройках основного ObjectMapper
+     */
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(ObjectMapper objectMapper) {
+        return new MappingJackson2SmileHttpMessageConverter(smile(objectMapper));
+    }
+
+    /**
+     * Копия ObjectMapper с фабрикой CBOR; даты пишутся числами, а не ISO-строками
+     */
+    public static ObjectMapper cbor(ObjectMapper objectMapper) {
+        return objectMapper.copyWith(new CBORFactory())
+                .enable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    /**
+     * Копия ObjectMapper с фабрикой Smile; даты пишутся числами, а не ISO-строками
+     */
+    public static ObjectMapper smile(ObjectMapper objectMapper) {
+        return objectMapper.copyWith(new SmileFactory())
+                .enable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+}
@@ -1,12 +1,43 @@
 package org.example.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.config.WireFormatConfig;
+import org.example.datasource.ReplicaRoutingDataSource;
+import org.example.dto.BatchItemResult;
+import org.example.dto.CursorPage;
+import org.example.dto.TaskFilter;
+import org.example.dto.TaskPatch;
+import org.example.dto.TaskResponse;
+import org.example.dto.TaskSearchHit;
+import org.example.dto.TaskStats;
+import org.example.exception.TaskVersionConflictException;
 import org.example.model.Task;
+import org.example.service.TaskChangeTracker;
+import org.example.service.TaskWriteBehindQueue;
+import org.example.service.interfaces.TaskBatchService;
 import org.example.service.interfaces.TaskService;
+import org.example.web.TaskChangeBroadcaster;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * REST-контроллер для управления задачами
@@ -15,50 +46,274 @@ import java.util.List;
 @RequestMapping("/api/tasks")
 public class TaskController {
 
+    /**
+     * Заголовок с курсором следующей страницы
+     */
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final Set<String> SUMMARY_FIELDS = Set.of("id", "title", "completed", "dueDate");
+    private static final Set<String> FULL_FIELDS = Set.of("id", "title", "description", "completed",
+            "dueDate", "createdAt");
+
     private final TaskService taskService;
+    private final TaskBatchService taskBatchService;
+    private final ObjectMapper objectMapper;
+    private final ObjectMapper cborMapper;
+    private final ObjectMapper smileMapper;
+    private final TaskChangeTracker changeTracker;
+    private final TaskChangeBroadcaster changeBroadcaster;
+    private final ObjectProvider<TaskWriteBehindQueue> writeBehindQueue;
 
 
     /**
-     * Создаёт контроллер задач
+     * Создаёт контроллер задач; очередь отложенной записи есть только при tasks.write-behind.enabled
      */
     @Autowired
-    public TaskController(TaskService taskService) {
+    public TaskController(TaskService taskService, TaskBatchService taskBatchService, ObjectMapper objectMapper,
+                          TaskChangeTracker changeTracker, TaskChangeBroadcaster changeBroadcaster,
+                          ObjectProvider<TaskWriteBehindQueue> writeBehindQueue) {
         this.taskService = taskService;
+        this.taskBatchService = taskBatchService;
+        this.objectMapper = objectMapper;
+        this.cborMapper = WireFormatConfig.cbor(objectMapper);
+        this.smileMapper = WireFormatConfig.smile(objectMapper);
+        this.changeTracker = changeTracker;
+        this.changeBroadcaster = changeBroadcaster;
+        this.writeBehindQueue = writeBehindQueue;
     }
 
     /**
-     * Возвращает список всех задач
+     * Возвращает страницу задач после указанного курсора;
+     * курсор следующей страницы передаётся в заголовке X-Next-Cursor.
+     * Если задачи не менялись с момента выдачи ETag из If-None-Match, возвращает 304 без запроса к БД
      */
     @GetMapping
-    public ResponseEntity<List<Task>> getAllTask() {
-        return ResponseEntity.ok(taskService.getAllTasks());
+    public ResponseEntity<List<?>> getAllTask(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(required = false) String fields,
+            WebRequest request
+    ) {
+        // ETag снимается до выборки: запись, зафиксированная во время запроса, сменит его для следующего
+        String etag = changeTracker.etag();
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        try {
+            boolean summary = isSummary(fields);
+            // Ответ с ETag читается из основной БД: страница с отстающей реплики под новым ETag
+            // отдавалась бы другим клиентам как 304 до следующей записи
+            CursorPage<?> page = ReplicaRoutingDataSource.<CursorPage<?>>onPrimary(() -> summary
+                    ? taskService.getTaskSummariesPage(cursor, limit)
+                    : toResponses(taskService.getTasksPage(cursor, limit)));
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(etag);
+            if (page.nextCursor() != null) {
+                response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+            }
+            return response.body(page.items());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Полнотекстовый поиск по заголовку и описанию в порядке релевантности;
+     * курсор следующей страницы передаётся в заголовке X-Next-Cursor
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<TaskSearchHit>> searchTasks(
+            @RequestParam String q,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit
+    ) {
+        try {
+            CursorPage<TaskSearchHit> page = taskService.searchTasks(q, cursor, limit);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.nextCursor() != null) {
+                response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+            }
+            return response.body(page.items());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Выгружает все задачи JSON-массивом, не загружая таблицу в память
+     */
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamTasksAsArray() {
+        return streamArray(objectMapper, MediaType.APPLICATION_JSON);
+    }
+
+    /**
+     * Выгружает все задачи массивом в формате CBOR
+     */
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_CBOR_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamTasksAsCbor() {
+        return streamArray(cborMapper, MediaType.APPLICATION_CBOR);
+    }
+
+    /**
+     * Выгружает все задачи массивом в формате Smile
+     */
+    @GetMapping(value = "/stream", produces = "application/x-jackson-smile")
+    public ResponseEntity<StreamingResponseBody> streamTasksAsSmile() {
+        return streamArray(smileMapper, WireFormatConfig.APPLICATION_SMILE);
+    }
+
+    /**
+     * Выгружает все задачи в формате NDJSON, по одной задаче на строку
+     */
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamTasksAsNdjson() {
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.setRootValueSeparator(null);
+                taskService.streamAllTasks(task -> {
+                    writeTask(generator, task);
+                    try {
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * Поток изменений задач в формате SSE; после переподключения
+     * клиент получает пропущенные изменения по заголовку Last-Event-ID
+     */
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId
+    ) {
+        return changeBroadcaster.subscribe(lastEventId);
     }
 
     /**
      * Возвращает задачу по идентификатору
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Task> getTask(@PathVariable Long id) {
+    public ResponseEntity<TaskResponse> getTask(@PathVariable Long id) {
         return taskService.getTaskById(id)
-                .map(ResponseEntity::ok)
+                .map(task -> ResponseEntity.ok()
+                        .eTag(String.valueOf(task.getVersion()))
+                        .body(TaskResponse.from(task)))
                 .orElse(ResponseEntity.notFound().build());
     }
 
     /**
-     * Создаёт новую задачу
+     * Создаёт новую задачу; в режиме отложенной записи ответ приходит после групповой фиксации,
+     * а при переполненной очереди возвращается 503
      */
     @PostMapping
-    public ResponseEntity<Task> createTask(@RequestBody Task task) {
-        return ResponseEntity.ok(taskService.createdTask(task));
+    public CompletableFuture<ResponseEntity<TaskResponse>> createTask(@RequestBody Task task) {
+        TaskWriteBehindQueue queue = writeBehindQueue.getIfAvailable();
+        if (queue == null) {
+            return CompletableFuture.completedFuture(ResponseEntity.ok(TaskResponse.from(taskService.createdTask(task))));
+        }
+        try {
+            return queue.submit(task).thenApply(created -> ResponseEntity.ok(TaskResponse.from(created)));
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .build());
+        }
+    }
+
+    /**
+     * Создаёт задачи пакетом, возвращает результат по каждому элементу
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<BatchItemResult>> createTasks(@RequestBody List<Task> tasks) {
+        try {
+            return ResponseEntity.ok(taskBatchService.createTasks(tasks));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Обновляет задачи пакетом, возвращает результат по каждому элементу
+     */
+    @PutMapping("/batch")
+    public ResponseEntity<List<BatchItemResult>> updateTasks(@RequestBody List<Task> tasks) {
+        try {
+            return ResponseEntity.ok(taskBatchService.updateTasks(tasks));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     /**
-     * Обновляет существующую задачу
+     * Удаляет задачи по списку идентификаторов, возвращает результат по каждому элементу
+     */
+    @DeleteMapping("/batch")
+    public ResponseEntity<List<BatchItemResult>> deleteTasks(@RequestBody List<Long> ids) {
+        try {
+            return ResponseEntity.ok(taskBatchService.deleteTasks(ids));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Обновляет существующую задачу; при заданном If-Match
+     * обновление выполняется только для указанной версии, иначе 412.
+     * Слабый ETag в If-Match не совпадает ни с одной версией (строгое сравнение, RFC 9110)
      */
     @PutMapping("/{id}")
-    public ResponseEntity<Task> updateTask(@PathVariable Long id, @RequestBody Task task) {
+    public ResponseEntity<TaskResponse> updateTask(
+            @PathVariable Long id,
+            @RequestBody Task task,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
+        if (isWeak(ifMatch)) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
+        try {
+            Task updated = taskService.updateTask(id, task, parseVersion(ifMatch));
+            return ResponseEntity.ok()
+                    .eTag(String.valueOf(updated.getVersion()))
+                    .body(TaskResponse.from(updated));
+        } catch (TaskVersionConflictException | OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Изменяет только переданные поля задачи одним UPDATE;
+     * при заданном If-Match изменение выполняется только для указанной версии, иначе 412;
+     * слабый ETag в If-Match не совпадает ни с одной версией
+     */
+    @PatchMapping("/{id}")
+    public ResponseEntity<Void> patchTask(
+            @PathVariable Long id,
+            @RequestBody TaskPatch patch,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
+        if (isWeak(ifMatch)) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
         try {
-            return ResponseEntity.ok(taskService.updateTask(id, task));
+            Long version = taskService.patchTask(id, patch, parseVersion(ifMatch));
+            ResponseEntity.HeadersBuilder<?> response = ResponseEntity.noContent();
+            if (version != null) {
+                response.eTag(String.valueOf(version));
+            }
+            return response.build();
+        } catch (TaskVersionConflictException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -78,19 +333,127 @@ public class TaskController {
     }
 
     /**
-     * Возвращает задачи за указанный период с фильтрацией по статусу выполнения
+     * Возвращает задачи за именованный период или явный диапазон дедлайнов
+     * с фильтрацией по статусу выполнения, сортировкой и лимитом;
+     * поддерживает условный GET по If-None-Match так же, как список задач
      */
     @GetMapping("/filter")
-    public ResponseEntity<List<Task>> getTasksByPeriodAndStatus(
-            @RequestParam String period,
-            @RequestParam(required = false) Boolean completed
+    public ResponseEntity<List<?>> getTasksByPeriodAndStatus(
+            @RequestParam(required = false) String period,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String zone,
+            @RequestParam(required = false) Boolean completed,
+            @RequestParam(required = false) String sort,
+            @RequestParam(defaultValue = "" + TaskFilter.DEFAULT_LIMIT) int limit,
+            @RequestParam(required = false) String fields,
+            WebRequest request
     ) {
+        String etag = period != null ? changeTracker.periodEtag() : changeTracker.etag();
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
         try {
-            List<Task> tasks = taskService.getTasksByPeriodAndStatus(period, completed);
-            return ResponseEntity.ok(tasks);
+            TaskFilter filter = new TaskFilter(period, from, to, zone, completed, sort, limit);
+            boolean summary = isSummary(fields);
+            // Как и список, выборка с ETag читается из основной БД
+            List<?> body = ReplicaRoutingDataSource.<List<?>>onPrimary(() -> summary
+                    ? taskService.getTaskSummariesByFilter(filter)
+                    : taskService.getTasksByFilter(filter).stream().map(TaskResponse::from).toList());
+            return ResponseEntity.ok().eTag(etag).body(body);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
+    /**
+     * Сводка по задачам за период или явный диапазон: число выполненных, открытых
+     * и просроченных задач и гистограмма по дням или неделям. По умолчанию для дедлайнов
+     * берётся неделя вперёд, для даты создания — последние 7 дней, включая сегодня
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<TaskStats> getTaskStats(
+            @RequestParam(required = false) String period,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String zone,
+            @RequestParam(defaultValue = "day") String bucket,
+            @RequestParam(defaultValue = "dueDate") String by
+    ) {
+        try {
+            String defaultPeriod = "createdAt".equals(by) ? "last-week" : "week";
+            String effectivePeriod = period == null && from == null && to == null ? defaultPeriod : period;
+            TaskFilter range = new TaskFilter(effectivePeriod, from, to, zone, null, null, TaskFilter.DEFAULT_LIMIT);
+            return ResponseEntity.ok(taskService.getTaskStats(range, bucket, by));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Определяет по параметру fields, достаточно ли краткого представления:
+     * "summary" или список полей из id, title, completed, dueDate
+     */
+    private static boolean isSummary(String fields) {
+        if (fields == null || fields.isBlank() || fields.equals("full")) {
+            return false;
+        }
+        if (fields.equals("summary")) {
+            return true;
+        }
+        boolean summary = true;
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (!FULL_FIELDS.contains(name)) {
+                throw new IllegalArgumentException("Unknown field: " + name);
+            }
+            summary &= SUMMARY_FIELDS.contains(name);
+        }
+        return summary;
+    }
+
+    /**
+     * Извлекает версию из значения If-Match; отсутствие заголовка или "*" означает любую версию
+     */
+    private static Long parseVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim().replace("\"", "");
+        try {
+            return Long.parseLong(tag);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid If-Match: " + ifMatch, e);
+        }
+    }
+
+    /**
+     * If-Match содержит слабый ETag: If-Match требует строгого сравнения, поэтому такой тег не совпадает
+     */
+    private static boolean isWeak(String ifMatch) {
+        return ifMatch != null && ifMatch.trim().startsWith("W/");
+    }
+
+    private static CursorPage<TaskResponse> toResponses(CursorPage<Task> page) {
+        return new CursorPage<>(page.items().stream().map(TaskResponse::from).toList(), page.nextCursor());
+    }
+
+    private ResponseEntity<StreamingResponseBody> streamArray(ObjectMapper mapper, MediaType contentType) {
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = mapper.getFactory().createGenerator(out)) {
+                generator.writeStartArray();
+                taskService.streamAllTasks(task -> writeTask(generator, task));
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(contentType).body(body);
+    }
+
+    private void writeTask(JsonGenerator generator, Task task) {
+        try {
+            generator.writeObject(TaskResponse.from(task));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
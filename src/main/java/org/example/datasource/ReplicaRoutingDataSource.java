@@ -0,0 +1,264 @@
+package org.example.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Источник соединений, который отдаёт транзакциям readOnly = true соединения реплик
+ * (по кругу среди исправных), а всем остальным — соединения основной БД.
+ * Должен оборачиваться в LazyConnectionDataSourceProxy: тогда соединение берётся
+ * при первом запросе, когда признак readOnly транзакции уже выставлен
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private static final ThreadLocal<Boolean> PRIMARY_PINNED = new ThreadLocal<>();
+
+    /**
+     * Пул реплики и его текущее состояние
+     */
+    static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private final Counter routed;
+        private volatile boolean healthy = true;
+
+        Replica(String name, DataSource dataSource, Counter routed) {
+            this.name = name;
+            this.dataSource = dataSource;
+            this.routed = routed;
+        }
+
+        boolean isHealthy() {
+            return healthy;
+        }
+    }
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final String lagQuery;
+    private final Duration maxLag;
+    private final Counter writes;
+    private final Counter pinned;
+    private final Counter fallbacks;
+    private final AtomicInteger next = new AtomicInteger();
+    private ScheduledExecutorService healthChecks;
+
+    /**
+     * Создаёт источник; lagQuery возвращает отставание реплики в секундах
+     * (пустая строка — отставание не проверяется)
+     */
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, String lagQuery,
+                                    Duration maxLag, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.lagQuery = lagQuery;
+        this.maxLag = maxLag;
+        this.writes = routedCounter(meterRegistry, "primary", "write");
+        this.pinned = routedCounter(meterRegistry, "primary", "pinned");
+        this.fallbacks = routedCounter(meterRegistry, "primary", "fallback");
+        List<Replica> list = new ArrayList<>(replicas.size());
+        replicas.forEach((name, dataSource) -> {
+            Replica replica = new Replica(name, dataSource, routedCounter(meterRegistry, name, "read"));
+            Gauge.builder("tasks.datasource.replica.healthy", replica, r -> r.healthy ? 1 : 0)
+                    .tag("pool", name)
+                    .description("1 while the replica is in rotation, 0 while it is ejected")
+                    .register(meterRegistry);
+            list.add(replica);
+        });
+        this.replicas = List.copyOf(list);
+    }
+
+    /**
+     * Направляет соединения текущего потока в основную БД, даже для транзакций только на чтение
+     */
+    public static void pinToPrimary() {
+        PRIMARY_PINNED.set(Boolean.TRUE);
+    }
+
+    /**
+     * Снимает привязку текущего потока к основной БД
+     */
+    public static void unpin() {
+        PRIMARY_PINNED.remove();
+    }
+
+    /**
+     * Выполняет action с привязкой к основной БД и затем восстанавливает прежнюю привязку потока.
+     * Для чтений, результат которых видят и другие клиенты: заполнение общего кэша, ответы с ETag
+     */
+    public static <T> T onPrimary(Supplier<T> action) {
+        boolean pinned = PRIMARY_PINNED.get() != null;
+        PRIMARY_PINNED.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            if (!pinned) {
+                PRIMARY_PINNED.remove();
+            }
+        }
+    }
+
+    /**
+     * То же, что onPrimary, для действий без результата
+     */
+    public static void runOnPrimary(Runnable action) {
+        onPrimary(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Привязан ли текущий поток к основной БД
+     */
+    public static boolean isPinnedToPrimary() {
+        return PRIMARY_PINNED.get() != null;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return determineTarget().getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return determineTarget().getConnection(username, password);
+    }
+
+    /**
+     * Обёртки (например, HikariDataSource для метрик пула) ищутся у основной БД
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return (T) this;
+        }
+        return primary.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || primary.isWrapperFor(iface);
+    }
+
+    /**
+     * Запускает периодическую проверку реплик
+     */
+    public synchronized void startHealthChecks(Duration interval) {
+        if (healthChecks != null || replicas.isEmpty()) {
+            return;
+        }
+        healthChecks = Executors.newSingleThreadScheduledExecutor(
+                new CustomizableThreadFactory("replica-health-"));
+        long millis = interval.toMillis();
+        healthChecks.scheduleWithFixedDelay(this::checkHealth, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Проверяет каждую реплику: выводит из ротации недоступные и отставшие больше max-lag,
+     * возвращает восстановившиеся
+     */
+    void checkHealth() {
+        for (Replica replica : replicas) {
+            boolean healthy = probe(replica);
+            if (healthy != replica.healthy) {
+                replica.healthy = healthy;
+                if (healthy) {
+                    log.info("Replica {} is back in rotation", replica.name);
+                } else {
+                    log.warn("Replica {} ejected from rotation", replica.name);
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws Exception {
+        if (healthChecks != null) {
+            healthChecks.shutdownNow();
+        }
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    List<Replica> replicas() {
+        return replicas;
+    }
+
+    DataSource determineTarget() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            writes.increment();
+            return primary;
+        }
+        if (PRIMARY_PINNED.get() != null) {
+            pinned.increment();
+            return primary;
+        }
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.healthy) {
+                replica.routed.increment();
+                return replica.dataSource;
+            }
+        }
+        fallbacks.increment();
+        return primary;
+    }
+
+    private boolean probe(Replica replica) {
+        try (Connection connection = replica.dataSource.getConnection()) {
+            if (!connection.isValid(2)) {
+                return false;
+            }
+            if (lagQuery.isBlank()) {
+                return true;
+            }
+            try (Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout(2);
+                try (ResultSet rs = statement.executeQuery(lagQuery)) {
+                    double lagSeconds = rs.next() ? rs.getDouble(1) : 0;
+                    return lagSeconds * 1000 <= maxLag.toMillis();
+                }
+            }
+        } catch (SQLException | RuntimeException e) {
+            log.debug("Replica {} health check failed", replica.name, e);
+            return false;
+        }
+    }
+
+    private static Counter routedCounter(MeterRegistry meterRegistry, String pool, String reason) {
+        return Counter.builder("tasks.datasource.routed")
+                .tag("pool", pool)
+                .tag("reason", reason)
+                .description("Connections handed out per pool")
+                .register(meterRegistry);
+    }
+}
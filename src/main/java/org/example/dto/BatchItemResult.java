@@ -0,0 +1,37 @@
+package org.example.dto;
+
+/**
+ * Результат обработки одного элемента пакетной операции
+ *
+ * @param index  позиция элемента в исходном запросе
+ * @param id     идентификатор задачи, если он известен
+ * @param status итог обработки элемента
+ * @param error  описание ошибки для статуса FAILED
+ */
+public record BatchItemResult(int index, Long id, Status status, String error) {
+
+    /**
+     * Итог обработки элемента пакета
+     */
+    public enum Status {
+        CREATED,
+        UPDATED,
+        DELETED,
+        NOT_FOUND,
+        FAILED
+    }
+
+    /**
+     * Успешный или ненайденный элемент
+     */
+    public static BatchItemResult of(int index, Long id, Status status) {
+        return new BatchItemResult(index, id, status, null);
+    }
+
+    /**
+     * Элемент, обработка которого завершилась ошибкой
+     */
+    public static BatchItemResult failed(int index, Long id, Exception e) {
+        return new BatchItemResult(index, id, Status.FAILED, e.getMessage());
+    }
+}
@@ -0,0 +1,12 @@
+package org.example.dto;
+
+import java.util.List;
+
+/**
+ * Страница результатов keyset-пагинации
+ *
+ * @param items      элементы текущей страницы
+ * @param nextCursor непрозрачный токен следующей страницы или null, если страница последняя
+ */
+public record CursorPage<T>(List<T> items, String nextCursor) {
+}
@@ -0,0 +1,13 @@
+package org.example.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Число задач в одном интервале гистограммы по дате
+ *
+ * @param start     начало интервала (дня или недели) в локальном времени сервера
+ * @param completed выполненных задач в интервале
+ * @param open      невыполненных задач в интервале
+ */
+public record TaskBucketCount(LocalDateTime start, long completed, long open) {
+}
@@ -0,0 +1,13 @@
+package org.example.dto;
+
+import org.example.event.TaskChangedEvent;
+
+/**
+ * Запись ленты изменений задач
+ *
+ * @param offset порядковый номер изменения в ленте
+ * @param type   тип изменения
+ * @param taskId идентификатор изменённой задачи
+ */
+public record TaskChange(long offset, TaskChangedEvent.Type type, long taskId) {
+}
@@ -0,0 +1,15 @@
+package org.example.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Дедлайн, статус и версия задачи для индекса по дедлайнам;
+ * выбирается конструкторной проекцией без загрузки сущности
+ */
+public record TaskDueDate(
+        Long id,
+        LocalDateTime dueDate,
+        boolean completed,
+        long version
+) {
+}
@@ -0,0 +1,43 @@
+package org.example.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Параметры выборки задач по дедлайну
+ *
+ * @param period    именованный период (today, week, month; прошедшие last-week, last-month)
+ *                  или null, если задан явный диапазон
+ * @param from      начало диапазона (включительно) во временной зоне клиента
+ * @param to        конец диапазона (не включительно) во временной зоне клиента
+ * @param zone      временная зона клиента или null для зоны сервера
+ * @param completed статус выполнения или null без фильтра
+ * @param sort      поле сортировки с необязательным направлением, например "dueDate,desc"
+ * @param limit     максимальное количество задач в ответе
+ */
+public record TaskFilter(
+        String period,
+        LocalDateTime from,
+        LocalDateTime to,
+        String zone,
+        Boolean completed,
+        String sort,
+        int limit
+) {
+
+    /**
+     * Количество задач в ответе по умолчанию
+     */
+    public static final int DEFAULT_LIMIT = 1000;
+
+    /**
+     * Максимально допустимое количество задач в ответе
+     */
+    public static final int MAX_LIMIT = 5000;
+
+    /**
+     * Фильтр по именованному периоду в зоне сервера с сортировкой по дедлайну
+     */
+    public static TaskFilter ofPeriod(String period, Boolean completed) {
+        return new TaskFilter(period, null, null, null, completed, null, DEFAULT_LIMIT);
+    }
+}
@@ -0,0 +1,21 @@
+package org.example.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Частичное изменение задачи: поле со значением null не меняется
+ */
+public record TaskPatch(
+        String title,
+        String description,
+        Boolean completed,
+        LocalDateTime dueDate
+) {
+
+    /**
+     * Возвращает true, если в изменении нет ни одного поля
+     */
+    public boolean isEmpty() {
+        return title == null && description == null && completed == null && dueDate == null;
+    }
+}
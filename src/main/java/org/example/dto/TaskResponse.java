@@ -0,0 +1,34 @@
+package org.example.dto;
+
+import org.example.model.Task;
+
+import java.time.LocalDateTime;
+
+/**
+ * Полное представление задачи в ответах API
+ */
+public record TaskResponse(
+        Long id,
+        String title,
+        String description,
+        boolean completed,
+        LocalDateTime dueDate,
+        LocalDateTime createdAt,
+        long version
+) {
+
+    /**
+     * Копирует поля сущности в ответ
+     */
+    public static TaskResponse from(Task task) {
+        return new TaskResponse(
+                task.getId(),
+                task.getTitle(),
+                task.getDescription(),
+                task.isCompleted(),
+                task.getDueDate(),
+                task.getCreatedAt(),
+                task.getVersion()
+        );
+    }
+}
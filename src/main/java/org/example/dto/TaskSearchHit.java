@@ -0,0 +1,17 @@
+package org.example.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Задача, найденная полнотекстовым поиском, вместе с её релевантностью
+ *
+ * @param rank релевантность по ts_rank; совпадения в заголовке весят больше, чем в описании
+ */
+public record TaskSearchHit(
+        Long id,
+        String title,
+        boolean completed,
+        LocalDateTime dueDate,
+        float rank
+) {
+}
@@ -0,0 +1,24 @@
+package org.example.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Сводка по задачам за диапазон дат
+ *
+ * @param field   поле, по которому выбран диапазон и построены интервалы: dueDate или createdAt
+ * @param bucket  размер интервала гистограммы: day или week
+ * @param from    начало диапазона в локальном времени сервера
+ * @param to      конец диапазона (не включительно)
+ * @param status  число задач по состоянию
+ * @param buckets число задач по интервалам, только непустые интервалы
+ */
+public record TaskStats(
+        String field,
+        String bucket,
+        LocalDateTime from,
+        LocalDateTime to,
+        TaskStatusCounts status,
+        List<TaskBucketCount> buckets
+) {
+}
@@ -0,0 +1,10 @@
+package org.example.dto;
+
+/**
+ * Число задач по состоянию; выбирается одним агрегирующим запросом
+ *
+ * @param overdue невыполненные задачи с прошедшим дедлайном
+ * @param open    невыполненные задачи, срок которых ещё не прошёл или не задан
+ */
+public record TaskStatusCounts(long total, long completed, long open, long overdue) {
+}
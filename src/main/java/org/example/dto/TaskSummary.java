@@ -0,0 +1,15 @@
+package org.example.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Краткое представление задачи для списков; выбирается из БД
+ * конструкторной проекцией без загрузки сущности и описания
+ */
+public record TaskSummary(
+        Long id,
+        String title,
+        boolean completed,
+        LocalDateTime dueDate
+) {
+}
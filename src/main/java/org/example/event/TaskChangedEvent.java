@@ -0,0 +1,29 @@
+package org.example.event;
+
+import java.util.List;
+
+/**
+ * Событие об изменении задач; публикуется сервисами при записи
+ * и обрабатывается слушателями после фиксации транзакции
+ *
+ * @param type тип изменения
+ * @param ids  идентификаторы изменённых задач
+ */
+public record TaskChangedEvent(Type type, List<Long> ids) {
+
+    /**
+     * Тип изменения задачи
+     */
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    /**
+     * Событие об изменении одной задачи
+     */
+    public static TaskChangedEvent of(Type type, Long id) {
+        return new TaskChangedEvent(type, List.of(id));
+    }
+}
@@ -0,0 +1,14 @@
+package org.example.exception;
+
+/**
+ * Версия задачи не совпала с ожидаемой: запись изменил кто-то другой
+ */
+public class TaskVersionConflictException extends RuntimeException {
+
+    /**
+     * Создаёт исключение для задачи с указанным идентификатором
+     */
+    public TaskVersionConflictException(Long id, Long expectedVersion) {
+        super("Версия задачи " + id + " не совпадает с ожидаемой: " + expectedVersion);
+    }
+}
@@ -0,0 +1,35 @@
+package org.example.metrics;
+
+import org.example.service.DueDateIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator-эндпоинт /actuator/dueindex: сверка индекса по дедлайнам с БД
+ */
+@Component
+@Endpoint(id = "dueindex")
+@ConditionalOnProperty(name = "tasks.due-index.enabled", havingValue = "true")
+public class DueDateIndexEndpoint {
+
+    private final DueDateIndex dueDateIndex;
+
+    /**
+     * Создаёт эндпоинт для индекса
+     */
+    @Autowired
+    public DueDateIndexEndpoint(DueDateIndex dueDateIndex) {
+        this.dueDateIndex = dueDateIndex;
+    }
+
+    /**
+     * Полная сверка индекса с таблицей задач
+     */
+    @ReadOperation
+    public DueDateIndex.Report verify() {
+        return dueDateIndex.verify();
+    }
+}
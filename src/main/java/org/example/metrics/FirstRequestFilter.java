@@ -0,0 +1,53 @@
+package org.example.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Время от запуска JVM до ответа на первый запрос: пишется в лог и в метрику
+ * tasks.startup.first-request, чтобы сравнивать варианты сборки (обычный, AOT, CDS, native).
+ * Готовность контекста Spring Boot публикует сам в application.ready.time
+ */
+public class FirstRequestFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(FirstRequestFilter.class);
+
+    private final MeterRegistry meterRegistry;
+    private final AtomicBoolean served = new AtomicBoolean();
+
+    /**
+     * Создаёт фильтр
+     */
+    public FirstRequestFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (!served.get() && served.compareAndSet(false, true)) {
+                long millis = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+                TimeGauge.builder("tasks.startup.first-request", () -> millis, TimeUnit.MILLISECONDS)
+                        .description("Time from JVM start until the first HTTP response")
+                        .register(meterRegistry);
+                log.info("First request {} {} served {} ms after JVM start",
+                        request.getMethod(), request.getRequestURI(), millis);
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package org.example.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Записывает число SQL-запросов на HTTP-запрос, чтобы по метрике
+ * tasks.db.queries.per.request было видно N+1 на конкретном маршруте
+ */
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    private final QueryCountInspector inspector;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Создаёт фильтр
+     */
+    public QueryCountFilter(QueryCountInspector inspector, MeterRegistry meterRegistry) {
+        this.inspector = inspector;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        inspector.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            long queries = inspector.stop();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            DistributionSummary.builder("tasks.db.queries.per.request")
+                    .description("SQL statements issued while handling one HTTP request")
+                    .tag("method", request.getMethod())
+                    .tag("uri", pattern == null ? "UNKNOWN" : pattern.toString())
+                    .publishPercentiles(0.5, 0.99)
+                    .register(meterRegistry)
+                    .record(queries);
+        }
+    }
+}
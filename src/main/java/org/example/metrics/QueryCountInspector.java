@@ -0,0 +1,37 @@
+package org.example.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Считает SQL-запросы, подготовленные Hibernate в текущем потоке,
+ * между вызовами start и stop
+ */
+public class QueryCountInspector implements StatementInspector {
+
+    private final ThreadLocal<long[]> counter = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        long[] count = counter.get();
+        if (count != null) {
+            count[0]++;
+        }
+        return sql;
+    }
+
+    /**
+     * Начинает подсчёт в текущем потоке
+     */
+    public void start() {
+        counter.set(new long[1]);
+    }
+
+    /**
+     * Завершает подсчёт и возвращает число запросов
+     */
+    public long stop() {
+        long[] count = counter.get();
+        counter.remove();
+        return count == null ? 0 : count[0];
+    }
+}
@@ -0,0 +1,49 @@
+package org.example.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.Aspect;
+import org.example.dto.CursorPage;
+
+import java.util.Collection;
+
+/**
+ * Записывает размер результата методов сервисов задач в метрику tasks.result.size
+ */
+@Aspect
+public class ResultSizeAspect {
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Создаёт аспект
+     */
+    public ResultSizeAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Срабатывает после методов сервисов, возвращающих коллекцию или страницу
+     */
+    @AfterReturning(
+            pointcut = "execution(public * org.example.service.interfaces.*.*(..))",
+            returning = "result")
+    public void recordSize(JoinPoint joinPoint, Object result) {
+        int size;
+        if (result instanceof Collection<?> collection) {
+            size = collection.size();
+        } else if (result instanceof CursorPage<?> page) {
+            size = page.items().size();
+        } else {
+            return;
+        }
+        DistributionSummary.builder("tasks.result.size")
+                .description("Number of items returned by a task service method")
+                .tag("method", joinPoint.getSignature().getName())
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry)
+                .record(size);
+    }
+}
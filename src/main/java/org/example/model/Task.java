@@ -1,21 +1,27 @@
 package org.example.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.SQLRestriction;
 
 import java.time.LocalDateTime;
 
 /**
- * Сущность задачи в системе
+ * Сущность задачи в системе; удалённые задачи (deleted_at задан) скрыты из всех запросов JPA
  */
 @Entity
-@Table (name = "tasks")
+@SQLRestriction("deleted_at is null")
+@Table(name = "tasks", indexes = {
+        @Index(name = "idx_tasks_completed_due_date", columnList = "completed, due_date"),
+        @Index(name = "idx_tasks_due_date", columnList = "due_date")
+})
 public class Task {
 
     /**
      * Уникальный идентификатор задачи
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tasks_seq")
+    @SequenceGenerator(name = "tasks_seq", sequenceName = "tasks_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -46,6 +52,19 @@ public class Task {
     @Column(name = "created_at")
     private LocalDateTime createdAt = LocalDateTime.now();
 
+    /**
+     * Версия записи для оптимистической блокировки
+     */
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0 not null")
+    private long version;
+
+    /**
+     * Время мягкого удаления; физически строка удаляется фоновой очисткой
+     */
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
+
     public Task() {}
 
     public Long getId() { return id; }
@@ -71,5 +90,13 @@ public class Task {
     public LocalDateTime getCreatedAt() { return createdAt; }
 
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public long getVersion() { return version; }
+
+    public void setVersion(long version) { this.version = version; }
+
+    public LocalDateTime getDeletedAt() { return deletedAt; }
+
+    public void setDeletedAt(LocalDateTime deletedAt) { this.deletedAt = deletedAt; }
 }
 
@@ -0,0 +1,306 @@
+package org.example.reminder;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.example.datasource.ReplicaRoutingDataSource;
+import org.example.dto.TaskDueDate;
+import org.example.event.TaskChangedEvent;
+import org.example.repository.TaskRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Напоминания о сроках задач: по таймеру на каждую невыполненную задачу со сроком в
+ * иерархическом колесе, которое раз в tick продвигается отдельным потоком и отдаёт
+ * сработавшие сроки всем бинам DueTaskSink. После старта состояние восстанавливается
+ * одним диапазонным запросом по индексу (completed, due_date) за вычетом catch-up,
+ * дальше поддерживается событиями об изменениях задач, в том числе с других узлов через
+ * шину инвалидации. Перед отправкой сработавшие таймеры сверяются с БД одним запросом:
+ * выполненные, удалённые и перенесённые задачи не напоминают по старому сроку, даже если
+ * изменение до узла не дошло. Все чтения идут в основную БД: отставшая реплика не видит только что
+ * созданных задач, и их таймеры терялись бы. Таймеры живут в памяти узла: при нескольких узлах
+ * напоминание о задаче отправляет каждый, дубликаты отсекает получатель
+ */
+@Component
+@ConditionalOnProperty(name = "tasks.reminders.enabled", havingValue = "true")
+public class DueReminderEngine implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(DueReminderEngine.class);
+
+    private static final int RECHECK_CHUNK = 1000;
+
+    private final TaskRepository taskRepository;
+    private final List<DueTaskSink> sinks;
+    private final Clock clock;
+    private final long tickMillis;
+    private final Duration catchUp;
+    private final Duration overdueTolerance;
+    private final HierarchicalTimingWheel wheel;
+    private final ScheduledExecutorService ticker;
+    private final Counter firedDue;
+    private final Counter firedOverdue;
+    private final Timer lateness;
+    // Задачи, изменённые во время восстановления: восстановление не должно перетирать их более свежее состояние
+    private final Set<Long> touchedDuringRecovery = ConcurrentHashMap.newKeySet();
+    private volatile boolean recovering;
+    private volatile boolean started;
+
+    /**
+     * Создаёт движок напоминаний
+     */
+    @Autowired
+    public DueReminderEngine(
+            TaskRepository taskRepository,
+            List<DueTaskSink> sinks,
+            MeterRegistry meterRegistry,
+            @Value("${tasks.reminders.tick:1s}") Duration tick,
+            @Value("${tasks.reminders.catch-up:5m}") Duration catchUp,
+            @Value("${tasks.reminders.overdue-tolerance:5s}") Duration overdueTolerance
+    ) {
+        this(taskRepository, sinks, meterRegistry, tick, catchUp, overdueTolerance, Clock.systemDefaultZone());
+    }
+
+    DueReminderEngine(TaskRepository taskRepository, List<DueTaskSink> sinks, MeterRegistry meterRegistry,
+                      Duration tick, Duration catchUp, Duration overdueTolerance, Clock clock) {
+        this.taskRepository = taskRepository;
+        this.sinks = sinks;
+        this.clock = clock;
+        this.tickMillis = tick.toMillis();
+        this.catchUp = catchUp;
+        this.overdueTolerance = overdueTolerance;
+        this.wheel = new HierarchicalTimingWheel(Math.floorDiv(clock.millis(), tickMillis), 1024);
+        this.ticker = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("task-reminders-"));
+        this.firedDue = Counter.builder("tasks.reminders.fired").tag("kind", "due")
+                .description("Task due dates fired by the reminder wheel")
+                .register(meterRegistry);
+        this.firedOverdue = Counter.builder("tasks.reminders.fired").tag("kind", "overdue")
+                .description("Task due dates fired by the reminder wheel")
+                .register(meterRegistry);
+        this.lateness = Timer.builder("tasks.reminders.lateness")
+                .description("Delay between a task due date and its reminder")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("tasks.reminders.pending", this, DueReminderEngine::pending).register(meterRegistry);
+    }
+
+    /**
+     * Восстанавливает таймеры невыполненных задач со сроком не раньше now − catch-up
+     * и запускает колесо; сроки, прошедшие за время простоя, сработают на первом тике как OVERDUE
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void recover() {
+        long begin = System.nanoTime();
+        load(LocalDateTime.now(clock).minus(catchUp), true);
+        log.info("Reminder wheel recovered: {} timers in {} ms",
+                pending(), (System.nanoTime() - begin) / 1_000_000);
+        synchronized (this) {
+            if (!started) {
+                started = true;
+                ticker.scheduleAtFixedRate(this::tickSafely, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Заново ставит таймеры всех невыполненных задач с будущим сроком, не повторяя уже прошедшие;
+     * вызывается, когда изменения с других узлов могли потеряться. Лишние таймеры отсекает сверка при срабатывании
+     */
+    @Transactional(readOnly = true)
+    public void reload() {
+        // До первого восстановления перечитывать нечего: оно само загрузит актуальные сроки
+        if (started) {
+            load(LocalDateTime.now(clock), false);
+        }
+    }
+
+    /**
+     * Применяет зафиксированные изменения задач к таймерам. Уже прошедший срок при изменении
+     * задачи не срабатывает повторно, кроме только что созданных задач
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        if (recovering) {
+            touchedDuringRecovery.addAll(event.ids());
+        }
+        if (event.type() == TaskChangedEvent.Type.DELETED) {
+            synchronized (wheel) {
+                event.ids().forEach(wheel::cancel);
+            }
+            return;
+        }
+        List<TaskDueDate> rows = ReplicaRoutingDataSource.onPrimary(() -> taskRepository.findDueDates(event.ids()));
+        Set<Long> found = new HashSet<>();
+        synchronized (wheel) {
+            for (TaskDueDate row : rows) {
+                found.add(row.id());
+                if (row.completed() || row.dueDate() == null) {
+                    wheel.cancel(row.id());
+                    continue;
+                }
+                long deadline = deadlineTick(row.dueDate());
+                if (deadline > wheel.currentTick() || event.type() == TaskChangedEvent.Type.CREATED) {
+                    wheel.schedule(row.id(), deadline);
+                } else {
+                    wheel.cancel(row.id());
+                }
+            }
+            // Задача могла быть удалена между фиксацией и чтением
+            event.ids().stream().filter(id -> !found.contains(id)).forEach(wheel::cancel);
+        }
+    }
+
+    /**
+     * Число ожидающих таймеров
+     */
+    public int pending() {
+        synchronized (wheel) {
+            return wheel.size();
+        }
+    }
+
+    /**
+     * Продвигает колесо до текущего момента и раздаёт сработавшие сроки получателям;
+     * получатели вызываются вне блокировки колеса
+     */
+    void tick() {
+        List<long[]> fired = new ArrayList<>();
+        long tick = Math.floorDiv(clock.millis(), tickMillis);
+        synchronized (wheel) {
+            wheel.advanceTo(tick, (id, deadlineTick) -> fired.add(new long[]{id, deadlineTick}));
+        }
+        if (fired.isEmpty()) {
+            return;
+        }
+        Map<Long, TaskDueDate> current;
+        try {
+            current = ReplicaRoutingDataSource.onPrimary(() -> currentDueDates(fired));
+        } catch (RuntimeException e) {
+            // Без сверки не отправляем: таймеры повторятся на следующем тике
+            synchronized (wheel) {
+                fired.forEach(timer -> wheel.schedule(timer[0], timer[1]));
+            }
+            throw e;
+        }
+        Instant now = clock.instant();
+        for (long[] timer : fired) {
+            TaskDueDate row = current.get(timer[0]);
+            if (row == null || row.completed() || row.dueDate() == null) {
+                // Задачу удалили или выполнили, а изменение до этого узла не дошло
+                continue;
+            }
+            long deadline = deadlineTick(row.dueDate());
+            if (deadline > tick) {
+                synchronized (wheel) {
+                    wheel.schedule(row.id(), deadline);
+                }
+                continue;
+            }
+            Instant dueAt = Instant.ofEpochMilli(deadline * tickMillis);
+            Duration late = Duration.between(dueAt, now);
+            TaskDueEvent.Kind kind = late.compareTo(overdueTolerance) > 0
+                    ? TaskDueEvent.Kind.OVERDUE : TaskDueEvent.Kind.DUE;
+            (kind == TaskDueEvent.Kind.DUE ? firedDue : firedOverdue).increment();
+            lateness.record(late.isNegative() ? Duration.ZERO : late);
+            TaskDueEvent event = new TaskDueEvent(row.id(), dueAt, kind, now);
+            for (DueTaskSink sink : sinks) {
+                try {
+                    sink.onDue(event);
+                } catch (RuntimeException e) {
+                    // Сбой одного получателя не должен лишать напоминания остальных
+                    log.warn("Due task sink {} failed for task {}", sink.getClass().getSimpleName(), timer[0], e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Останавливает колесо
+     */
+    @Override
+    public void destroy() {
+        ticker.shutdownNow();
+    }
+
+    private void load(LocalDateTime from, boolean includePast) {
+        recovering = true;
+        try {
+            ReplicaRoutingDataSource.runOnPrimary(() -> {
+                try (Stream<TaskDueDate> rows = taskRepository.streamOpenDueFrom(from)) {
+                    rows.forEach(row -> {
+                        if (!touchedDuringRecovery.contains(row.id())) {
+                            long deadline = deadlineTick(row.dueDate());
+                            synchronized (wheel) {
+                                if (includePast || deadline > wheel.currentTick()) {
+                                    wheel.schedule(row.id(), deadline);
+                                }
+                            }
+                        }
+                    });
+                }
+            });
+        } finally {
+            recovering = false;
+            touchedDuringRecovery.clear();
+        }
+    }
+
+    /**
+     * Текущие сроки сработавших задач, запросами по RECHECK_CHUNK идентификаторов
+     */
+    private Map<Long, TaskDueDate> currentDueDates(List<long[]> fired) {
+        Map<Long, TaskDueDate> current = new HashMap<>(fired.size() * 2);
+        for (int from = 0; from < fired.size(); from += RECHECK_CHUNK) {
+            List<Long> ids = fired.subList(from, Math.min(from + RECHECK_CHUNK, fired.size())).stream()
+                    .map(timer -> timer[0])
+                    .toList();
+            taskRepository.findDueDates(ids).forEach(row -> current.put(row.id(), row));
+        }
+        return current;
+    }
+
+    private void tickSafely() {
+        try {
+            tick();
+        } catch (RuntimeException e) {
+            // Исключение из scheduleAtFixedRate остановило бы колесо навсегда
+            log.error("Reminder tick failed", e);
+        }
+    }
+
+    /**
+     * Тик срабатывания: срок, округлённый вверх до границы тика, чтобы не сработать раньше
+     */
+    private long deadlineTick(LocalDateTime dueDate) {
+        long millis = dueDate.atZone(clock.getZone()).toInstant().toEpochMilli();
+        return Math.floorDiv(millis + tickMillis - 1, tickMillis);
+    }
+}
@@ -0,0 +1,13 @@
+package org.example.reminder;
+
+/**
+ * Получатель сработавших сроков задач; все бины этого типа получают каждое событие.
+ * Вызывается из потока колеса, поэтому долгую работу нужно уводить в свой поток
+ */
+public interface DueTaskSink {
+
+    /**
+     * Обрабатывает срабатывание срока задачи
+     */
+    void onDue(TaskDueEvent event);
+}
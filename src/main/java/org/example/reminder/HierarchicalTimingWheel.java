@@ -0,0 +1,194 @@
+package org.example.reminder;
+
+import java.util.Arrays;
+
+/**
+ * Иерархическое колесо таймеров: LEVELS уровней по 64 ячейки, ячейка уровня l покрывает 64^l тиков
+ * (при тике в 1 с — 64 с, 68 мин, 3 сут и 194 сут). Дальше горизонта таймеры ждут в отдельном
+ * списке и пересматриваются при каждом обороте верхнего уровня. Вставка и отмена — O(1);
+ * при переходе границы уровня его ячейка раскладывается на нижние уровни.
+ *
+ * <p>Таймеры хранятся в параллельных примитивных массивах как двусвязные списки ячеек,
+ * по одному таймеру на идентификатор; без объектов на таймер уходит около 50 байт
+ * вместе с индексом по идентификатору. Не потокобезопасен
+ */
+final class HierarchicalTimingWheel {
+
+    /**
+     * Получатель сработавших таймеров
+     */
+    interface ExpiryHandler {
+        void expired(long id, long deadlineTick);
+    }
+
+    static final int LEVELS = 4;
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int OVERFLOW = LEVELS * SLOTS;
+    private static final int NONE = -1;
+
+    private final int[] heads = new int[OVERFLOW + 1];
+    private final LongIntMap nodesById;
+    private long[] ids;
+    private long[] deadlines;
+    private int[] next;
+    private int[] prev;
+    private short[] buckets;
+    private int allocated;
+    private int free = NONE;
+    private long currentTick;
+
+    HierarchicalTimingWheel(long startTick, int expectedTimers) {
+        this.currentTick = startTick;
+        int capacity = Math.max(16, expectedTimers);
+        Arrays.fill(heads, NONE);
+        nodesById = new LongIntMap(capacity);
+        ids = new long[capacity];
+        deadlines = new long[capacity];
+        next = new int[capacity];
+        prev = new int[capacity];
+        buckets = new short[capacity];
+    }
+
+    long currentTick() {
+        return currentTick;
+    }
+
+    int size() {
+        return nodesById.size();
+    }
+
+    /**
+     * Ставит или переставляет таймер идентификатора; прошедший срок сработает на следующем тике
+     */
+    void schedule(long id, long deadlineTick) {
+        int node = nodesById.get(id);
+        if (node == NONE) {
+            node = allocate();
+            ids[node] = id;
+            nodesById.put(id, node);
+        } else {
+            unlink(node);
+        }
+        deadlines[node] = deadlineTick;
+        link(node, bucketFor(deadlineTick, false));
+    }
+
+    /**
+     * Снимает таймер; false, если его не было
+     */
+    boolean cancel(long id) {
+        int node = nodesById.remove(id);
+        if (node == NONE) {
+            return false;
+        }
+        unlink(node);
+        release(node);
+        return true;
+    }
+
+    /**
+     * Продвигает колесо до тика tick включительно, передавая сработавшие таймеры обработчику
+     */
+    void advanceTo(long tick, ExpiryHandler handler) {
+        while (currentTick < tick) {
+            currentTick++;
+            if ((currentTick & ((1L << (SLOT_BITS * (LEVELS - 1))) - 1)) == 0) {
+                cascade(OVERFLOW);
+            }
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                    cascade(level * SLOTS + (int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK));
+                }
+            }
+            expire((int) (currentTick & SLOT_MASK), handler);
+        }
+    }
+
+    /**
+     * Ячейка для срока: самый нижний уровень, на одном обороте которого срок помещается.
+     * При раскладке срок, равный текущему тику, попадает в ячейку, которая сработает на этом же тике
+     */
+    private int bucketFor(long deadlineTick, boolean cascading) {
+        long target = deadlineTick;
+        if (deadlineTick <= currentTick) {
+            target = cascading ? currentTick : currentTick + 1;
+        }
+        long delta = target - currentTick;
+        for (int level = 0; level < LEVELS; level++) {
+            if (delta < 1L << (SLOT_BITS * (level + 1))) {
+                return level * SLOTS + (int) ((target >>> (SLOT_BITS * level)) & SLOT_MASK);
+            }
+        }
+        return OVERFLOW;
+    }
+
+    private void cascade(int bucket) {
+        int node = heads[bucket];
+        heads[bucket] = NONE;
+        while (node != NONE) {
+            int following = next[node];
+            link(node, bucketFor(deadlines[node], true));
+            node = following;
+        }
+    }
+
+    private void expire(int bucket, ExpiryHandler handler) {
+        int node = heads[bucket];
+        heads[bucket] = NONE;
+        while (node != NONE) {
+            int following = next[node];
+            long id = ids[node];
+            long deadline = deadlines[node];
+            nodesById.remove(id);
+            release(node);
+            handler.expired(id, deadline);
+            node = following;
+        }
+    }
+
+    private void link(int node, int bucket) {
+        int head = heads[bucket];
+        next[node] = head;
+        prev[node] = NONE;
+        if (head != NONE) {
+            prev[head] = node;
+        }
+        heads[bucket] = node;
+        buckets[node] = (short) bucket;
+    }
+
+    private void unlink(int node) {
+        if (prev[node] != NONE) {
+            next[prev[node]] = next[node];
+        } else {
+            heads[buckets[node]] = next[node];
+        }
+        if (next[node] != NONE) {
+            prev[next[node]] = prev[node];
+        }
+    }
+
+    private int allocate() {
+        if (free != NONE) {
+            int node = free;
+            free = next[node];
+            return node;
+        }
+        if (allocated == ids.length) {
+            int capacity = ids.length + (ids.length >> 1);
+            ids = Arrays.copyOf(ids, capacity);
+            deadlines = Arrays.copyOf(deadlines, capacity);
+            next = Arrays.copyOf(next, capacity);
+            prev = Arrays.copyOf(prev, capacity);
+            buckets = Arrays.copyOf(buckets, capacity);
+        }
+        return allocated++;
+    }
+
+    private void release(int node) {
+        next[node] = free;
+        free = node;
+    }
+}
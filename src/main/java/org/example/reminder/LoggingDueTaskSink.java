@@ -0,0 +1,21 @@
+package org.example.reminder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Пишет сработавшие сроки в лог
+ */
+@Component
+@ConditionalOnProperty(name = "tasks.reminders.enabled", havingValue = "true")
+public class LoggingDueTaskSink implements DueTaskSink {
+
+    private static final Logger log = LoggerFactory.getLogger(LoggingDueTaskSink.class);
+
+    @Override
+    public void onDue(TaskDueEvent event) {
+        log.info("Task {} {} at {} (due {})", event.taskId(), event.kind(), event.firedAt(), event.dueAt());
+    }
+}
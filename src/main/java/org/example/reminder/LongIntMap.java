@@ -0,0 +1,109 @@
+package org.example.reminder;
+
+import java.util.Arrays;
+
+/**
+ * Хеш-таблица long → int с открытой адресацией на примитивных массивах: около 24 байт
+ * на запись вместо ~80 у HashMap&lt;Long, Integer&gt;. Ключ Long.MIN_VALUE зарезервирован
+ */
+final class LongIntMap {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    LongIntMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedSize * 2) - 1) << 1;
+        allocate(capacity);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Значение по ключу или -1, если ключа нет
+     */
+    int get(long key) {
+        for (int i = slot(key); ; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return values[i];
+            }
+            if (keys[i] == EMPTY) {
+                return -1;
+            }
+        }
+    }
+
+    void put(long key, int value) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("Reserved key: " + key);
+        }
+        if ((size + 1) * 2 > keys.length) {
+            resize();
+        }
+        int i = slot(key);
+        while (keys[i] != EMPTY && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        if (keys[i] == EMPTY) {
+            size++;
+        }
+        keys[i] = key;
+        values[i] = value;
+    }
+
+    /**
+     * Удаляет ключ и возвращает его значение или -1, если ключа не было
+     */
+    int remove(long key) {
+        int i = slot(key);
+        while (keys[i] != key) {
+            if (keys[i] == EMPTY) {
+                return -1;
+            }
+            i = (i + 1) & mask;
+        }
+        int removed = values[i];
+        size--;
+        // Сдвигаем назад следующие записи цепочки, чтобы поиск не обрывался на дыре
+        int hole = i;
+        for (int j = (hole + 1) & mask; keys[j] != EMPTY; j = (j + 1) & mask) {
+            int home = slot(keys[j]);
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                keys[hole] = keys[j];
+                values[hole] = values[j];
+                hole = j;
+            }
+        }
+        keys[hole] = EMPTY;
+        return removed;
+    }
+
+    private int slot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(oldKeys.length * 2);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        values = new int[capacity];
+        mask = capacity - 1;
+    }
+}
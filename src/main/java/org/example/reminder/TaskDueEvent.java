@@ -0,0 +1,22 @@
+package org.example.reminder;
+
+import java.time.Instant;
+
+/**
+ * Срабатывание срока задачи
+ *
+ * @param taskId  идентификатор задачи
+ * @param dueAt   срок задачи с точностью до тика колеса
+ * @param kind    DUE — сработал вовремя, OVERDUE — с опозданием больше допустимого (например, после перезапуска)
+ * @param firedAt момент срабатывания
+ */
+public record TaskDueEvent(Long taskId, Instant dueAt, Kind kind, Instant firedAt) {
+
+    /**
+     * Вид срабатывания
+     */
+    public enum Kind {
+        DUE,
+        OVERDUE
+    }
+}
@@ -0,0 +1,80 @@
+package org.example.reminder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * Отправляет каждое срабатывание JSON-ом POST-запросом на tasks.reminders.webhook-url;
+ * запросы асинхронные и без повторов, неудачи только считаются в tasks.reminders.webhook.failures
+ */
+@Component
+@ConditionalOnExpression("${tasks.reminders.enabled:false} and '${tasks.reminders.webhook-url:}' != ''")
+public class WebhookDueTaskSink implements DueTaskSink, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(WebhookDueTaskSink.class);
+
+    private final ObjectMapper objectMapper;
+    private final URI url;
+    private final Duration timeout;
+    private final HttpClient client;
+    private final Counter failures;
+
+    /**
+     * Создаёт отправителя
+     */
+    @Autowired
+    public WebhookDueTaskSink(ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry,
+                              @Value("${tasks.reminders.webhook-url}") String url,
+                              @Value("${tasks.reminders.webhook-timeout:2s}") Duration timeout) {
+        this.objectMapper = objectMapper;
+        this.url = URI.create(url);
+        this.timeout = timeout;
+        this.client = HttpClient.newBuilder().connectTimeout(timeout).build();
+        this.failures = Counter.builder("tasks.reminders.webhook.failures")
+                .description("Due events the webhook did not accept")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void onDue(TaskDueEvent event) {
+        String body;
+        try {
+            body = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+        HttpRequest request = HttpRequest.newBuilder(url)
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    if (error != null || response.statusCode() >= 300) {
+                        failures.increment();
+                        log.debug("Webhook rejected due event for task {}", event.taskId(), error);
+                    }
+                });
+    }
+
+    @Override
+    public void destroy() {
+        client.close();
+    }
+}
@@ -1,17 +1,37 @@
 package org.example.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.example.dto.TaskDueDate;
+import org.example.dto.TaskStatusCounts;
+import org.example.dto.TaskSummary;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.example.model.Task;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Репозиторий для работы с сущностью
  */
 @Repository
-public interface TaskRepository extends JpaRepository<Task, Long> {
+public interface TaskRepository extends JpaRepository<Task, Long>, TaskRepositoryCustom {
+
+    /**
+     * Суммы по выполненным, открытым и просроченным задачам для проекции TaskStatusCounts
+     */
+    String STATUS_SUMS = "coalesce(sum(case when t.completed = true then 1L else 0L end), 0L), "
+            + "coalesce(sum(case when t.completed = false and (t.dueDate is null or t.dueDate >= :now) "
+            + "then 1L else 0L end), 0L), "
+            + "coalesce(sum(case when t.completed = false and t.dueDate < :now then 1L else 0L end), 0L)";
 
     /**
      * Возвращает все задачи с указанным статусом выполнения
@@ -19,14 +39,132 @@ public interface TaskRepository extends JpaRepository<Task, Long> {
     List<Task> findAllByCompleted(boolean completed);
 
     /**
-     * Возвращает все задачи, у которых дедлайн
-     * находится в указанном диапазоне
+     * Возвращает задачи, у которых дедлайн находится в диапазоне [from, to),
+     * с сортировкой и ограничением из pageable (индекс по due_date)
+     */
+    @Query("select t from Task t where t.dueDate >= :from and t.dueDate < :to")
+    List<Task> findAllDueWithin(@Param("from") LocalDateTime from,
+                                @Param("to") LocalDateTime to,
+                                Pageable pageable);
+
+    /**
+     * Возвращает задачи с заданным статусом выполнения, у которых дедлайн
+     * находится в диапазоне [from, to) (индекс по completed, due_date)
+     */
+    @Query("select t from Task t where t.completed = :completed and t.dueDate >= :from and t.dueDate < :to")
+    List<Task> findAllDueWithinByCompleted(@Param("completed") boolean completed,
+                                           @Param("from") LocalDateTime from,
+                                           @Param("to") LocalDateTime to,
+                                           Pageable pageable);
+
+    /**
+     * Возвращает задачи с идентификатором больше указанного в порядке возрастания id
+     * (keyset-пагинация по первичному ключу)
+     */
+    List<Task> findAllByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    /**
+     * Краткие представления задач с идентификатором больше указанного в порядке возрастания id
+     */
+    @Query("select new org.example.dto.TaskSummary(t.id, t.title, t.completed, t.dueDate) "
+            + "from Task t where t.id > :afterId order by t.id")
+    List<TaskSummary> findSummariesAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Краткие представления задач с дедлайном в диапазоне [from, to)
+     */
+    @Query("select new org.example.dto.TaskSummary(t.id, t.title, t.completed, t.dueDate) "
+            + "from Task t where t.dueDate >= :from and t.dueDate < :to")
+    List<TaskSummary> findSummariesDueWithin(@Param("from") LocalDateTime from,
+                                             @Param("to") LocalDateTime to,
+                                             Pageable pageable);
+
+    /**
+     * Краткие представления задач с заданным статусом и дедлайном в диапазоне [from, to)
+     */
+    @Query("select new org.example.dto.TaskSummary(t.id, t.title, t.completed, t.dueDate) "
+            + "from Task t where t.completed = :completed and t.dueDate >= :from and t.dueDate < :to")
+    List<TaskSummary> findSummariesDueWithinByCompleted(@Param("completed") boolean completed,
+                                                        @Param("from") LocalDateTime from,
+                                                        @Param("to") LocalDateTime to,
+                                                        Pageable pageable);
+
+    /**
+     * Возвращает все задачи потоком через серверный курсор;
+     * должен вызываться внутри транзакции, поток нужно закрыть
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<Task> streamAllByOrderByIdAsc();
+
+    /**
+     * Возвращает те идентификаторы из переданных, для которых задачи существуют
+     */
+    @Query("select t.id from Task t where t.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Мягко удаляет задачу одним UPDATE и возвращает число изменённых строк (0 — задачи нет)
+     */
+    @Modifying
+    @Query("update Task t set t.deletedAt = :now, t.version = t.version + 1 "
+            + "where t.id = :id and t.deletedAt is null")
+    int softDeleteById(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    /**
+     * Мягко удаляет задачи с переданными идентификаторами и возвращает число изменённых строк
+     */
+    @Modifying
+    @Query("update Task t set t.deletedAt = :now, t.version = t.version + 1 "
+            + "where t.id in :ids and t.deletedAt is null")
+    int softDeleteAllById(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    /**
+     * Время создания самой старой выполненной задачи, созданной раньше before
+     */
+    @Query("select min(t.createdAt) from Task t where t.completed = true and t.createdAt < :before")
+    LocalDateTime findOldestCompletedCreatedBefore(@Param("before") LocalDateTime before);
+
+    /**
+     * Дедлайны всех задач, у которых он задан, потоком через серверный курсор;
+     * должен вызываться внутри транзакции, поток нужно закрыть
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "5000"))
+    @Query("select new org.example.dto.TaskDueDate(t.id, t.dueDate, t.completed, t.version) "
+            + "from Task t where t.dueDate is not null")
+    Stream<TaskDueDate> streamDueDates();
+
+    /**
+     * Дедлайны невыполненных задач со сроком не раньше from потоком через серверный курсор:
+     * один диапазонный проход по idx_tasks_completed_due_date; должен вызываться внутри транзакции
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "5000"))
+    @Query("select new org.example.dto.TaskDueDate(t.id, t.dueDate, t.completed, t.version) "
+            + "from Task t where t.completed = false and t.dueDate >= :from")
+    Stream<TaskDueDate> streamOpenDueFrom(@Param("from") LocalDateTime from);
+
+    /**
+     * Дедлайны задач с переданными идентификаторами
+     */
+    @Query("select new org.example.dto.TaskDueDate(t.id, t.dueDate, t.completed, t.version) "
+            + "from Task t where t.id in :ids")
+    List<TaskDueDate> findDueDates(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Число задач по состоянию среди задач с дедлайном в диапазоне [from, to);
+     * просроченной считается невыполненная задача с дедлайном раньше now
      */
-    List<Task> findAllByDueDateBetween(LocalDateTime from, LocalDateTime to);
+    @Query("select new org.example.dto.TaskStatusCounts(count(t), "
+            + STATUS_SUMS + ") from Task t where t.dueDate >= :from and t.dueDate < :to")
+    TaskStatusCounts countStatusesDueWithin(@Param("from") LocalDateTime from,
+                                            @Param("to") LocalDateTime to,
+                                            @Param("now") LocalDateTime now);
 
     /**
-     * Возвращает все задачи, у которых дедлайн
-     * находится в указанном диапазоне и заданный статус выполнения
+     * Число задач по состоянию среди задач, созданных в диапазоне [from, to)
      */
-    List<Task> findAllByDueDateBetweenAndCompleted(LocalDateTime from, LocalDateTime to, boolean completed);
+    @Query("select new org.example.dto.TaskStatusCounts(count(t), "
+            + STATUS_SUMS + ") from Task t where t.createdAt >= :from and t.createdAt < :to")
+    TaskStatusCounts countStatusesCreatedWithin(@Param("from") LocalDateTime from,
+                                                @Param("to") LocalDateTime to,
+                                                @Param("now") LocalDateTime now);
 }
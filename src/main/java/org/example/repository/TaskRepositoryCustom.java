@@ -0,0 +1,54 @@
+package org.example.repository;
+
+import org.example.dto.TaskBucketCount;
+import org.example.dto.TaskPatch;
+import org.example.dto.TaskSearchHit;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Операции репозитория задач, которые не выражаются производными запросами
+ */
+public interface TaskRepositoryCustom {
+
+    /**
+     * Одним UPDATE меняет только переданные поля и увеличивает версию;
+     * при заданной expectedVersion обновление происходит только при её совпадении.
+     * Возвращает число изменённых строк
+     */
+    int patch(Long id, TaskPatch patch, Long expectedVersion);
+
+    /**
+     * Полнотекстовый поиск по заголовку и описанию (tsquery в конфигурации simple)
+     * в порядке убывания релевантности, при равной релевантности по возрастанию id;
+     * при заданных afterRank и afterId возвращает строки после этой позиции
+     */
+    List<TaskSearchHit> search(String tsQuery, Float afterRank, Long afterId, int limit);
+
+    /**
+     * Гистограмма задач одним GROUP BY: число выполненных и невыполненных задач
+     * в каждом непустом интервале unit ("day" или "week") по колонке поля field
+     * ("dueDate" или "createdAt") в диапазоне [from, to)
+     */
+    List<TaskBucketCount> countByBucket(String field, String unit, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Одним запросом переносит в tasks_archive до limit выполненных задач, созданных раньше
+     * createdBefore, начиная с самых старых; строки, заблокированные другими транзакциями,
+     * пропускаются. Возвращает идентификаторы перенесённых задач
+     */
+    List<Long> archiveCompleted(LocalDateTime createdBefore, int limit);
+
+    /**
+     * Физически удаляет до limit задач, мягко удалённых раньше deletedBefore,
+     * и возвращает их идентификаторы
+     */
+    List<Long> purgeDeleted(LocalDateTime deletedBefore, int limit);
+
+    /**
+     * Создаёт месячную секцию tasks_archive, если её ещё нет
+     */
+    void createArchivePartition(YearMonth month);
+}
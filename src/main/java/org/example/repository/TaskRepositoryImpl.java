@@ -0,0 +1,192 @@
+package org.example.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.Query;
+import org.example.dto.TaskBucketCount;
+import org.example.dto.TaskPatch;
+import org.example.dto.TaskSearchHit;
+import org.example.model.Task;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Реализация TaskRepositoryCustom на Criteria API и нативных запросах PostgreSQL
+ */
+public class TaskRepositoryImpl implements TaskRepositoryCustom {
+
+    /**
+     * Поиск по генерируемой колонке search_vector (GIN-индекс idx_tasks_search_vector, миграция V2)
+     */
+    private static final String SEARCH = "select t.id, t.title, t.completed, t.due_date, "
+            + "ts_rank(t.search_vector, q) as rank "
+            + "from tasks t, to_tsquery('simple', :query) q "
+            + "where t.search_vector @@ q and t.deleted_at is null";
+
+    private static final String SEARCH_FIRST = SEARCH
+            + " order by rank desc, t.id limit :limit";
+
+    private static final String SEARCH_AFTER = "select * from (" + SEARCH + ") s "
+            + "where s.rank < :afterRank or (s.rank = :afterRank and s.id > :afterId) "
+            + "order by s.rank desc, s.id limit :limit";
+
+    /**
+     * Колонки, по которым строятся гистограммы; имя колонки подставляется в SQL только из этого списка
+     */
+    private static final Map<String, String> BUCKET_COLUMNS = Map.of("dueDate", "due_date", "createdAt", "created_at");
+
+    private static final String BUCKETS = "select date_trunc(:unit, t.%1$s) as bucket, "
+            + "count(*) filter (where t.completed) as completed, "
+            + "count(*) filter (where not t.completed) as open "
+            + "from tasks t where t.%1$s >= :from and t.%1$s < :to and t.deleted_at is null "
+            + "group by 1 order by 1";
+
+    /**
+     * Перенос в архив: строки удаляются из tasks и вставляются в секционированную tasks_archive
+     * в одном операторе, поэтому задача не может оказаться в обеих таблицах или ни в одной
+     */
+    private static final String ARCHIVE = "with moved as ("
+            + "delete from tasks where id in ("
+            + "select id from tasks where completed and deleted_at is null and created_at < :before "
+            + "order by created_at limit :limit for update skip locked) "
+            + "returning id, title, description, completed, due_date, created_at, version), "
+            + "archived as (insert into tasks_archive "
+            + "(id, title, description, completed, due_date, created_at, version) "
+            + "select id, title, description, completed, due_date, created_at, version from moved) "
+            + "select id from moved";
+
+    private static final String PURGE = "delete from tasks where id in ("
+            + "select id from tasks where deleted_at < :before "
+            + "order by deleted_at limit :limit for update skip locked) "
+            + "returning id";
+
+    private static final String ARCHIVE_PARTITION = "create table if not exists tasks_archive_%s "
+            + "partition of tasks_archive for values from ('%s') to ('%s')";
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private final EntityManager entityManager;
+
+    /**
+     * Создаёт фрагмент репозитория
+     */
+    public TaskRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public int patch(Long id, TaskPatch patch, Long expectedVersion) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Task> update = cb.createCriteriaUpdate(Task.class);
+        Root<Task> task = update.from(Task.class);
+
+        if (patch.title() != null) {
+            update.set(task.<String>get("title"), patch.title());
+        }
+        if (patch.description() != null) {
+            update.set(task.<String>get("description"), patch.description());
+        }
+        if (patch.completed() != null) {
+            update.set(task.<Boolean>get("completed"), patch.completed());
+        }
+        if (patch.dueDate() != null) {
+            update.set(task.<LocalDateTime>get("dueDate"), patch.dueDate());
+        }
+        update.set(task.<Long>get("version"), cb.sum(task.<Long>get("version"), 1L));
+
+        Predicate where = cb.and(cb.equal(task.get("id"), id), cb.isNull(task.get("deletedAt")));
+        if (expectedVersion != null) {
+            where = cb.and(where, cb.equal(task.get("version"), expectedVersion));
+        }
+        update.where(where);
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<TaskSearchHit> search(String tsQuery, Float afterRank, Long afterId, int limit) {
+        Query query;
+        if (afterRank == null || afterId == null) {
+            query = entityManager.createNativeQuery(SEARCH_FIRST);
+        } else {
+            query = entityManager.createNativeQuery(SEARCH_AFTER)
+                    .setParameter("afterRank", afterRank)
+                    .setParameter("afterId", afterId);
+        }
+        List<Object[]> rows = query
+                .setParameter("query", tsQuery)
+                .setParameter("limit", limit)
+                .getResultList();
+        return rows.stream()
+                .map(row -> new TaskSearchHit(
+                        ((Number) row[0]).longValue(),
+                        (String) row[1],
+                        (Boolean) row[2],
+                        toLocalDateTime(row[3]),
+                        ((Number) row[4]).floatValue()))
+                .toList();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<TaskBucketCount> countByBucket(String field, String unit, LocalDateTime from, LocalDateTime to) {
+        String column = BUCKET_COLUMNS.get(field);
+        if (column == null) {
+            throw new IllegalArgumentException("Unsupported bucket field: " + field);
+        }
+        List<Object[]> rows = entityManager.createNativeQuery(BUCKETS.formatted(column))
+                .setParameter("unit", unit)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .getResultList();
+        return rows.stream()
+                .map(row -> new TaskBucketCount(
+                        toLocalDateTime(row[0]),
+                        ((Number) row[1]).longValue(),
+                        ((Number) row[2]).longValue()))
+                .toList();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Long> archiveCompleted(LocalDateTime createdBefore, int limit) {
+        List<Number> ids = entityManager.createNativeQuery(ARCHIVE)
+                .setParameter("before", createdBefore)
+                .setParameter("limit", limit)
+                .getResultList();
+        return ids.stream().map(Number::longValue).toList();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Long> purgeDeleted(LocalDateTime deletedBefore, int limit) {
+        List<Number> ids = entityManager.createNativeQuery(PURGE)
+                .setParameter("before", deletedBefore)
+                .setParameter("limit", limit)
+                .getResultList();
+        return ids.stream().map(Number::longValue).toList();
+    }
+
+    @Override
+    public void createArchivePartition(YearMonth month) {
+        // Границы секции — литералы DDL, а не параметры; они строятся только из YearMonth
+        entityManager.createNativeQuery(ARCHIVE_PARTITION.formatted(
+                        month.format(PARTITION_SUFFIX), month.atDay(1), month.plusMonths(1).atDay(1)))
+                .executeUpdate();
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
+        }
+        return (LocalDateTime) value;
+    }
+}
@@ -0,0 +1,100 @@
+package org.example.security;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+
+/**
+ * Адаптивный лимит одновременных запросов (AIMD): пока в очереди за соединением Hikari
+ * больше maxPending потоков, лимит мультипликативно снижается, иначе при высокой загрузке
+ * растёт на единицу. Счётчик запросов обновляется CAS, лимит пишет только поток пересчёта
+ */
+public class AdaptiveConcurrencyLimiter implements AutoCloseable {
+
+    private static final double BACKOFF = 0.9;
+
+    private final IntSupplier pendingConnections;
+    private final int maxPending;
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final ScheduledExecutorService scheduler;
+    private volatile double limit;
+
+    /**
+     * Создаёт ограничитель и запускает пересчёт лимита с заданным интервалом
+     */
+    public AdaptiveConcurrencyLimiter(IntSupplier pendingConnections, int maxPending,
+                                      int minLimit, int initialLimit, int maxLimit, Duration interval) {
+        this(pendingConnections, maxPending, minLimit, initialLimit, maxLimit);
+        scheduler.scheduleAtFixedRate(this::adjust, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    AdaptiveConcurrencyLimiter(IntSupplier pendingConnections, int maxPending,
+                               int minLimit, int initialLimit, int maxLimit) {
+        this.pendingConnections = pendingConnections;
+        this.maxPending = maxPending;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = initialLimit;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(
+                new CustomizableThreadFactory("concurrency-limit-"));
+    }
+
+    /**
+     * Занимает место для запроса, если класс укладывается в свою долю текущего лимита
+     */
+    public boolean tryAcquire(RequestClass requestClass) {
+        int allowed = Math.max(1, (int) (limit * requestClass.concurrencyShare()));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Освобождает место, занятое tryAcquire
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Текущий лимит одновременных запросов
+     */
+    public int limit() {
+        return (int) limit;
+    }
+
+    /**
+     * Число выполняющихся запросов
+     */
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    void adjust() {
+        double current = limit;
+        if (pendingConnections.getAsInt() > maxPending) {
+            limit = Math.max(minLimit, current * BACKOFF);
+        } else if (inFlight.get() >= current * 0.8) {
+            // Лимит растёт только когда он действительно используется
+            limit = Math.min(maxLimit, current + 1);
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,81 @@
+package org.example.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.security.core.Authentication;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.HexFormat;
+
+/**
+ * Кэш успешных аутентификаций с коротким TTL
+ *
+ * <p>Ключом служит HMAC-SHA256 от имени и пароля на случайном ключе процесса,
+ * поэтому пароли в открытом виде в памяти кэша не хранятся, а ключи
+ * бесполезны вне текущего экземпляра приложения.
+ */
+public class AuthenticationCache {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final SecretKeySpec secret;
+    private final Cache<String, Authentication> cache;
+
+    /**
+     * Создаёт кэш с заданными TTL и максимальным размером
+     */
+    public AuthenticationCache(Duration ttl, long maximumSize) {
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        this.secret = new SecretKeySpec(key, HMAC_ALGORITHM);
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    /**
+     * Возвращает ранее подтверждённую аутентификацию для этих учётных данных или null
+     */
+    public Authentication get(String username, String password) {
+        return cache.getIfPresent(digest(username, password));
+    }
+
+    /**
+     * Запоминает успешную аутентификацию
+     */
+    public void put(String username, String password, Authentication authentication) {
+        cache.put(digest(username, password), authentication);
+    }
+
+    /**
+     * Удаляет все записи пользователя, например после смены пароля или ролей
+     */
+    public void evictUser(String username) {
+        cache.asMap().values().removeIf(authentication -> authentication.getName().equals(username));
+    }
+
+    /**
+     * Полностью очищает кэш
+     */
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    private String digest(String username, String password) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(secret);
+            mac.update(username.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return HexFormat.of().formatHex(mac.doFinal(password.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC is not available", e);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package org.example.security;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+/**
+ * Хранилище пользователей в памяти, сбрасывающее кэш аутентификаций
+ * при любом изменении пользователя
+ */
+public class CacheEvictingUserDetailsManager extends InMemoryUserDetailsManager {
+
+    private final AuthenticationCache authenticationCache;
+
+    /**
+     * Создаёт хранилище с начальным набором пользователей
+     */
+    public CacheEvictingUserDetailsManager(AuthenticationCache authenticationCache, UserDetails... users) {
+        super(users);
+        this.authenticationCache = authenticationCache;
+    }
+
+    @Override
+    public void updateUser(UserDetails user) {
+        super.updateUser(user);
+        authenticationCache.evictUser(user.getUsername());
+    }
+
+    @Override
+    public void deleteUser(String username) {
+        super.deleteUser(username);
+        authenticationCache.evictUser(username);
+    }
+
+    @Override
+    public void changePassword(String oldPassword, String newPassword) {
+        super.changePassword(oldPassword, newPassword);
+        Authentication current = SecurityContextHolder.getContext().getAuthentication();
+        if (current != null) {
+            authenticationCache.evictUser(current.getName());
+        }
+    }
+
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        UserDetails updated = super.updatePassword(user, newPassword);
+        authenticationCache.evictUser(user.getUsername());
+        return updated;
+    }
+}
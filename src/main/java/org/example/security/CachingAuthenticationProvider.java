@@ -0,0 +1,49 @@
+package org.example.security;
+
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+
+/**
+ * Провайдер аутентификации, пропускающий повторную проверку BCrypt
+ * для недавно подтверждённых учётных данных; неудачные попытки не кэшируются
+ */
+public class CachingAuthenticationProvider implements AuthenticationProvider {
+
+    private final AuthenticationProvider delegate;
+    private final AuthenticationCache cache;
+
+    /**
+     * Создаёт провайдер поверх провайдера, выполняющего полную проверку
+     */
+    public CachingAuthenticationProvider(AuthenticationProvider delegate, AuthenticationCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        if (!(authentication instanceof UsernamePasswordAuthenticationToken)
+                || authentication.getCredentials() == null) {
+            return delegate.authenticate(authentication);
+        }
+        String username = authentication.getName();
+        String password = authentication.getCredentials().toString();
+
+        Authentication cached = cache.get(username, password);
+        if (cached != null) {
+            return cached;
+        }
+        Authentication result = delegate.authenticate(authentication);
+        if (result != null && result.isAuthenticated()) {
+            cache.put(username, password, result);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return delegate.supports(authentication);
+    }
+}
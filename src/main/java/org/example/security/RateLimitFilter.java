@@ -0,0 +1,143 @@
+package org.example.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Допуск запросов к API в цепочке безопасности: token bucket на пользователя и класс запроса
+ * (превышение — 429), затем адаптивный лимит параллелизма по очереди за соединениями БД
+ * (перегрузка — 503). Анонимные запросы ограничиваются по адресу клиента;
+ * асинхронный ответ занимает место в лимите до своего завершения
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final TokenBucketLimiter rateLimiter;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final Map<String, Double> roleMultipliers;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Создаёт фильтр; roleMultipliers увеличивают лимиты для ролей вида ROLE_ADMIN
+     */
+    public RateLimitFilter(TokenBucketLimiter rateLimiter, AdaptiveConcurrencyLimiter concurrencyLimiter,
+                           Map<String, Double> roleMultipliers, MeterRegistry meterRegistry) {
+        this.rateLimiter = rateLimiter;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.roleMultipliers = Map.copyOf(roleMultipliers);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(request.getContextPath() + "/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        RequestClass requestClass = RequestClass.of(request);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        long waitNanos = rateLimiter.tryAcquire(subject(authentication, request), requestClass,
+                multiplier(authentication));
+        if (waitNanos > 0) {
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, requestClass, "rate",
+                    Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L)));
+            return;
+        }
+        if (!concurrencyLimiter.tryAcquire(requestClass)) {
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, requestClass, "concurrency", 1);
+            return;
+        }
+        Slot slot = new Slot();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                // Асинхронный ответ (выгрузка, SSE) ещё выполняется: место вернёт его завершение
+                request.getAsyncContext().addListener(slot);
+            } else {
+                slot.release();
+            }
+        }
+    }
+
+    private static String subject(Authentication authentication, HttpServletRequest request) {
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return "ip:" + request.getRemoteAddr();
+        }
+        return "user:" + authentication.getName();
+    }
+
+    private double multiplier(Authentication authentication) {
+        if (authentication == null) {
+            return 1.0;
+        }
+        double multiplier = 1.0;
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            multiplier = Math.max(multiplier, roleMultipliers.getOrDefault(authority.getAuthority(), 1.0));
+        }
+        return multiplier;
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, RequestClass requestClass,
+                        String reason, long retryAfterSeconds) throws IOException {
+        meterRegistry.counter("tasks.requests.rejected",
+                "class", requestClass.name(), "reason", reason).increment();
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.sendError(status.value());
+    }
+
+    /**
+     * Место запроса в адаптивном лимите; возвращается ровно один раз
+     */
+    private final class Slot implements AsyncListener {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                concurrencyLimiter.release();
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Повторный startAsync снимает слушателей: подписываемся снова
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
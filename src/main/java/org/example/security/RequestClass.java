@@ -0,0 +1,53 @@
+package org.example.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpMethod;
+
+/**
+ * Класс запроса к API для раздельных лимитов: чтения, записи и тяжёлые выборки
+ */
+public enum RequestClass {
+
+    /**
+     * Чтение одной задачи или страницы
+     */
+    READ(0.9),
+
+    /**
+     * Создание, изменение и удаление
+     */
+    WRITE(1.0),
+
+    /**
+     * Выгрузка всех задач и полнотекстовый поиск
+     */
+    SCAN(0.5);
+
+    private final double concurrencyShare;
+
+    RequestClass(double concurrencyShare) {
+        this.concurrencyShare = concurrencyShare;
+    }
+
+    /**
+     * Доля адаптивного лимита параллелизма, доступная классу: при перегрузке
+     * тяжёлые выборки отсекаются первыми, записи последними
+     */
+    public double concurrencyShare() {
+        return concurrencyShare;
+    }
+
+    /**
+     * Определяет класс запроса по методу и пути
+     */
+    public static RequestClass of(HttpServletRequest request) {
+        if (!HttpMethod.GET.matches(request.getMethod()) && !HttpMethod.HEAD.matches(request.getMethod())) {
+            return WRITE;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.startsWith("/api/tasks/stream") || path.startsWith("/api/tasks/search")) {
+            return SCAN;
+        }
+        return READ;
+    }
+}
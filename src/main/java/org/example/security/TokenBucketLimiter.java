@@ -0,0 +1,80 @@
+package org.example.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket по алгоритму GCRA: состояние ведра — одно число, теоретическое время
+ * прибытия следующего запроса, и обновляется CAS без блокировок.
+ * Вёдра заводятся на пару (субъект, класс запроса) и вытесняются после простоя
+ */
+public class TokenBucketLimiter {
+
+    /**
+     * Лимит класса запросов
+     *
+     * @param ratePerSecond устойчивая скорость пополнения
+     * @param burst         сколько запросов можно выполнить подряд без ожидания
+     */
+    public record Limit(double ratePerSecond, int burst) {
+
+        long intervalNanos(double multiplier) {
+            return (long) (1_000_000_000L / (ratePerSecond * multiplier));
+        }
+    }
+
+    private record Key(String subject, RequestClass requestClass) {
+    }
+
+    private final Map<RequestClass, Limit> limits;
+    private final Cache<Key, AtomicLong> buckets;
+    private final LongSupplier clock;
+
+    /**
+     * Создаёт ограничитель с лимитами по классам и временем жизни простаивающих вёдер
+     */
+    public TokenBucketLimiter(Map<RequestClass, Limit> limits, Duration idleTimeout, long maximumSubjects) {
+        this(limits, idleTimeout, maximumSubjects, System::nanoTime);
+    }
+
+    TokenBucketLimiter(Map<RequestClass, Limit> limits, Duration idleTimeout, long maximumSubjects,
+                       LongSupplier clock) {
+        this.limits = new EnumMap<>(limits);
+        this.buckets = Caffeine.newBuilder()
+                .expireAfterAccess(idleTimeout)
+                .maximumSize(maximumSubjects)
+                .build();
+        this.clock = clock;
+    }
+
+    /**
+     * Пытается взять разрешение из ведра субъекта; multiplier увеличивает лимит (например, для ролей).
+     * Возвращает 0, если запрос разрешён, иначе сколько наносекунд ждать до следующей попытки
+     */
+    public long tryAcquire(String subject, RequestClass requestClass, double multiplier) {
+        Limit limit = limits.get(requestClass);
+        if (limit == null) {
+            return 0;
+        }
+        long interval = limit.intervalNanos(multiplier);
+        long tolerance = interval * limit.burst();
+        AtomicLong bucket = buckets.get(new Key(subject, requestClass), key -> new AtomicLong(Long.MIN_VALUE));
+        while (true) {
+            long now = clock.getAsLong();
+            long arrival = bucket.get();
+            long next = Math.max(arrival == Long.MIN_VALUE ? now : arrival, now) + interval;
+            if (next - now > tolerance) {
+                return next - now - tolerance;
+            }
+            if (bucket.compareAndSet(arrival, next)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package org.example.service;
+
+import org.example.dto.TaskDueDate;
+import org.example.event.TaskChangedEvent;
+import org.example.repository.TaskRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Индекс задач по дедлайну в памяти процесса: по каждой задаче хранится только
+ * дедлайн в микросекундах, идентификатор, версия и статус в примитивных массивах PackedDueDates.
+ * Прогревается при старте, поддерживается событиями об изменениях и отвечает на запросы
+ * диапазона без обращения к БД
+ */
+@Component
+@ConditionalOnProperty(name = "tasks.due-index.enabled", havingValue = "true")
+public class DueDateIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(DueDateIndex.class);
+
+    private final TaskRepository taskRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final PackedDueDates entries = new PackedDueDates(1024);
+    // Задачи, изменённые во время прогрева: прогрев не должен перетирать их более свежее состояние
+    private final Set<Long> touchedDuringWarmUp = ConcurrentHashMap.newKeySet();
+    private volatile boolean warmingUp;
+    private volatile boolean ready;
+
+    /**
+     * Итог сверки индекса с БД
+     *
+     * @param indexed  записей в индексе
+     * @param database задач с дедлайном в БД
+     * @param missing  задач, которых нет в индексе
+     * @param stale    записей с устаревшим дедлайном, статусом или версией
+     * @param extra    записей о задачах, которых уже нет в БД
+     * @param sample   до 100 идентификаторов расхождений
+     */
+    public record Report(int indexed, int database, int missing, int stale, int extra, List<Long> sample) {
+
+        /**
+         * Индекс совпадает с БД
+         */
+        public boolean consistent() {
+            return missing == 0 && stale == 0 && extra == 0;
+        }
+    }
+
+    /**
+     * Создаёт индекс
+     */
+    @Autowired
+    public DueDateIndex(TaskRepository taskRepository) {
+        this.taskRepository = taskRepository;
+    }
+
+    /**
+     * Загружает дедлайны всех задач после старта приложения; повторный вызов перечитывает
+     * индекс целиком и убирает задачи, которых больше нет в БД
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warmUp() {
+        long started = System.nanoTime();
+        warmingUp = true;
+        SeenIds seen = new SeenIds(size());
+        try (Stream<TaskDueDate> rows = taskRepository.streamDueDates()) {
+            rows.forEach(row -> {
+                seen.add(row.id());
+                if (!touchedDuringWarmUp.contains(row.id())) {
+                    put(row);
+                }
+            });
+            seen.seal();
+            for (long id : ids()) {
+                if (!seen.contains(id) && !touchedDuringWarmUp.contains(id)) {
+                    remove(id);
+                }
+            }
+        } finally {
+            warmingUp = false;
+            touchedDuringWarmUp.clear();
+        }
+        ready = true;
+        log.info("Due date index warmed up: {} tasks in {} ms",
+                size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Применяет зафиксированные изменения задач к индексу
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        if (warmingUp) {
+            touchedDuringWarmUp.addAll(event.ids());
+        }
+        if (event.type() == TaskChangedEvent.Type.DELETED) {
+            event.ids().forEach(this::remove);
+            return;
+        }
+        Set<Long> found = new HashSet<>();
+        for (TaskDueDate row : taskRepository.findDueDates(event.ids())) {
+            found.add(row.id());
+            put(row);
+        }
+        // Задача могла быть удалена между фиксацией и чтением
+        event.ids().stream().filter(id -> !found.contains(id)).forEach(this::remove);
+    }
+
+    /**
+     * Индекс прогрет и может отвечать на запросы
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Число проиндексированных задач
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Идентификаторы до limit задач с дедлайном в [from, to) и, если задан, нужным статусом,
+     * в порядке возрастания дедлайна и идентификатора
+     */
+    public List<Long> findIds(LocalDateTime from, LocalDateTime to, Boolean completed, int limit) {
+        lock.readLock().lock();
+        try {
+            return entries.find(toMicros(from), toMicros(to), completed, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Сверяет индекс с текущим содержимым БД
+     */
+    @Transactional(readOnly = true)
+    public Report verify() {
+        SeenIds seen = new SeenIds(size());
+        int[] database = new int[1];
+        int[] missing = new int[1];
+        int[] stale = new int[1];
+        List<Long> sample = new ArrayList<>();
+        try (Stream<TaskDueDate> rows = taskRepository.streamDueDates()) {
+            rows.forEach(row -> {
+                database[0]++;
+                seen.add(row.id());
+                boolean present;
+                boolean matches;
+                lock.readLock().lock();
+                try {
+                    present = entries.contains(row.id());
+                    matches = row.dueDate() != null && entries.matches(row.id(), toMicros(row.dueDate()),
+                            row.version(), row.completed());
+                } finally {
+                    lock.readLock().unlock();
+                }
+                if (!matches) {
+                    if (present) {
+                        stale[0]++;
+                    } else {
+                        missing[0]++;
+                    }
+                    if (sample.size() < 100) {
+                        sample.add(row.id());
+                    }
+                }
+            });
+        }
+        seen.seal();
+        long[] indexed = ids();
+        int extra = 0;
+        for (long id : indexed) {
+            if (!seen.contains(id)) {
+                extra++;
+                if (sample.size() < 100) {
+                    sample.add(id);
+                }
+            }
+        }
+        return new Report(indexed.length, database[0], missing[0], stale[0], extra, sample);
+    }
+
+    private void put(TaskDueDate row) {
+        if (row.dueDate() == null) {
+            remove(row.id());
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            // Более позднее чтение могло обогнать это: старую версию индекс не примет
+            entries.put(row.id(), toMicros(row.dueDate()), row.version(), row.completed());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            entries.remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private long[] ids() {
+        lock.readLock().lock();
+        try {
+            return entries.ids();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static long toMicros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + time.getNano() / 1_000;
+    }
+
+    /**
+     * Идентификаторы, прочитанные из БД при прогреве или сверке: примитивный массив,
+     * после seal отсортирован для двоичного поиска
+     */
+    private static final class SeenIds {
+        private long[] ids;
+        private int size;
+
+        SeenIds(int expectedSize) {
+            ids = new long[Math.max(16, expectedSize)];
+        }
+
+        void add(long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        void seal() {
+            Arrays.sort(ids, 0, size);
+        }
+
+        boolean contains(long id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package org.example.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Индекс дедлайнов на примитивных массивах. По идентификатору — хеш-таблица с открытой адресацией
+ * (id, дедлайн, версия со статусом в младшем бите), порядок (дедлайн, id) — отсортированные блоки
+ * до RUN пар, которые делятся пополам при переполнении. На миллионе задач около 72 байт на задачу
+ * против ~140 у записи в ConcurrentSkipListSet и ConcurrentHashMap. Ключ Long.MIN_VALUE зарезервирован.
+ * Не потокобезопасен
+ */
+final class PackedDueDates {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+    static final int RUN = 512;
+
+    /**
+     * Отсортированный блок пар (дедлайн, id)
+     */
+    private static final class Run {
+        final long[] dues = new long[RUN];
+        final long[] ids = new long[RUN];
+        int size;
+    }
+
+    private final List<Run> runs = new ArrayList<>();
+    private long[] ids;
+    private long[] dues;
+    private long[] states;
+    private int mask;
+    private int size;
+
+    PackedDueDates(int expectedSize) {
+        allocate(Integer.highestOneBit(Math.max(16, expectedSize * 4 / 3) - 1) << 1);
+        runs.add(new Run());
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Записывает дедлайн задачи; false, если в индексе уже более новая версия
+     */
+    boolean put(long id, long due, long version, boolean completed) {
+        if (id == EMPTY) {
+            throw new IllegalArgumentException("Reserved id: " + id);
+        }
+        long state = version << 1 | (completed ? 1 : 0);
+        int i = find(id);
+        if (i >= 0) {
+            if (states[i] >> 1 > version) {
+                return false;
+            }
+            if (dues[i] != due) {
+                unlink(dues[i], id);
+                link(due, id);
+                dues[i] = due;
+            }
+            states[i] = state;
+            return true;
+        }
+        if ((size + 1) * 4 > ids.length * 3) {
+            resize();
+        }
+        insert(id, due, state);
+        link(due, id);
+        return true;
+    }
+
+    /**
+     * Удаляет задачу; false, если её не было
+     */
+    boolean remove(long id) {
+        int i = find(id);
+        if (i < 0) {
+            return false;
+        }
+        unlink(dues[i], id);
+        size--;
+        // Сдвигаем назад следующие записи цепочки, чтобы поиск не обрывался на дыре
+        int hole = i;
+        for (int j = (hole + 1) & mask; ids[j] != EMPTY; j = (j + 1) & mask) {
+            int home = slot(ids[j]);
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                ids[hole] = ids[j];
+                dues[hole] = dues[j];
+                states[hole] = states[j];
+                hole = j;
+            }
+        }
+        ids[hole] = EMPTY;
+        return true;
+    }
+
+    boolean contains(long id) {
+        return find(id) >= 0;
+    }
+
+    /**
+     * Задача есть в индексе ровно с таким дедлайном, версией и статусом
+     */
+    boolean matches(long id, long due, long version, boolean completed) {
+        int i = find(id);
+        return i >= 0 && dues[i] == due && states[i] == (version << 1 | (completed ? 1 : 0));
+    }
+
+    /**
+     * Копия всех идентификаторов в порядке таблицы
+     */
+    long[] ids() {
+        long[] copy = new long[size];
+        int n = 0;
+        for (long id : ids) {
+            if (id != EMPTY) {
+                copy[n++] = id;
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * До limit идентификаторов с дедлайном в [from, to) и, если задан, нужным статусом,
+     * по возрастанию дедлайна и идентификатора
+     */
+    List<Long> find(long from, long to, Boolean completed, int limit) {
+        List<Long> found = new ArrayList<>(Math.min(limit, 256));
+        int r = runFor(from, Long.MIN_VALUE);
+        int pos = search(runs.get(r), from, Long.MIN_VALUE);
+        for (pos = pos < 0 ? -pos - 1 : pos; r < runs.size(); r++, pos = 0) {
+            Run run = runs.get(r);
+            for (; pos < run.size; pos++) {
+                if (run.dues[pos] >= to) {
+                    return found;
+                }
+                long id = run.ids[pos];
+                if (completed == null || ((states[find(id)] & 1) == 1) == completed) {
+                    found.add(id);
+                    if (found.size() == limit) {
+                        return found;
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    private void link(long due, long id) {
+        int r = runFor(due, id);
+        Run run = runs.get(r);
+        if (run.size == RUN) {
+            Run tail = new Run();
+            tail.size = RUN / 2;
+            System.arraycopy(run.dues, RUN / 2, tail.dues, 0, tail.size);
+            System.arraycopy(run.ids, RUN / 2, tail.ids, 0, tail.size);
+            run.size = RUN / 2;
+            runs.add(r + 1, tail);
+            if (compare(due, id, tail.dues[0], tail.ids[0]) > 0) {
+                run = tail;
+            }
+        }
+        int pos = -search(run, due, id) - 1;
+        System.arraycopy(run.dues, pos, run.dues, pos + 1, run.size - pos);
+        System.arraycopy(run.ids, pos, run.ids, pos + 1, run.size - pos);
+        run.dues[pos] = due;
+        run.ids[pos] = id;
+        run.size++;
+    }
+
+    private void unlink(long due, long id) {
+        int r = runFor(due, id);
+        Run run = runs.get(r);
+        int pos = search(run, due, id);
+        if (pos < 0) {
+            return;
+        }
+        run.size--;
+        System.arraycopy(run.dues, pos + 1, run.dues, pos, run.size - pos);
+        System.arraycopy(run.ids, pos + 1, run.ids, pos, run.size - pos);
+        if (run.size == 0 && runs.size() > 1) {
+            runs.remove(r);
+        }
+    }
+
+    /**
+     * Последний блок, первая пара которого не больше (due, id), или первый блок
+     */
+    private int runFor(long due, long id) {
+        int lo = 0;
+        int hi = runs.size() - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            Run run = runs.get(mid);
+            if (compare(run.dues[0], run.ids[0], due, id) <= 0) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Позиция пары в блоке или -(точка вставки + 1), как у Arrays.binarySearch
+     */
+    private static int search(Run run, long due, long id) {
+        int lo = 0;
+        int hi = run.size - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = compare(run.dues[mid], run.ids[mid], due, id);
+            if (cmp < 0) {
+                lo = mid + 1;
+            } else if (cmp > 0) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(lo + 1);
+    }
+
+    private static int compare(long due, long id, long otherDue, long otherId) {
+        int byDue = Long.compare(due, otherDue);
+        return byDue != 0 ? byDue : Long.compare(id, otherId);
+    }
+
+    private int find(long id) {
+        for (int i = slot(id); ; i = (i + 1) & mask) {
+            if (ids[i] == id) {
+                return i;
+            }
+            if (ids[i] == EMPTY) {
+                return -1;
+            }
+        }
+    }
+
+    private void insert(long id, long due, long state) {
+        int i = slot(id);
+        while (ids[i] != EMPTY) {
+            i = (i + 1) & mask;
+        }
+        ids[i] = id;
+        dues[i] = due;
+        states[i] = state;
+        size++;
+    }
+
+    private int slot(long id) {
+        long hash = id * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private void resize() {
+        long[] oldIds = ids;
+        long[] oldDues = dues;
+        long[] oldStates = states;
+        allocate(oldIds.length * 2);
+        size = 0;
+        for (int i = 0; i < oldIds.length; i++) {
+            if (oldIds[i] != EMPTY) {
+                insert(oldIds[i], oldDues[i], oldStates[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        ids = new long[capacity];
+        Arrays.fill(ids, EMPTY);
+        dues = new long[capacity];
+        states = new long[capacity];
+        mask = capacity - 1;
+    }
+}
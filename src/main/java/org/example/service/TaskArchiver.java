@@ -0,0 +1,164 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.config.CacheConfig;
+import org.example.event.TaskChangedEvent;
+import org.example.event.TaskChangedEvent.Type;
+import org.example.repository.TaskRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * Фоновое обслуживание таблицы tasks: физически удаляет мягко удалённые задачи старше
+ * purge-after и переносит выполненные задачи старше archive-after в секционированную
+ * по created_at таблицу tasks_archive. Работает пачками по batch-size строк, каждая
+ * в своей короткой транзакции, с паузой между пачками и не больше max-batches пачек
+ * за запуск, чтобы не вытеснять из пула соединения пользовательских запросов
+ */
+@Component
+@EnableScheduling
+@ConditionalOnProperty(name = "tasks.archive.enabled", havingValue = "true")
+public class TaskArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskArchiver.class);
+
+    private final TaskRepository taskRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CacheManager cacheManager;
+    private final Duration archiveAfter;
+    private final Duration purgeAfter;
+    private final int batchSize;
+    private final int maxBatches;
+    private final Duration pause;
+    private final Counter archived;
+    private final Counter purged;
+
+    /**
+     * Создаёт задание архивации
+     */
+    @Autowired
+    public TaskArchiver(
+            TaskRepository taskRepository,
+            PlatformTransactionManager transactionManager,
+            ApplicationEventPublisher eventPublisher,
+            CacheManager cacheManager,
+            MeterRegistry meterRegistry,
+            @Value("${tasks.archive.archive-after:30d}") Duration archiveAfter,
+            @Value("${tasks.archive.purge-after:7d}") Duration purgeAfter,
+            @Value("${tasks.archive.batch-size:500}") int batchSize,
+            @Value("${tasks.archive.max-batches:20}") int maxBatches,
+            @Value("${tasks.archive.pause:100ms}") Duration pause
+    ) {
+        this.taskRepository = taskRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.cacheManager = cacheManager;
+        this.archiveAfter = archiveAfter;
+        this.purgeAfter = purgeAfter;
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+        this.pause = pause;
+        this.archived = Counter.builder("tasks.archive.rows").tag("action", "archived")
+                .description("Completed tasks moved to tasks_archive")
+                .register(meterRegistry);
+        this.purged = Counter.builder("tasks.archive.rows").tag("action", "purged")
+                .description("Soft-deleted tasks removed from tasks")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Один запуск обслуживания; следующий начинается через interval после окончания предыдущего
+     */
+    @Scheduled(fixedDelayString = "${tasks.archive.interval:1m}", initialDelayString = "${tasks.archive.interval:1m}")
+    public void run() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            int purgedRows = drain(taskRepository::purgeDeleted, now.minus(purgeAfter));
+            purged.increment(purgedRows);
+            LocalDateTime archiveBefore = now.minus(archiveAfter);
+            createPartitions(archiveBefore);
+            int archivedRows = drain(taskRepository::archiveCompleted, archiveBefore);
+            archived.increment(archivedRows);
+            if (purgedRows > 0 || archivedRows > 0) {
+                log.info("Purged {} deleted and archived {} completed tasks", purgedRows, archivedRows);
+            }
+        } catch (RuntimeException e) {
+            // Следующий запуск повторит работу: всё, что успели перенести, уже зафиксировано
+            log.error("Task archive run failed", e);
+        }
+    }
+
+    /**
+     * Выполняет операцию пачками, пока она возвращает полные пачки, но не больше max-batches раз;
+     * возвращает общее число затронутых строк
+     */
+    int drain(BiFunction<LocalDateTime, Integer, List<Long>> operation, LocalDateTime before) {
+        int total = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            List<Long> ids = transactionTemplate.execute(status -> {
+                List<Long> removed = operation.apply(before, batchSize);
+                if (!removed.isEmpty()) {
+                    eventPublisher.publishEvent(new TaskChangedEvent(Type.DELETED, removed));
+                }
+                return removed;
+            });
+            evict(ids);
+            total += ids.size();
+            if (ids.size() < batchSize || !sleep()) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Создаёт секции архива для всех месяцев от самой старой подлежащей переносу задачи до границы переноса
+     */
+    private void createPartitions(LocalDateTime archiveBefore) {
+        LocalDateTime oldest = taskRepository.findOldestCompletedCreatedBefore(archiveBefore);
+        if (oldest == null) {
+            return;
+        }
+        YearMonth last = YearMonth.from(archiveBefore);
+        for (YearMonth month = YearMonth.from(oldest); !month.isAfter(last); month = month.plusMonths(1)) {
+            YearMonth partition = month;
+            transactionTemplate.executeWithoutResult(status -> taskRepository.createArchivePartition(partition));
+        }
+    }
+
+    private void evict(List<Long> ids) {
+        Cache cache = cacheManager.getCache(CacheConfig.TASKS_CACHE);
+        if (cache != null) {
+            ids.forEach(cache::evict);
+        }
+    }
+
+    private boolean sleep() {
+        try {
+            Thread.sleep(pause.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package org.example.service;
+
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import org.example.config.CacheConfig;
+import org.example.dto.BatchItemResult;
+import org.example.dto.BatchItemResult.Status;
+import org.example.event.TaskChangedEvent;
+import org.example.event.TaskChangedEvent.Type;
+import org.example.model.Task;
+import org.example.repository.TaskRepository;
+import org.example.service.interfaces.TaskBatchService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Реализация TaskBatchService: элементы обрабатываются пачками по chunk-size,
+ * каждая пачка в отдельной транзакции с пакетными JDBC-вставками и обновлениями
+ */
+@Service
+@Timed(value = "tasks.service", histogram = true, percentiles = {0.5, 0.95, 0.99})
+public class TaskBatchServiceImpl implements TaskBatchService {
+
+    private final TaskRepository taskRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+    private final int maxItems;
+
+    /**
+     * Создаёт сервис пакетных операций
+     */
+    @Autowired
+    public TaskBatchServiceImpl(
+            TaskRepository taskRepository,
+            EntityManager entityManager,
+            PlatformTransactionManager transactionManager,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${tasks.batch.chunk-size:500}") int chunkSize,
+            @Value("${tasks.batch.max-items:10000}") int maxItems
+    ) {
+        this.taskRepository = taskRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+        this.maxItems = maxItems;
+    }
+
+    @Override
+    public List<BatchItemResult> createTasks(List<Task> tasks) {
+        checkSize(tasks.size());
+        List<BatchItemResult> results = new ArrayList<>(tasks.size());
+        for (int start = 0; start < tasks.size(); start += chunkSize) {
+            List<Task> chunk = tasks.subList(start, Math.min(start + chunkSize, tasks.size()));
+            try {
+                List<Task> saved = transactionTemplate.execute(status -> {
+                    // Новые задачи всегда вставляются, а не сливаются с существующими
+                    chunk.forEach(task -> task.setId(null));
+                    List<Task> persisted = taskRepository.saveAll(chunk);
+                    entityManager.flush();
+                    entityManager.clear();
+                    eventPublisher.publishEvent(new TaskChangedEvent(Type.CREATED,
+                            persisted.stream().map(Task::getId).toList()));
+                    return persisted;
+                });
+                for (int i = 0; i < chunk.size(); i++) {
+                    results.add(BatchItemResult.of(start + i, saved.get(i).getId(), Status.CREATED));
+                }
+            } catch (RuntimeException e) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    results.add(BatchItemResult.failed(start + i, null, e));
+                }
+            }
+        }
+        return results;
+    }
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.TASKS_CACHE, allEntries = true)
+    public List<BatchItemResult> updateTasks(List<Task> tasks) {
+        checkSize(tasks.size());
+        List<BatchItemResult> results = new ArrayList<>(tasks.size());
+        for (int start = 0; start < tasks.size(); start += chunkSize) {
+            List<Task> chunk = tasks.subList(start, Math.min(start + chunkSize, tasks.size()));
+            int offset = start;
+            try {
+                List<BatchItemResult> chunkResults = transactionTemplate.execute(status -> {
+                    Map<Long, Task> existing = taskRepository.findAllById(chunk.stream()
+                                    .map(Task::getId)
+                                    .filter(Objects::nonNull)
+                                    .toList())
+                            .stream()
+                            .collect(Collectors.toMap(Task::getId, Function.identity()));
+
+                    List<BatchItemResult> processed = new ArrayList<>(chunk.size());
+                    for (int i = 0; i < chunk.size(); i++) {
+                        Task details = chunk.get(i);
+                        Task task = details.getId() == null ? null : existing.get(details.getId());
+                        if (task == null) {
+                            processed.add(BatchItemResult.of(offset + i, details.getId(), Status.NOT_FOUND));
+                            continue;
+                        }
+                        task.setTitle(details.getTitle());
+                        task.setDescription(details.getDescription());
+                        task.setDueDate(details.getDueDate());
+                        processed.add(BatchItemResult.of(offset + i, task.getId(), Status.UPDATED));
+                    }
+                    entityManager.flush();
+                    entityManager.clear();
+                    List<Long> updated = processed.stream()
+                            .filter(result -> result.status() == Status.UPDATED)
+                            .map(BatchItemResult::id)
+                            .toList();
+                    if (!updated.isEmpty()) {
+                        eventPublisher.publishEvent(new TaskChangedEvent(Type.UPDATED, updated));
+                    }
+                    return processed;
+                });
+                results.addAll(chunkResults);
+            } catch (RuntimeException e) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    results.add(BatchItemResult.failed(offset + i, chunk.get(i).getId(), e));
+                }
+            }
+        }
+        return results;
+    }
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.TASKS_CACHE, allEntries = true)
+    public List<BatchItemResult> deleteTasks(List<Long> ids) {
+        checkSize(ids.size());
+        List<BatchItemResult> results = new ArrayList<>(ids.size());
+        for (int start = 0; start < ids.size(); start += chunkSize) {
+            List<Long> chunk = ids.subList(start, Math.min(start + chunkSize, ids.size()));
+            try {
+                Set<Long> existing = transactionTemplate.execute(status -> {
+                    Set<Long> found = new HashSet<>(taskRepository.findExistingIds(chunk));
+                    if (!found.isEmpty()) {
+                        taskRepository.softDeleteAllById(found, LocalDateTime.now());
+                        eventPublisher.publishEvent(new TaskChangedEvent(Type.DELETED, List.copyOf(found)));
+                    }
+                    return found;
+                });
+                for (int i = 0; i < chunk.size(); i++) {
+                    Long id = chunk.get(i);
+                    results.add(BatchItemResult.of(start + i, id,
+                            existing.contains(id) ? Status.DELETED : Status.NOT_FOUND));
+                }
+            } catch (RuntimeException e) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    results.add(BatchItemResult.failed(start + i, chunk.get(i), e));
+                }
+            }
+        }
+        return results;
+    }
+
+    private void checkSize(int size) {
+        if (size > maxItems) {
+            throw new IllegalArgumentException("Batch too large: " + size + " > " + maxItems);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package org.example.service;
+
+import org.example.dto.TaskChange;
+import org.example.event.TaskChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Лента изменений задач в кольцевом буфере ограниченного размера;
+ * изменения попадают в ленту после фиксации транзакции и нумеруются подряд,
+ * так что подписчик может продолжить чтение с последнего полученного номера
+ */
+@Component
+public class TaskChangeFeed {
+
+    // Отметка запуска в токене отличает номера этого процесса от номеров до перезапуска
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final long[] taskIds;
+    private final TaskChangedEvent.Type[] types;
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+    private long nextOffset = 1;
+
+    /**
+     * Создаёт ленту, хранящую последние capacity изменений
+     */
+    public TaskChangeFeed(@Value("${tasks.feed.buffer-size:10000}") int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Invalid feed buffer size: " + capacity);
+        }
+        this.taskIds = new long[capacity];
+        this.types = new TaskChangedEvent.Type[capacity];
+    }
+
+    /**
+     * Добавляет изменения в ленту после фиксации транзакции и оповещает слушателей
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        synchronized (this) {
+            for (Long id : event.ids()) {
+                int slot = (int) (nextOffset % taskIds.length);
+                taskIds[slot] = id;
+                types[slot] = event.type();
+                nextOffset++;
+            }
+        }
+        listeners.forEach(Runnable::run);
+    }
+
+    /**
+     * Регистрирует слушателя, вызываемого после каждого добавления в ленту
+     */
+    public void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Номер последнего изменения в ленте, 0 если изменений ещё не было
+     */
+    public synchronized long lastOffset() {
+        return nextOffset - 1;
+    }
+
+    /**
+     * Возвращает до max изменений с номерами больше offset;
+     * null, если часть из них уже вытеснена из буфера
+     */
+    public synchronized List<TaskChange> readAfter(long offset, int max) {
+        long oldest = Math.max(1, nextOffset - taskIds.length);
+        if (offset + 1 < oldest || offset >= nextOffset) {
+            return null;
+        }
+        long end = Math.min(nextOffset, offset + 1 + max);
+        List<TaskChange> changes = new ArrayList<>((int) (end - offset - 1));
+        for (long current = offset + 1; current < end; current++) {
+            int slot = (int) (current % taskIds.length);
+            changes.add(new TaskChange(current, types[slot], taskIds[slot]));
+        }
+        return changes;
+    }
+
+    /**
+     * Токен для Last-Event-ID, указывающий на изменение с номером offset
+     */
+    public String token(long offset) {
+        return epoch + "-" + offset;
+    }
+
+    /**
+     * Номер, после которого нужно продолжить чтение по токену из Last-Event-ID;
+     * -1, если токен выдан другим процессом или не разбирается
+     */
+    public long resolve(String token) {
+        if (token == null || !token.startsWith(epoch + "-")) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(token.substring(epoch.length() + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
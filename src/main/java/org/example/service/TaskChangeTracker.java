@@ -0,0 +1,49 @@
+package org.example.service;
+
+import org.example.event.TaskChangedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Счётчик изменений таблицы задач, из которого строятся слабые ETag списков:
+ * пока счётчик не сдвинулся, ответ можно вернуть как 304 без запроса к БД
+ */
+@Component
+public class TaskChangeTracker {
+
+    /**
+     * Шаг, с которым сдвигаются границы именованных периодов: смещения всех часовых поясов кратны 15 минутам
+     */
+    static final Duration PERIOD_BUCKET = Duration.ofMinutes(15);
+
+    // Отметка запуска отличает счётчик этого процесса от счётчика до перезапуска
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * Сдвигает счётчик после фиксации транзакции, в которой изменились задачи
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        version.incrementAndGet();
+    }
+
+    /**
+     * Слабый ETag для списков задач, не зависящих от текущего времени
+     */
+    public String etag() {
+        return "W/\"" + epoch + "-" + version.get() + "\"";
+    }
+
+    /**
+     * Слабый ETag для выборки за именованный период: меняется и при записи,
+     * и при переходе через границу 15-минутного интервала, на которой может начаться новый день
+     */
+    public String periodEtag() {
+        long bucket = System.currentTimeMillis() / PERIOD_BUCKET.toMillis();
+        return "W/\"" + epoch + "-" + version.get() + "-" + Long.toString(bucket, 36) + "\"";
+    }
+}
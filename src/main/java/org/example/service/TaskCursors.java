@@ -0,0 +1,77 @@
+package org.example.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Кодирование и разбор непрозрачных курсоров keyset-пагинации; общие для сервлетного и реактивного API
+ */
+public final class TaskCursors {
+
+    private static final String ID_PREFIX = "id:";
+    private static final String RANK_PREFIX = "rank:";
+
+    /**
+     * Позиция в выдаче поиска: релевантность и идентификатор последней отданной задачи
+     */
+    record SearchPosition(float rank, long id) {
+    }
+
+    private TaskCursors() {
+    }
+
+    /**
+     * Кодирует идентификатор последней отданной задачи в курсор
+     */
+    public static String encode(long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((ID_PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Возвращает идентификатор, после которого начинается страница;
+     * пустой курсор означает начало выборки
+     */
+    public static long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!raw.startsWith(ID_PREFIX)) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            return Long.parseLong(raw.substring(ID_PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    /**
+     * Кодирует позицию в выдаче поиска; релевантность хранится побитово, чтобы сравнение было точным
+     */
+    static String encodeSearch(float rank, long lastId) {
+        String raw = RANK_PREFIX + Integer.toHexString(Float.floatToIntBits(rank)) + ":" + lastId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Возвращает позицию, после которой начинается страница поиска; null для пустого курсора
+     */
+    static SearchPosition decodeSearch(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":");
+            if (parts.length != 3 || !raw.startsWith(RANK_PREFIX)) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            return new SearchPosition(Float.intBitsToFloat(Integer.parseUnsignedInt(parts[1], 16)),
+                    Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+}
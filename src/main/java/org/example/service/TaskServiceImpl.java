@@ -1,90 +1,417 @@
 package org.example.service;
 
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import org.example.config.CacheConfig;
+import org.example.datasource.ReplicaRoutingDataSource;
+import org.example.dto.CursorPage;
+import org.example.dto.TaskFilter;
+import org.example.dto.TaskPatch;
+import org.example.dto.TaskSearchHit;
+import org.example.dto.TaskStats;
+import org.example.dto.TaskStatusCounts;
+import org.example.dto.TaskSummary;
+import org.example.event.TaskChangedEvent;
+import org.example.event.TaskChangedEvent.Type;
+import org.example.exception.TaskVersionConflictException;
 import org.example.repository.TaskRepository;
 import org.example.service.interfaces.TaskService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.example.model.Task;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.DateTimeException;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Реализация TaskService
  */
 @Service
+@Timed(value = "tasks.service", histogram = true, percentiles = {0.5, 0.95, 0.99})
 public class TaskServiceImpl implements TaskService {
 
+    /**
+     * Максимальный размер страницы при keyset-пагинации
+     */
+    public static final int MAX_PAGE_SIZE = 500;
+
+    /**
+     * Максимальное число слов в поисковом запросе
+     */
+    public static final int MAX_SEARCH_TERMS = 8;
+
+    private static final Set<String> SORTABLE_PROPERTIES = Set.of("id", "dueDate", "createdAt", "title");
+    private static final Set<String> STATS_BUCKETS = Set.of("day", "week");
+
     private final TaskRepository taskRepository;
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DueDateIndex dueDateIndex;
 
     /**
-     * Создаёт сервис задач
+     * Создаёт сервис задач; индекс по дедлайнам необязателен (tasks.due-index.enabled)
      */
     @Autowired
-    public TaskServiceImpl(TaskRepository taskRepository) {
+    public TaskServiceImpl(TaskRepository taskRepository, EntityManager entityManager,
+                           ApplicationEventPublisher eventPublisher, Optional<DueDateIndex> dueDateIndex) {
         this.taskRepository = taskRepository;
+        this.entityManager = entityManager;
+        this.eventPublisher = eventPublisher;
+        this.dueDateIndex = dueDateIndex.orElse(null);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Task> getAllTasks() {
         return taskRepository.findAll();
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public CursorPage<Task> getTasksPage(String cursor, int limit) {
+        checkPageSize(limit);
+        List<Task> tasks = taskRepository.findAllByIdGreaterThanOrderByIdAsc(
+                TaskCursors.decode(cursor), PageRequest.of(0, limit + 1));
+        return toPage(tasks, limit, Task::getId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<TaskSummary> getTaskSummariesPage(String cursor, int limit) {
+        checkPageSize(limit);
+        List<TaskSummary> summaries = taskRepository.findSummariesAfter(
+                TaskCursors.decode(cursor), PageRequest.of(0, limit + 1));
+        return toPage(summaries, limit, TaskSummary::id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAllTasks(Consumer<Task> consumer) {
+        try (Stream<Task> tasks = taskRepository.streamAllByOrderByIdAsc()) {
+            tasks.forEach(task -> {
+                consumer.accept(task);
+                // Отсоединяем сущность, чтобы контекст персистентности не рос вместе с выборкой
+                entityManager.detach(task);
+            });
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<TaskSearchHit> searchTasks(String query, String cursor, int limit) {
+        checkPageSize(limit);
+        String tsQuery = toTsQuery(query);
+        TaskCursors.SearchPosition after = TaskCursors.decodeSearch(cursor);
+        List<TaskSearchHit> hits = taskRepository.search(tsQuery,
+                after == null ? null : after.rank(),
+                after == null ? null : after.id(),
+                limit + 1);
+        if (hits.size() <= limit) {
+            return new CursorPage<>(hits, null);
+        }
+        List<TaskSearchHit> items = hits.subList(0, limit);
+        TaskSearchHit last = items.get(limit - 1);
+        return new CursorPage<>(items, TaskCursors.encodeSearch(last.rank(), last.id()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.TASKS_CACHE, key = "#id", unless = "#result == null")
     public Optional<Task> getTaskById(Long id) {
-        return taskRepository.findById(id);
+        // Промах заполняет общий кэш на весь TTL: строку отстающей реплики увидели бы все клиенты
+        return ReplicaRoutingDataSource.onPrimary(() -> taskRepository.findById(id));
     }
 
     @Override
+    @CachePut(cacheNames = CacheConfig.TASKS_CACHE, key = "#result.id")
     public Task createdTask(Task task) {
-        return taskRepository.save(task);
+        Task saved = taskRepository.save(task);
+        eventPublisher.publishEvent(TaskChangedEvent.of(Type.CREATED, saved.getId()));
+        return saved;
     }
 
     @Override
+    @Transactional
+    @CachePut(cacheNames = CacheConfig.TASKS_CACHE, key = "#id")
     public Task updateTask(Long id, Task taskDetails) {
-        Task task = taskRepository.findById(id).orElseThrow(()
-                -> new RuntimeException("Задача не найдена: " + id));
-        task.setTitle(taskDetails.getTitle());
-        task.setDescription(taskDetails.getDescription());
-        task.setDueDate(taskDetails.getDueDate());
-        return taskRepository.save(task);
+        return update(id, taskDetails, null);
     }
 
     @Override
+    @Transactional
+    @CachePut(cacheNames = CacheConfig.TASKS_CACHE, key = "#id")
+    public Task updateTask(Long id, Task taskDetails, Long expectedVersion) {
+        return update(id, taskDetails, expectedVersion);
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.TASKS_CACHE, key = "#id")
+    public Long patchTask(Long id, TaskPatch patch, Long expectedVersion) {
+        if (patch.isEmpty()) {
+            throw new IllegalArgumentException("Empty patch");
+        }
+        if (taskRepository.patch(id, patch, expectedVersion) == 0) {
+            // Строка не обновилась: либо задачи нет, либо версия уже другая
+            if (expectedVersion == null || !taskRepository.existsById(id)) {
+                throw new RuntimeException("Задача не найдена: " + id);
+            }
+            throw new TaskVersionConflictException(id, expectedVersion);
+        }
+        eventPublisher.publishEvent(TaskChangedEvent.of(Type.UPDATED, id));
+        return expectedVersion == null ? null : expectedVersion + 1;
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.TASKS_CACHE, key = "#id")
     public void deleteTask(Long id) {
-        if (!taskRepository.existsById(id)) {
+        if (taskRepository.softDeleteById(id, LocalDateTime.now()) == 0) {
             throw new RuntimeException("Задача не найдена: " + id);
         }
-        taskRepository.deleteById(id);
+        eventPublisher.publishEvent(TaskChangedEvent.of(Type.DELETED, id));
     }
 
     @Override
     public List<Task> getTasksByPeriodAndStatus(String period, Boolean completed) {
+        return getTasksByFilter(TaskFilter.ofPeriod(period, completed));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Task> getTasksByFilter(TaskFilter filter) {
+        DueQuery query = DueQuery.of(filter);
+        List<Long> indexed = findIdsInIndex(filter, query);
+        if (indexed != null) {
+            return findAllInOrder(indexed);
+        }
+        if (filter.completed() == null) {
+            return taskRepository.findAllDueWithin(query.from(), query.to(), query.pageable());
+        } else {
+            return taskRepository.findAllDueWithinByCompleted(
+                    filter.completed(), query.from(), query.to(), query.pageable());
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<TaskSummary> getTaskSummariesByFilter(TaskFilter filter) {
+        DueQuery query = DueQuery.of(filter);
+        List<Long> indexed = findIdsInIndex(filter, query);
+        if (indexed != null) {
+            return findAllInOrder(indexed).stream()
+                    .map(task -> new TaskSummary(task.getId(), task.getTitle(), task.isCompleted(), task.getDueDate()))
+                    .toList();
+        }
+        if (filter.completed() == null) {
+            return taskRepository.findSummariesDueWithin(query.from(), query.to(), query.pageable());
+        } else {
+            return taskRepository.findSummariesDueWithinByCompleted(
+                    filter.completed(), query.from(), query.to(), query.pageable());
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.STATS_CACHE)
+    public TaskStats getTaskStats(TaskFilter range, String bucket, String field) {
+        if (!STATS_BUCKETS.contains(bucket)) {
+            throw new IllegalArgumentException("Unsupported bucket: " + bucket);
+        }
+        DueQuery query = DueQuery.of(range);
         LocalDateTime now = LocalDateTime.now();
-        LocalDateTime from;
-        LocalDateTime to;
+        TaskStatusCounts status = switch (field) {
+            case "dueDate" -> taskRepository.countStatusesDueWithin(query.from(), query.to(), now);
+            case "createdAt" -> taskRepository.countStatusesCreatedWithin(query.from(), query.to(), now);
+            default -> throw new IllegalArgumentException("Unsupported stats field: " + field);
+        };
+        return new TaskStats(field, bucket, query.from(), query.to(), status,
+                taskRepository.countByBucket(field, bucket, query.from(), query.to()));
+    }
 
-        switch (period) {
-            case "today" -> {
-                from = now.toLocalDate().atStartOfDay();
-                to = from.plusDays(1);
-            }
-            case "week" -> {
-                from = now.toLocalDate().atStartOfDay();
-                to = from.plusWeeks(1);
+    /**
+     * Идентификаторы задач из индекса по дедлайнам; null, если индекс выключен,
+     * ещё не прогрет или запрос отсортирован не по возрастанию дедлайна
+     */
+    private List<Long> findIdsInIndex(TaskFilter filter, DueQuery query) {
+        if (dueDateIndex == null || !dueDateIndex.isReady()) {
+            return null;
+        }
+        Sort.Order first = query.pageable().getSort().iterator().next();
+        if (!first.getProperty().equals("dueDate") || first.isDescending()) {
+            return null;
+        }
+        return dueDateIndex.findIds(query.from(), query.to(), filter.completed(), query.pageable().getPageSize());
+    }
+
+    /**
+     * Загружает задачи по первичному ключу одним запросом, сохраняя порядок идентификаторов
+     */
+    private List<Task> findAllInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Task> tasks = taskRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Task::getId, Function.identity()));
+        return ids.stream().map(tasks::get).filter(Objects::nonNull).toList();
+    }
+
+    private Task update(Long id, Task taskDetails, Long expectedVersion) {
+        Task task = taskRepository.findById(id).orElseThrow(()
+                -> new RuntimeException("Задача не найдена: " + id));
+        if (expectedVersion != null && task.getVersion() != expectedVersion) {
+            throw new TaskVersionConflictException(id, expectedVersion);
+        }
+        task.setTitle(taskDetails.getTitle());
+        task.setDescription(taskDetails.getDescription());
+        task.setDueDate(taskDetails.getDueDate());
+        // Чтение, проверка и запись идут в одной транзакции на основной БД; изменение, зафиксированное
+        // другим писателем после чтения, отсекается условием по @Version в UPDATE при фиксации
+        Task saved = taskRepository.save(task);
+        eventPublisher.publishEvent(TaskChangedEvent.of(Type.UPDATED, id));
+        return saved;
+    }
+
+    /**
+     * Превращает пользовательский запрос в tsquery: слова из букв и цифр
+     * объединяются через AND, каждое совпадает по префиксу
+     */
+    static String toTsQuery(String query) {
+        if (query == null) {
+            throw new IllegalArgumentException("Empty search query");
+        }
+        List<String> terms = Stream.of(query.toLowerCase().split("[^\\p{L}\\p{N}]+"))
+                .filter(term -> !term.isEmpty())
+                .distinct()
+                .toList();
+        if (terms.isEmpty()) {
+            throw new IllegalArgumentException("Empty search query");
+        }
+        if (terms.size() > MAX_SEARCH_TERMS) {
+            throw new IllegalArgumentException("Too many search terms: " + terms.size());
+        }
+        return terms.stream().map(term -> term + ":*").collect(Collectors.joining(" & "));
+    }
+
+    private static void checkPageSize(int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Invalid limit: " + limit);
+        }
+    }
+
+    /**
+     * Собирает страницу из выборки размером до limit + 1 строк:
+     * лишняя строка означает, что за страницей есть продолжение
+     */
+    private static <T> CursorPage<T> toPage(List<T> rows, int limit, ToLongFunction<T> idOf) {
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, limit);
+        return new CursorPage<>(items, TaskCursors.encode(idOf.applyAsLong(items.get(limit - 1))));
+    }
+
+    /**
+     * Диапазон дедлайнов в локальном времени сервера вместе с сортировкой и лимитом
+     */
+    private record DueQuery(LocalDateTime from, LocalDateTime to, Pageable pageable) {
+
+        static DueQuery of(TaskFilter filter) {
+            if (filter.limit() < 1 || filter.limit() > TaskFilter.MAX_LIMIT) {
+                throw new IllegalArgumentException("Invalid limit: " + filter.limit());
             }
-            case "month" -> {
-                from = now.toLocalDate().atStartOfDay();
-                to = from.plusMonths(1);
+            ZoneId zone = parseZone(filter.zone());
+            LocalDateTime from;
+            LocalDateTime to;
+
+            if (filter.period() != null) {
+                if (filter.from() != null || filter.to() != null) {
+                    throw new IllegalArgumentException("Period and from/to are mutually exclusive");
+                }
+                ZonedDateTime today = ZonedDateTime.now(zone).toLocalDate().atStartOfDay(zone);
+                // Прошедшие периоды заканчиваются концом сегодняшнего дня и включают его
+                ZonedDateTime start = switch (filter.period()) {
+                    case "last-week" -> today.minusDays(6);
+                    case "last-month" -> today.plusDays(1).minusMonths(1);
+                    default -> today;
+                };
+                ZonedDateTime end = switch (filter.period()) {
+                    case "today", "last-week", "last-month" -> today.plusDays(1);
+                    case "week" -> today.plusWeeks(1);
+                    case "month" -> today.plusMonths(1);
+                    default -> throw new IllegalArgumentException("Unknown period: " + filter.period());
+                };
+                from = toServerTime(start);
+                to = toServerTime(end);
+            } else {
+                if (filter.from() == null || filter.to() == null) {
+                    throw new IllegalArgumentException("Either period or both from and to are required");
+                }
+                if (!filter.from().isBefore(filter.to())) {
+                    throw new IllegalArgumentException("Range start must be before its end");
+                }
+                from = toServerTime(filter.from().atZone(zone));
+                to = toServerTime(filter.to().atZone(zone));
             }
-            default -> throw new IllegalArgumentException("Unknown period: " + period);
+            return new DueQuery(from, to, PageRequest.of(0, filter.limit(), parseSort(filter.sort())));
         }
+    }
 
-        if (completed == null) {
-            return taskRepository.findAllByDueDateBetween(from, to);
-        } else {
-            return taskRepository.findAllByDueDateBetweenAndCompleted(from, to, completed);
+    private static ZoneId parseZone(String zone) {
+        if (zone == null || zone.isBlank()) {
+            return ZoneId.systemDefault();
+        }
+        try {
+            return ZoneId.of(zone);
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("Unknown zone: " + zone, e);
+        }
+    }
+
+    /**
+     * Дедлайны хранятся в локальном времени сервера
+     */
+    private static LocalDateTime toServerTime(ZonedDateTime time) {
+        return time.withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+    }
+
+    /**
+     * Разбирает сортировку вида "поле[,asc|desc]"; id добавляется
+     * вторым ключом, чтобы порядок был детерминированным
+     */
+    private static Sort parseSort(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return Sort.by("dueDate", "id");
+        }
+        String[] parts = sort.split(",", 2);
+        String property = parts[0].trim();
+        if (!SORTABLE_PROPERTIES.contains(property)) {
+            throw new IllegalArgumentException("Unsupported sort property: " + property);
         }
+        Sort.Direction direction = parts.length > 1
+                ? Sort.Direction.fromString(parts[1].trim())
+                : Sort.Direction.ASC;
+        Sort result = Sort.by(direction, property);
+        return property.equals("id") ? result : result.and(Sort.by("id"));
     }
 }
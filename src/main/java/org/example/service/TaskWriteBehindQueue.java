@@ -0,0 +1,217 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.example.event.TaskChangedEvent;
+import org.example.event.TaskChangedEvent.Type;
+import org.example.model.Task;
+import org.example.repository.TaskRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Отложенная запись новых задач с групповой фиксацией: запросы кладут задачи в ограниченную
+ * очередь, единственный поток-писатель забирает их пачками до max-batch-size, подождав
+ * не дольше linger, и вставляет пачку одной транзакцией — одна фиксация (и один fsync)
+ * на пачку вместо одной на запрос. Каждый вызывающий получает свою задачу с присвоенным id
+ */
+@Component
+@ConditionalOnProperty(name = "tasks.write-behind.enabled", havingValue = "true")
+public class TaskWriteBehindQueue implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskWriteBehindQueue.class);
+
+    private record Pending(Task task, CompletableFuture<Task> result) {
+    }
+
+    private final TaskRepository taskRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BlockingQueue<Pending> queue;
+    private final int maxBatchSize;
+    private final long lingerNanos;
+    private final long offerTimeoutNanos;
+    private final DistributionSummary batchSizes;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    /**
+     * Создаёт очередь и запускает поток-писатель
+     */
+    @Autowired
+    public TaskWriteBehindQueue(
+            TaskRepository taskRepository,
+            EntityManager entityManager,
+            PlatformTransactionManager transactionManager,
+            ApplicationEventPublisher eventPublisher,
+            MeterRegistry meterRegistry,
+            @Value("${tasks.write-behind.capacity:10000}") int capacity,
+            @Value("${tasks.write-behind.max-batch-size:200}") int maxBatchSize,
+            @Value("${tasks.write-behind.linger:5ms}") Duration linger,
+            @Value("${tasks.write-behind.offer-timeout:0ms}") Duration offerTimeout
+    ) {
+        this.taskRepository = taskRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.maxBatchSize = maxBatchSize;
+        this.lingerNanos = linger.toNanos();
+        this.offerTimeoutNanos = offerTimeout.toNanos();
+        this.batchSizes = DistributionSummary.builder("tasks.write-behind.batch.size")
+                .description("Tasks inserted per group commit")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("tasks.write-behind.queue.size", queue, BlockingQueue::size).register(meterRegistry);
+        this.writer = new Thread(this::run, "task-write-behind");
+        writer.start();
+    }
+
+    /**
+     * Ставит задачу в очередь на вставку; если очередь полна дольше offer-timeout,
+     * бросает RejectedExecutionException, чтобы клиент повторил запрос позже
+     */
+    public CompletableFuture<Task> submit(Task task) {
+        if (!running) {
+            throw new RejectedExecutionException("Write-behind queue is shut down");
+        }
+        Pending pending = new Pending(task, new CompletableFuture<>());
+        boolean accepted;
+        try {
+            accepted = queue.offer(pending, offerTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            accepted = false;
+        }
+        if (!accepted) {
+            throw new RejectedExecutionException("Write-behind queue is full");
+        }
+        // Остановка могла начаться между проверкой и вставкой: задачу тогда уже никто не запишет
+        if (!running && queue.remove(pending)) {
+            throw new RejectedExecutionException("Write-behind queue is shut down");
+        }
+        return pending.result();
+    }
+
+    /**
+     * Дописывает всё, что осталось в очереди, и останавливает писателя;
+     * задачи, которые писатель не успел забрать, завершаются RejectedExecutionException
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+        if (writer.isAlive()) {
+            writer.interrupt();
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        List<Pending> leftovers = new ArrayList<>();
+        queue.drainTo(leftovers);
+        reject(leftovers);
+    }
+
+    Thread writer() {
+        return writer;
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                collect(batch);
+                batchSizes.record(batch.size());
+                write(batch);
+            } catch (InterruptedException e) {
+                // Прерванный писатель выходит сразу: иначе poll с выставленным флагом крутился бы вхолостую.
+                // Недобранную пачку отклоняем здесь, остаток очереди — в destroy
+                reject(batch);
+                running = false;
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // Писатель не должен умирать: ошибки отдельных пачек уже отданы вызывающим
+                log.error("Write-behind batch failed", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Добирает пачку: сначала всё, что уже ждёт в очереди, затем ждёт новые задачи до истечения linger
+     */
+    private void collect(List<Pending> batch) throws InterruptedException {
+        queue.drainTo(batch, maxBatchSize - batch.size());
+        long deadline = System.nanoTime() + lingerNanos;
+        while (batch.size() < maxBatchSize) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+            queue.drainTo(batch, maxBatchSize - batch.size());
+        }
+    }
+
+    private static void reject(List<Pending> pending) {
+        pending.forEach(item -> item.result().completeExceptionally(
+                new RejectedExecutionException("Write-behind queue is shut down")));
+    }
+
+    private void write(List<Pending> batch) {
+        List<Task> saved;
+        try {
+            saved = transactionTemplate.execute(status -> {
+                List<Task> tasks = batch.stream().map(Pending::task).toList();
+                // Новые задачи всегда вставляются, а не сливаются с существующими
+                tasks.forEach(task -> task.setId(null));
+                List<Task> persisted = taskRepository.saveAll(tasks);
+                entityManager.flush();
+                entityManager.clear();
+                eventPublisher.publishEvent(new TaskChangedEvent(Type.CREATED,
+                        persisted.stream().map(Task::getId).toList()));
+                return persisted;
+            });
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.get(0).result().completeExceptionally(e);
+                return;
+            }
+            // Одна плохая задача не должна ронять всю пачку: повторяем по одной
+            batch.forEach(pending -> write(List.of(pending)));
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).result().complete(saved.get(i));
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package org.example.service.interfaces;
+
+import org.example.dto.BatchItemResult;
+import org.example.model.Task;
+
+import java.util.List;
+
+/**
+ * Сервис пакетных операций над задачами
+ */
+public interface TaskBatchService {
+
+    /**
+     * Создаёт задачи пачками, каждая пачка в своей транзакции
+     */
+    List<BatchItemResult> createTasks(List<Task> tasks);
+
+    /**
+     * Обновляет задачи по их идентификаторам
+     */
+    List<BatchItemResult> updateTasks(List<Task> tasks);
+
+    /**
+     * Удаляет задачи по идентификаторам
+     */
+    List<BatchItemResult> deleteTasks(List<Long> ids);
+}
@@ -1,8 +1,15 @@
 package org.example.service.interfaces;
 
+import org.example.dto.CursorPage;
+import org.example.dto.TaskFilter;
+import org.example.dto.TaskPatch;
+import org.example.dto.TaskSearchHit;
+import org.example.dto.TaskStats;
+import org.example.dto.TaskSummary;
 import org.example.model.Task;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Сервис для работы с задачами
@@ -14,6 +21,29 @@ public interface TaskService {
      */
     List<Task> getAllTasks();
 
+    /**
+     * Возвращает страницу задач, следующих за курсором,
+     * не более limit элементов
+     */
+    CursorPage<Task> getTasksPage(String cursor, int limit);
+
+    /**
+     * То же, что getTasksPage, но в кратком представлении
+     */
+    CursorPage<TaskSummary> getTaskSummariesPage(String cursor, int limit);
+
+    /**
+     * Передаёт все задачи потребителю по одной,
+     * не загружая таблицу в память целиком
+     */
+    void streamAllTasks(Consumer<Task> consumer);
+
+    /**
+     * Полнотекстовый поиск по заголовку и описанию с префиксным совпадением слов,
+     * в порядке релевантности; страница следует за курсором и содержит не более limit элементов
+     */
+    CursorPage<TaskSearchHit> searchTasks(String query, String cursor, int limit);
+
     /**
      * Ищет задачу по идентификатору
      */
@@ -30,6 +60,18 @@ public interface TaskService {
      */
     Task updateTask(Long id, Task taskDetails);
 
+    /**
+     * Обновляет существующую задачу, если её версия совпадает с ожидаемой;
+     * expectedVersion, равная null, отключает проверку
+     */
+    Task updateTask(Long id, Task taskDetails, Long expectedVersion);
+
+    /**
+     * Изменяет только переданные поля задачи одним UPDATE;
+     * возвращает новую версию, если она известна (при заданной expectedVersion), иначе null
+     */
+    Long patchTask(Long id, TaskPatch patch, Long expectedVersion);
+
     /**
      * Удаляет задачу по идентификатору
      */
@@ -40,5 +82,21 @@ public interface TaskService {
      * фильтрацией по статусу выполнения
      */
     List<Task> getTasksByPeriodAndStatus(String period, Boolean completed);
-}
 
+    /**
+     * Возвращает задачи, дедлайн которых попадает в период или явный диапазон
+     * фильтра, с учётом временной зоны клиента, сортировки и лимита
+     */
+    List<Task> getTasksByFilter(TaskFilter filter);
+
+    /**
+     * То же, что getTasksByFilter, но в кратком представлении
+     */
+    List<TaskSummary> getTaskSummariesByFilter(TaskFilter filter);
+
+    /**
+     * Сводка за период или явный диапазон фильтра: число задач по состоянию
+     * и по интервалам bucket ("day" или "week") поля field ("dueDate" или "createdAt")
+     */
+    TaskStats getTaskStats(TaskFilter range, String bucket, String field);
+}
@@ -0,0 +1,110 @@
+package org.example.web;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Ограничивает число одновременно обрабатываемых запросов размером пула соединений,
+ * чтобы виртуальные потоки не выстраивались тысячами в очередь Hikari;
+ * запрос, не получивший разрешение за maxWait, отклоняется с 503.
+ * Пути из excludedPaths (например, поток SSE, не обращающийся к БД) не ограничиваются;
+ * асинхронный ответ (выгрузка /stream, отложенная запись) держит разрешение до своего завершения
+ */
+public class DatabaseBulkheadFilter extends OncePerRequestFilter {
+
+    private final Semaphore permits;
+    private final long maxWaitNanos;
+    private final List<String> excludedPaths;
+
+    /**
+     * Создаёт фильтр с заданным числом разрешений, временем ожидания и путями без ограничения
+     */
+    public DatabaseBulkheadFilter(int maxConcurrentRequests, Duration maxWait, List<String> excludedPaths) {
+        this.permits = new Semaphore(maxConcurrentRequests, true);
+        this.maxWaitNanos = maxWait.toNanos();
+        this.excludedPaths = List.copyOf(excludedPaths);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return excludedPaths.stream().anyMatch(path::startsWith);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value());
+            return;
+        }
+        Permit permit = new Permit();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                // Курсор асинхронного ответа ещё открыт: разрешение вернёт его завершение
+                request.getAsyncContext().addListener(permit);
+            } else {
+                permit.release();
+            }
+        }
+    }
+
+    /**
+     * Разрешение одного запроса; возвращается ровно один раз
+     */
+    private final class Permit implements AsyncListener {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Повторный startAsync снимает слушателей: подписываемся снова
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
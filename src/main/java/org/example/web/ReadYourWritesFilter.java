@@ -0,0 +1,75 @@
+package org.example.web;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.datasource.ReplicaRoutingDataSource;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Чтение своих записей при чтении с реплик: после изменяющего запроса клиента его запросы
+ * в течение окна window читают из основной БД, а не с реплики, которая могла ещё не догнать запись.
+ * Клиент определяется по пользователю, анонимный — по адресу
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private static final Set<String> MUTATING_METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+
+    private final Cache<String, Boolean> recentWriters;
+
+    /**
+     * Создаёт фильтр с окном window после последней записи клиента
+     */
+    public ReadYourWritesFilter(Duration window, long maximumClients) {
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(maximumClients)
+                .build();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(request.getContextPath() + "/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String subject = subject(SecurityContextHolder.getContext().getAuthentication(), request);
+        boolean mutating = MUTATING_METHODS.contains(request.getMethod());
+        if (mutating) {
+            // Отмечаем и до выполнения: асинхронная запись может завершиться позже выхода из фильтра
+            recentWriters.put(subject, Boolean.TRUE);
+        } else if (recentWriters.getIfPresent(subject) == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        ReplicaRoutingDataSource.pinToPrimary();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReplicaRoutingDataSource.unpin();
+            if (mutating) {
+                recentWriters.put(subject, Boolean.TRUE);
+            }
+        }
+    }
+
+    private static String subject(Authentication authentication, HttpServletRequest request) {
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return "ip:" + request.getRemoteAddr();
+        }
+        return "user:" + authentication.getName();
+    }
+}
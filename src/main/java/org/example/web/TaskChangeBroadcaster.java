@@ -0,0 +1,242 @@
+package org.example.web;
+
+import org.example.dto.TaskChange;
+import org.example.service.TaskChangeFeed;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Рассылает ленту изменений задач подписчикам SSE. Подписчик не занимает поток:
+ * при новых изменениях он ставится в очередь небольшого пула рассылки
+ * и дочитывает ленту со своего последнего номера. Отправка, которая дольше send-timeout
+ * упирается в медленного клиента, отключает его и прерывает поток рассылки,
+ * чтобы несколько таких клиентов не останавливали ленту для остальных
+ */
+@Component
+public class TaskChangeBroadcaster implements DisposableBean {
+
+    /**
+     * Имя события, после которого клиент должен перечитать задачи целиком
+     */
+    public static final String RESET_EVENT = "reset";
+
+    private static final int BATCH_SIZE = 256;
+
+    private final TaskChangeFeed feed;
+    private final long timeoutMillis;
+    private final long sendTimeoutNanos;
+    private final ExecutorService dispatcher;
+    private final ScheduledExecutorService heartbeat;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Создаёт рассыльщик с пулом из dispatcherThreads потоков; зависшие отправки проверяются
+     * с периодом в половину sendTimeout
+     */
+    @Autowired
+    public TaskChangeBroadcaster(
+            TaskChangeFeed feed,
+            @Value("${tasks.feed.dispatcher-threads:4}") int dispatcherThreads,
+            @Value("${tasks.feed.emitter-timeout:30m}") Duration timeout,
+            @Value("${tasks.feed.heartbeat-interval:15s}") Duration heartbeatInterval,
+            @Value("${tasks.feed.send-timeout:10s}") Duration sendTimeout
+    ) {
+        this.feed = feed;
+        this.timeoutMillis = timeout.toMillis();
+        this.sendTimeoutNanos = sendTimeout.toNanos();
+        this.dispatcher = Executors.newFixedThreadPool(dispatcherThreads,
+                new CustomizableThreadFactory("task-feed-"));
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(
+                new CustomizableThreadFactory("task-feed-heartbeat-"));
+        long interval = heartbeatInterval.toMillis();
+        heartbeat.scheduleAtFixedRate(this::sendHeartbeats, interval, interval, TimeUnit.MILLISECONDS);
+        long check = Math.max(1, sendTimeout.toMillis() / 2);
+        heartbeat.scheduleWithFixedDelay(this::disconnectStalled, check, check, TimeUnit.MILLISECONDS);
+        feed.addListener(this::onChange);
+    }
+
+    /**
+     * Подписывает клиента на ленту; при известном Last-Event-ID досылает пропущенные изменения,
+     * а если они уже вытеснены из буфера, первым отправляет событие reset
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        return subscribe(new SseEmitter(timeoutMillis), lastEventId);
+    }
+
+    SseEmitter subscribe(SseEmitter emitter, String lastEventId) {
+        long resumeAfter = lastEventId == null ? feed.lastOffset() : feed.resolve(lastEventId);
+        Subscriber subscriber = new Subscriber(emitter, resumeAfter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        subscriber.schedule();
+        return emitter;
+    }
+
+    /**
+     * Число активных подписчиков
+     */
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @Override
+    public void destroy() {
+        heartbeat.shutdownNow();
+        dispatcher.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+    }
+
+    private void onChange() {
+        subscribers.forEach(Subscriber::schedule);
+    }
+
+    private void sendHeartbeats() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.heartbeatDue = true;
+            subscriber.schedule();
+        }
+    }
+
+    private void disconnectStalled() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            long since = subscriber.sendingSince;
+            if (since != 0 && now - since > sendTimeoutNanos) {
+                subscribers.remove(subscriber);
+                subscriber.expire();
+            }
+        }
+    }
+
+    /**
+     * Подписчик с собственной позицией в ленте; одновременно его обслуживает не больше одного потока
+     */
+    private final class Subscriber implements Runnable {
+
+        private final SseEmitter emitter;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean heartbeatDue;
+        private volatile long offset;
+        // Начало текущей отправки по System.nanoTime, 0 — отправки нет
+        private volatile long sendingSince;
+        private volatile boolean expired;
+        private Thread sender;
+
+        private Subscriber(SseEmitter emitter, long offset) {
+            this.emitter = emitter;
+            this.offset = offset;
+        }
+
+        void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    dispatcher.execute(this);
+                } catch (RejectedExecutionException e) {
+                    scheduled.set(false);
+                }
+            }
+        }
+
+        /**
+         * Отключает подписчика, чья отправка зависла: поток рассылки прерывается, а эмиттер
+         * завершается в нём же, потому что его блокирует текущая отправка
+         */
+        void expire() {
+            synchronized (this) {
+                expired = true;
+                if (sender != null) {
+                    sender.interrupt();
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            synchronized (this) {
+                sender = Thread.currentThread();
+            }
+            try {
+                drain();
+                if (expired) {
+                    throw new IOException("SSE send timed out");
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Клиент отключился, эмиттер уже завершён или отправка не уложилась в send-timeout
+                subscribers.remove(this);
+                emitter.completeWithError(e);
+                return;
+            } finally {
+                synchronized (this) {
+                    sender = null;
+                    // Прерывание, не прервавшее отправку, не должно достаться следующей задаче потока
+                    Thread.interrupted();
+                }
+                scheduled.set(false);
+            }
+            // Изменения, пришедшие во время рассылки, не должны дожидаться следующего оповещения
+            if (offset < feed.lastOffset()) {
+                schedule();
+            }
+        }
+
+        private void drain() throws IOException {
+            if (heartbeatDue) {
+                heartbeatDue = false;
+                send(SseEmitter.event().comment("heartbeat"));
+            }
+            while (true) {
+                List<TaskChange> changes = offset < 0 ? null : feed.readAfter(offset, BATCH_SIZE);
+                if (changes == null) {
+                    offset = feed.lastOffset();
+                    send(SseEmitter.event()
+                            .id(feed.token(offset))
+                            .name(RESET_EVENT)
+                            .data(""));
+                    continue;
+                }
+                if (changes.isEmpty()) {
+                    return;
+                }
+                for (TaskChange change : changes) {
+                    send(SseEmitter.event()
+                            .id(feed.token(change.offset()))
+                            .name(change.type().name().toLowerCase())
+                            .data(change, MediaType.APPLICATION_JSON));
+                    offset = change.offset();
+                }
+            }
+        }
+
+        private void send(SseEmitter.SseEventBuilder event) throws IOException {
+            if (expired) {
+                throw new IOException("SSE send timed out");
+            }
+            sendingSince = System.nanoTime();
+            try {
+                emitter.send(event);
+            } finally {
+                sendingSince = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,19 @@
+-- Исходная схема задач в том виде, в каком её создавал ddl-auto=update.
+-- Выполняется только на новой базе: существующую Flyway принимает за версию 1
+-- (baseline-on-migrate) и эту миграцию к ней не применяет, поэтому исправления
+-- старых баз делаются следующими миграциями (V4 — tasks_seq, V5 — version и индексы)
+CREATE SEQUENCE IF NOT EXISTS tasks_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS tasks (
+    id          bigint       NOT NULL PRIMARY KEY,
+    title       varchar(255) NOT NULL,
+    description varchar(255),
+    completed   boolean      NOT NULL,
+    due_date    timestamp(6),
+    created_at  timestamp(6),
+    version     bigint       DEFAULT 0 NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_tasks_completed_due_date ON tasks (completed, due_date);
+
+CREATE INDEX IF NOT EXISTS idx_tasks_due_date ON tasks (due_date);
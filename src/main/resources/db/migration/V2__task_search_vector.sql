@@ -0,0 +1,9 @@
+-- Полнотекстовый поиск по задачам: вектор хранится в генерируемой колонке,
+-- чтобы ранжирование не пересчитывало to_tsvector для каждой найденной строки
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('simple', coalesce(title, '')), 'A')
+            || setweight(to_tsvector('simple', coalesce(description, '')), 'B')
+    ) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_tasks_search_vector ON tasks USING gin (search_vector);
@@ -0,0 +1,22 @@
+-- Мягкое удаление: живые задачи читаются с условием deleted_at is null, поэтому
+-- частичные индексы покрывают только то, что нужно фоновой очистке и архивации
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS deleted_at timestamp(6);
+
+CREATE INDEX IF NOT EXISTS idx_tasks_deleted_at ON tasks (deleted_at) WHERE deleted_at IS NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_tasks_completed_created_at ON tasks (created_at)
+    WHERE completed AND deleted_at IS NULL;
+
+-- Архив выполненных задач, секционированный по месяцам created_at; секции создаёт TaskArchiver.
+-- Секции по умолчанию нет: иначе строки в ней не дали бы позже создать секцию их месяца
+CREATE TABLE IF NOT EXISTS tasks_archive (
+    id          bigint       NOT NULL,
+    title       varchar(255) NOT NULL,
+    description varchar(255),
+    completed   boolean      NOT NULL,
+    due_date    timestamp(6),
+    created_at  timestamp(6) NOT NULL,
+    version     bigint       NOT NULL,
+    archived_at timestamp(6) NOT NULL DEFAULT now(),
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
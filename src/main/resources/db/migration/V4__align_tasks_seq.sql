@@ -0,0 +1,9 @@
+-- Базы, созданные ещё через ddl-auto=update, принимаются Flyway за версию 1 без выполнения V1,
+-- а их tasks_seq мог появиться уже после вставки строк (или не появиться вовсе).
+-- Сдвигаем последовательность за максимальный id, иначе первые вставки упадут на дубликате ключа.
+CREATE SEQUENCE IF NOT EXISTS tasks_seq START WITH 1 INCREMENT BY 50;
+
+SELECT setval('tasks_seq', greatest(
+        (SELECT coalesce(max(id), 0) FROM tasks),
+        (SELECT coalesce(max(id), 0) FROM tasks_archive),
+        1));
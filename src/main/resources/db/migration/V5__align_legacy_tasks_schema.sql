@@ -0,0 +1,8 @@
+-- Базы, созданные ещё через ddl-auto=update, принимаются Flyway за версию 1 без выполнения V1:
+-- у их tasks нет колонки version (ddl-auto=validate не даст стартовать) и индексов по срокам,
+-- без которых запросы по периодам и дедлайнам читают таблицу целиком. На новой базе ничего не меняет
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS version bigint DEFAULT 0 NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_tasks_completed_due_date ON tasks (completed, due_date);
+
+CREATE INDEX IF NOT EXISTS idx_tasks_due_date ON tasks (due_date);
@@ -0,0 +1,24 @@
+package org.example.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Точка входа реактивного варианта API (WebFlux + R2DBC)
+ */
+@SpringBootApplication
+@Profile(ReactiveMain.PROFILE)
+public class ReactiveMain {
+
+    /**
+     * Профиль, под которым поднимаются реактивные бины
+     */
+    public static final String PROFILE = "reactive";
+
+    public static void main(String[] args) {
+        SpringApplication application = new SpringApplication(ReactiveMain.class);
+        application.setAdditionalProfiles(PROFILE);
+        application.run(args);
+    }
+}
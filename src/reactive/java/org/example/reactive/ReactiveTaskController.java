@@ -0,0 +1,123 @@
+package org.example.reactive;
+
+import org.example.controller.TaskController;
+import org.example.dto.TaskResponse;
+import org.example.model.Task;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Реактивный REST-контроллер задач с теми же маршрутами, ответами (TaskResponse)
+ * и курсорами, что и TaskController
+ */
+@RestController
+@RequestMapping("/api/tasks")
+@Profile(ReactiveMain.PROFILE)
+public class ReactiveTaskController {
+
+    private static final int MAX_PAGE_SIZE = 500;
+
+    private final ReactiveTaskService taskService;
+
+    /**
+     * Создаёт реактивный контроллер задач
+     */
+    public ReactiveTaskController(ReactiveTaskService taskService) {
+        this.taskService = taskService;
+    }
+
+    /**
+     * Возвращает страницу задач после указанного курсора;
+     * курсор следующей страницы передаётся в заголовке X-Next-Cursor
+     */
+    @GetMapping
+    public Mono<ResponseEntity<List<TaskResponse>>> getAllTask(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limit
+    ) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return taskService.getTasksPage(cursor, limit).map(page -> {
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.nextCursor() != null) {
+                response.header(TaskController.NEXT_CURSOR_HEADER, page.nextCursor());
+            }
+            return response.body(page.items().stream().map(TaskResponse::from).toList());
+        });
+    }
+
+    /**
+     * Выгружает все задачи в формате NDJSON; скорость чтения из БД
+     * ограничивается скоростью, с которой клиент принимает ответ
+     */
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<TaskResponse> streamTasks() {
+        return taskService.getAllTasks().map(TaskResponse::from);
+    }
+
+    /**
+     * Возвращает задачу по идентификатору
+     */
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<TaskResponse>> getTask(@PathVariable Long id) {
+        return taskService.getTaskById(id)
+                .map(task -> ResponseEntity.ok()
+                        .eTag(String.valueOf(task.getVersion()))
+                        .body(TaskResponse.from(task)))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Создаёт новую задачу
+     */
+    @PostMapping
+    public Mono<ResponseEntity<TaskResponse>> createTask(@RequestBody Task task) {
+        return taskService.createdTask(task).map(created -> ResponseEntity.ok(TaskResponse.from(created)));
+    }
+
+    /**
+     * Обновляет существующую задачу
+     */
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<TaskResponse>> updateTask(@PathVariable Long id, @RequestBody Task task) {
+        return taskService.updateTask(id, task)
+                .map(updated -> ResponseEntity.ok(TaskResponse.from(updated)))
+                .onErrorResume(RuntimeException.class, e -> Mono.just(ResponseEntity.notFound().build()));
+    }
+
+    /**
+     * Удаляет задачу по идентификатору
+     */
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> deleteTask(@PathVariable Long id) {
+        return taskService.deleteTask(id)
+                .then(Mono.just(ResponseEntity.noContent().<Void>build()))
+                .onErrorResume(RuntimeException.class, e -> Mono.just(ResponseEntity.notFound().build()));
+    }
+
+    /**
+     * Возвращает задачи за указанный период с фильтрацией по статусу выполнения
+     */
+    @GetMapping("/filter")
+    public Flux<TaskResponse> getTasksByPeriodAndStatus(
+            @RequestParam String period,
+            @RequestParam(required = false) Boolean completed
+    ) {
+        return taskService.getTasksByPeriodAndStatus(period, completed).map(TaskResponse::from);
+    }
+
+    /**
+     * Ошибка разбора параметров до начала ответа превращается в 400
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Void> handleBadRequest() {
+        return ResponseEntity.badRequest().build();
+    }
+}
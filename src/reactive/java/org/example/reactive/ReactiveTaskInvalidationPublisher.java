@@ -0,0 +1,53 @@
+package org.example.reactive;
+
+import org.example.cache.InvalidationMessage;
+import org.example.event.TaskChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Отправляет изменения задач сервлетным узлам по той же шине PostgreSQL NOTIFY и в том же формате,
+ * что и TaskInvalidationPublisher; уведомление ставится в транзакции записи и уходит только после фиксации
+ */
+@Component
+@Profile(ReactiveMain.PROFILE)
+@ConditionalOnProperty(name = "tasks.cache.invalidation.enabled", havingValue = "true")
+public class ReactiveTaskInvalidationPublisher {
+
+    private final DatabaseClient client;
+    private final String channel;
+    private final String node = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+    private final AtomicLong seq = new AtomicLong();
+
+    /**
+     * Создаёт отправителя для канала tasks.cache.invalidation.channel
+     */
+    public ReactiveTaskInvalidationPublisher(DatabaseClient client,
+                                             @Value("${tasks.cache.invalidation.channel:tasks_changed}") String channel) {
+        this.client = client;
+        this.channel = channel;
+    }
+
+    /**
+     * Ставит уведомление в текущей транзакции; номер сообщения выдаётся при подписке
+     */
+    public Mono<Void> publish(TaskChangedEvent event) {
+        return Mono.defer(() -> {
+            InvalidationMessage message = new InvalidationMessage(node, seq.incrementAndGet(),
+                    System.currentTimeMillis(), event.type(), event.ids());
+            return client.sql("select pg_notify(:channel, :payload)")
+                    .bind("channel", channel)
+                    .bind("payload", message.encode())
+                    .fetch()
+                    .first()
+                    .then();
+        });
+    }
+}
@@ -0,0 +1,143 @@
+package org.example.reactive;
+
+import io.r2dbc.spi.Readable;
+import org.example.model.Task;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * R2DBC-доступ к той же таблице tasks, что и JPA-репозиторий
+ */
+@Repository
+@Profile(ReactiveMain.PROFILE)
+public class ReactiveTaskRepository {
+
+    private static final String COLUMNS = "id, title, description, completed, due_date, created_at, version";
+    private static final int FETCH_SIZE = 500;
+
+    private final DatabaseClient client;
+
+    /**
+     * Создаёт репозиторий
+     */
+    public ReactiveTaskRepository(DatabaseClient client) {
+        this.client = client;
+    }
+
+    /**
+     * Возвращает все задачи потоком; строки подтягиваются из курсора по мере запроса подписчика
+     */
+    public Flux<Task> findAll() {
+        return client.sql("select " + COLUMNS + " from tasks where deleted_at is null order by id")
+                .filter(statement -> statement.fetchSize(FETCH_SIZE))
+                .map(ReactiveTaskRepository::toTask)
+                .all();
+    }
+
+    /**
+     * Возвращает задачи с идентификатором больше указанного (keyset-пагинация)
+     */
+    public Flux<Task> findAllAfter(long afterId, int limit) {
+        return client.sql("select " + COLUMNS + " from tasks where id > :afterId and deleted_at is null "
+                        + "order by id limit :limit")
+                .bind("afterId", afterId)
+                .bind("limit", limit)
+                .map(ReactiveTaskRepository::toTask)
+                .all();
+    }
+
+    /**
+     * Ищет задачу по идентификатору
+     */
+    public Mono<Task> findById(long id) {
+        return client.sql("select " + COLUMNS + " from tasks where id = :id and deleted_at is null")
+                .bind("id", id)
+                .map(ReactiveTaskRepository::toTask)
+                .one();
+    }
+
+    /**
+     * Возвращает задачи с дедлайном в диапазоне [from, to), при необходимости с фильтром по статусу
+     */
+    public Flux<Task> findDueWithin(LocalDateTime from, LocalDateTime to, Boolean completed, int limit) {
+        String sql = "select " + COLUMNS + " from tasks where due_date >= :from and due_date < :to and deleted_at is null"
+                + (completed == null ? "" : " and completed = :completed")
+                + " order by due_date, id limit :limit";
+        DatabaseClient.GenericExecuteSpec spec = client.sql(sql)
+                .bind("from", from)
+                .bind("to", to)
+                .bind("limit", limit);
+        if (completed != null) {
+            spec = spec.bind("completed", completed);
+        }
+        return spec.map(ReactiveTaskRepository::toTask).all();
+    }
+
+    /**
+     * Вставляет задачу; идентификатор берётся из той же последовательности, что и у JPA
+     */
+    public Mono<Task> insert(Task task) {
+        DatabaseClient.GenericExecuteSpec spec = client.sql(
+                        "insert into tasks (id, title, description, completed, due_date, created_at) "
+                                + "values (nextval('tasks_seq'), :title, :description, :completed, :dueDate, :createdAt) "
+                                + "returning " + COLUMNS)
+                .bind("title", task.getTitle())
+                .bind("completed", task.isCompleted())
+                .bind("createdAt", task.getCreatedAt());
+        spec = bindNullable(spec, "description", task.getDescription(), String.class);
+        spec = bindNullable(spec, "dueDate", task.getDueDate(), LocalDateTime.class);
+        return spec.map(ReactiveTaskRepository::toTask).one();
+    }
+
+    /**
+     * Обновляет название, описание и дедлайн задачи и увеличивает версию, как и JPA при @Version,
+     * чтобы запись через сервлетный API по старому If-Match получила 412;
+     * пустой результат означает, что задачи нет
+     */
+    public Mono<Task> update(long id, Task details) {
+        DatabaseClient.GenericExecuteSpec spec = client.sql(
+                        "update tasks set title = :title, description = :description, due_date = :dueDate, "
+                                + "version = version + 1 "
+                                + "where id = :id and deleted_at is null returning " + COLUMNS)
+                .bind("id", id)
+                .bind("title", details.getTitle());
+        spec = bindNullable(spec, "description", details.getDescription(), String.class);
+        spec = bindNullable(spec, "dueDate", details.getDueDate(), LocalDateTime.class);
+        return spec.map(ReactiveTaskRepository::toTask).one();
+    }
+
+    /**
+     * Мягко удаляет задачу и возвращает число изменённых строк
+     */
+    public Mono<Long> deleteById(long id) {
+        return client.sql("update tasks set deleted_at = :now, version = version + 1 "
+                        + "where id = :id and deleted_at is null")
+                .bind("id", id)
+                .bind("now", LocalDateTime.now())
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindNullable(DatabaseClient.GenericExecuteSpec spec,
+                                                                  String name, Object value, Class<?> type) {
+        return value == null ? spec.bindNull(name, type) : spec.bind(name, value);
+    }
+
+    private static Task toTask(Readable row) {
+        Task task = new Task();
+        task.setId(row.get("id", Long.class));
+        task.setTitle(row.get("title", String.class));
+        task.setDescription(row.get("description", String.class));
+        task.setCompleted(Boolean.TRUE.equals(row.get("completed", Boolean.class)));
+        task.setDueDate(row.get("due_date", LocalDateTime.class));
+        task.setCreatedAt(row.get("created_at", LocalDateTime.class));
+        Long version = row.get("version", Long.class);
+        task.setVersion(version == null ? 0 : version);
+        return task;
+    }
+}
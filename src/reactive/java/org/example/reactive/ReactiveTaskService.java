@@ -0,0 +1,49 @@
+package org.example.reactive;
+
+import org.example.dto.CursorPage;
+import org.example.model.Task;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Реактивный аналог TaskService
+ */
+public interface ReactiveTaskService {
+
+    /**
+     * Возвращает все задачи потоком с учётом backpressure подписчика
+     */
+    Flux<Task> getAllTasks();
+
+    /**
+     * Возвращает страницу задач после непрозрачного курсора (тот же формат, что у сервлетного API);
+     * ошибка IllegalArgumentException, если курсор не разбирается
+     */
+    Mono<CursorPage<Task>> getTasksPage(String cursor, int limit);
+
+    /**
+     * Ищет задачу по идентификатору
+     */
+    Mono<Task> getTaskById(Long id);
+
+    /**
+     * Создаёт новую задачу
+     */
+    Mono<Task> createdTask(Task task);
+
+    /**
+     * Обновляет существующую задачу; ошибка, если задача не найдена
+     */
+    Mono<Task> updateTask(Long id, Task taskDetails);
+
+    /**
+     * Удаляет задачу по идентификатору; ошибка, если задача не найдена
+     */
+    Mono<Void> deleteTask(Long id);
+
+    /**
+     * Возвращает задачи за период today, week или month
+     * с фильтрацией по статусу выполнения
+     */
+    Flux<Task> getTasksByPeriodAndStatus(String period, Boolean completed);
+}
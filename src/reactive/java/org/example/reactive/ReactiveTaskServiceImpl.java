@@ -0,0 +1,125 @@
+package org.example.reactive;
+
+import org.example.dto.CursorPage;
+import org.example.event.TaskChangedEvent;
+import org.example.event.TaskChangedEvent.Type;
+import org.example.model.Task;
+import org.example.service.TaskCursors;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Реализация ReactiveTaskService поверх R2DBC. Каждая запись публикует TaskChangedEvent
+ * после фиксации и, если включена шина инвалидации, ставит NOTIFY в своей транзакции,
+ * чтобы сервлетные узлы вычистили кэши и ленты изменений
+ */
+@Service
+@Profile(ReactiveMain.PROFILE)
+public class ReactiveTaskServiceImpl implements ReactiveTaskService {
+
+    /**
+     * Максимальное число задач в ответе фильтра по периоду
+     */
+    static final int PERIOD_LIMIT = 1000;
+
+    private final ReactiveTaskRepository taskRepository;
+    private final TransactionalOperator transactionalOperator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectProvider<ReactiveTaskInvalidationPublisher> invalidationPublisher;
+
+    /**
+     * Создаёт реактивный сервис задач; отправитель уведомлений есть только при tasks.cache.invalidation.enabled
+     */
+    public ReactiveTaskServiceImpl(ReactiveTaskRepository taskRepository,
+                                   TransactionalOperator transactionalOperator,
+                                   ApplicationEventPublisher eventPublisher,
+                                   ObjectProvider<ReactiveTaskInvalidationPublisher> invalidationPublisher) {
+        this.taskRepository = taskRepository;
+        this.transactionalOperator = transactionalOperator;
+        this.eventPublisher = eventPublisher;
+        this.invalidationPublisher = invalidationPublisher;
+    }
+
+    @Override
+    public Flux<Task> getAllTasks() {
+        return taskRepository.findAll();
+    }
+
+    @Override
+    public Mono<CursorPage<Task>> getTasksPage(String cursor, int limit) {
+        return Mono.fromCallable(() -> TaskCursors.decode(cursor))
+                .flatMap(afterId -> taskRepository.findAllAfter(afterId, limit + 1).collectList())
+                .map(tasks -> {
+                    if (tasks.size() <= limit) {
+                        return new CursorPage<>(tasks, null);
+                    }
+                    List<Task> items = tasks.subList(0, limit);
+                    return new CursorPage<>(items, TaskCursors.encode(items.get(limit - 1).getId()));
+                });
+    }
+
+    @Override
+    public Mono<Task> getTaskById(Long id) {
+        return taskRepository.findById(id);
+    }
+
+    @Override
+    public Mono<Task> createdTask(Task task) {
+        return changed(taskRepository.insert(task), Type.CREATED);
+    }
+
+    @Override
+    public Mono<Task> updateTask(Long id, Task taskDetails) {
+        return changed(taskRepository.update(id, taskDetails)
+                .switchIfEmpty(Mono.error(() -> new RuntimeException("Задача не найдена: " + id))), Type.UPDATED);
+    }
+
+    @Override
+    public Mono<Void> deleteTask(Long id) {
+        TaskChangedEvent event = TaskChangedEvent.of(Type.DELETED, id);
+        return taskRepository.deleteById(id)
+                .flatMap(deleted -> deleted == 0
+                        ? Mono.error(new RuntimeException("Задача не найдена: " + id))
+                        : notifyNodes(event))
+                .as(transactionalOperator::transactional)
+                .then(Mono.fromRunnable(() -> eventPublisher.publishEvent(event)));
+    }
+
+    @Override
+    public Flux<Task> getTasksByPeriodAndStatus(String period, Boolean completed) {
+        LocalDateTime from = LocalDateTime.now().toLocalDate().atStartOfDay();
+        LocalDateTime to;
+        switch (period) {
+            case "today" -> to = from.plusDays(1);
+            case "week" -> to = from.plusWeeks(1);
+            case "month" -> to = from.plusMonths(1);
+            default -> {
+                return Flux.error(new IllegalArgumentException("Unknown period: " + period));
+            }
+        }
+        return taskRepository.findDueWithin(from, to, completed, PERIOD_LIMIT);
+    }
+
+    /**
+     * Выполняет запись и уведомление других узлов одной транзакцией, после фиксации публикует событие
+     */
+    private Mono<Task> changed(Mono<Task> write, Type type) {
+        return write
+                .flatMap(task -> notifyNodes(TaskChangedEvent.of(type, task.getId())).thenReturn(task))
+                .as(transactionalOperator::transactional)
+                .doOnNext(task -> eventPublisher.publishEvent(TaskChangedEvent.of(type, task.getId())));
+    }
+
+    private Mono<Void> notifyNodes(TaskChangedEvent event) {
+        ReactiveTaskInvalidationPublisher publisher = invalidationPublisher.getIfAvailable();
+        return publisher == null ? Mono.empty() : publisher.publish(event);
+    }
+}
@@ -0,0 +1,105 @@
+package org.example.reactive;
+
+import org.example.controller.TaskController;
+import org.example.dto.CursorPage;
+import org.example.model.Task;
+import org.example.service.TaskCursors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Проверяют, что реактивный API отдаёт те же DTO и курсоры, что и сервлетный
+ */
+class ReactiveTaskControllerTest {
+
+    private ReactiveTaskService taskService;
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        taskService = mock(ReactiveTaskService.class);
+        client = WebTestClient.bindToController(new ReactiveTaskController(taskService)).build();
+    }
+
+    /**
+     * Страница должна состоять из TaskResponse без служебных полей сущности,
+     * а курсор следующей страницы — приходить в X-Next-Cursor
+     */
+    @Test
+    void getAllTask_returnsResponsesAndNextCursor() {
+        String next = TaskCursors.encode(2L);
+        when(taskService.getTasksPage(null, 2))
+                .thenReturn(Mono.just(new CursorPage<>(List.of(task(1L), task(2L)), next)));
+
+        client.get().uri("/api/tasks?limit=2").exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(TaskController.NEXT_CURSOR_HEADER, next)
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[1].id").isEqualTo(2)
+                .jsonPath("$[1].version").isEqualTo(3)
+                .jsonPath("$[1].deletedAt").doesNotExist();
+    }
+
+    /**
+     * Курсор, который не разбирается, должен давать 400, как в сервлетном API
+     */
+    @Test
+    void getAllTask_rejectsInvalidCursor() {
+        when(taskService.getTasksPage("garbage", 100))
+                .thenReturn(Mono.error(new IllegalArgumentException("Invalid cursor: garbage")));
+
+        client.get().uri("/api/tasks?cursor=garbage").exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    /**
+     * Задача по идентификатору должна отдаваться как TaskResponse с версией в ETag
+     */
+    @Test
+    void getTask_returnsResponseWithETag() {
+        when(taskService.getTaskById(1L)).thenReturn(Mono.just(task(1L)));
+
+        client.get().uri("/api/tasks/1").exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", "\"3\"")
+                .expectBody()
+                .jsonPath("$.title").isEqualTo("task 1")
+                .jsonPath("$.deletedAt").doesNotExist();
+    }
+
+    /**
+     * Выгрузка NDJSON должна состоять из TaskResponse
+     */
+    @Test
+    void streamTasks_streamsResponses() {
+        when(taskService.getAllTasks()).thenReturn(Flux.just(task(1L), task(2L)));
+
+        client.get().uri("/api/tasks/stream").accept(MediaType.APPLICATION_NDJSON).exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .value(body -> assertThat(body)
+                        .contains("\"id\":1", "\"id\":2")
+                        .doesNotContain("deletedAt"));
+    }
+
+    private static Task task(long id) {
+        Task task = new Task();
+        task.setId(id);
+        task.setTitle("task " + id);
+        task.setCreatedAt(LocalDateTime.of(2024, 5, 1, 12, 0));
+        task.setDeletedAt(LocalDateTime.of(2024, 5, 2, 12, 0));
+        task.setVersion(3L);
+        return task;
+    }
+}
@@ -0,0 +1,97 @@
+package org.example.reactive;
+
+import org.example.dto.CursorPage;
+import org.example.event.TaskChangedEvent;
+import org.example.event.TaskChangedEvent.Type;
+import org.example.model.Task;
+import org.example.service.TaskCursors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+/**
+ * Проверяют курсоры реактивного сервиса и оповещение об изменениях при записи
+ */
+class ReactiveTaskServiceImplTest {
+
+    private ReactiveTaskRepository taskRepository;
+    private ApplicationEventPublisher eventPublisher;
+    private ReactiveTaskInvalidationPublisher invalidationPublisher;
+    private ReactiveTaskServiceImpl service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        taskRepository = mock(ReactiveTaskRepository.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        invalidationPublisher = mock(ReactiveTaskInvalidationPublisher.class);
+        when(invalidationPublisher.publish(any())).thenReturn(Mono.empty());
+        TransactionalOperator transactionalOperator = mock(TransactionalOperator.class);
+        when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        ObjectProvider<ReactiveTaskInvalidationPublisher> publisherProvider = mock(ObjectProvider.class);
+        when(publisherProvider.getIfAvailable()).thenReturn(invalidationPublisher);
+        service = new ReactiveTaskServiceImpl(taskRepository, transactionalOperator, eventPublisher,
+                publisherProvider);
+    }
+
+    /**
+     * Страница должна читаться после id из курсора с запасом в одну строку для курсора следующей
+     */
+    @Test
+    void getTasksPage_decodesAndIssuesCursor() {
+        when(taskRepository.findAllAfter(5L, 3)).thenReturn(Flux.just(task(6L), task(7L), task(8L)));
+
+        CursorPage<Task> page = service.getTasksPage(TaskCursors.encode(5L), 2).block();
+
+        assertThat(page.items()).extracting(Task::getId).containsExactly(6L, 7L);
+        assertThat(TaskCursors.decode(page.nextCursor())).isEqualTo(7L);
+        assertThatThrownBy(() -> service.getTasksPage("garbage", 2).block())
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Создание, изменение и удаление должны уведомлять другие узлы и публиковать событие
+     */
+    @Test
+    void writes_notifyNodesAndPublishEvents() {
+        when(taskRepository.insert(any())).thenReturn(Mono.just(task(1L)));
+        when(taskRepository.update(eq(1L), any())).thenReturn(Mono.just(task(1L)));
+        when(taskRepository.deleteById(1L)).thenReturn(Mono.just(1L));
+
+        service.createdTask(new Task()).block();
+        service.updateTask(1L, new Task()).block();
+        service.deleteTask(1L).block();
+
+        for (Type type : Type.values()) {
+            verify(invalidationPublisher).publish(TaskChangedEvent.of(type, 1L));
+            verify(eventPublisher).publishEvent(TaskChangedEvent.of(type, 1L));
+        }
+    }
+
+    /**
+     * Удаление несуществующей задачи не должно ни уведомлять, ни публиковать событие
+     */
+    @Test
+    void deleteTask_missingTaskPublishesNothing() {
+        when(taskRepository.deleteById(9L)).thenReturn(Mono.just(0L));
+
+        assertThatThrownBy(() -> service.deleteTask(9L).block()).isInstanceOf(RuntimeException.class);
+
+        verifyNoInteractions(invalidationPublisher, eventPublisher);
+    }
+
+    private static Task task(long id) {
+        Task task = new Task();
+        task.setId(id);
+        task.setTitle("task " + id);
+        return task;
+    }
+}
@@ -0,0 +1,59 @@
+package org.example.benchmark;
+
+import org.example.Main;
+import org.example.model.Task;
+import org.example.service.interfaces.TaskBatchService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Поднимает приложение с профилем bench (H2 в памяти) и заполняет таблицу задач
+ */
+final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    /**
+     * Запускает контекст приложения с дополнительными профилями
+     */
+    static ConfigurableApplicationContext start(String... extraProfiles) {
+        List<String> profiles = new ArrayList<>(List.of("bench"));
+        profiles.addAll(List.of(extraProfiles));
+        return new SpringApplicationBuilder(Main.class)
+                .profiles(profiles.toArray(String[]::new))
+                .run();
+    }
+
+    /**
+     * Создаёт rows задач с дедлайнами, равномерно распределёнными на два месяца вперёд
+     */
+    static void seed(ConfigurableApplicationContext context, int rows) {
+        TaskBatchService batchService = context.getBean(TaskBatchService.class);
+        LocalDateTime now = LocalDateTime.now();
+        List<Task> chunk = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            chunk.add(task(i, now.plusMinutes(i % (60 * 24 * 60))));
+            if (chunk.size() == 1000 || i == rows - 1) {
+                batchService.createTasks(chunk);
+                chunk = new ArrayList<>();
+            }
+        }
+    }
+
+    /**
+     * Тестовая задача с описанием типичной длины
+     */
+    static Task task(int n, LocalDateTime dueDate) {
+        Task task = new Task();
+        task.setTitle("Task " + n);
+        task.setDescription("Description of benchmark task number " + n + ", long enough to resemble real text");
+        task.setCompleted(n % 3 == 0);
+        task.setDueDate(dueDate);
+        return task;
+    }
+}
@@ -0,0 +1,91 @@
+package org.example.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.dto.TaskResponse;
+import org.example.model.Task;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Цена gzip-сжатия списков задач: время сериализации со сжатием и без,
+ * размеры тел до и после сжатия печатаются в лог при подготовке
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskCompressionBenchmark {
+
+    @Param({"100", "1000", "5000"})
+    public int rows;
+
+    @Param({"1", "6"})
+    public int level;
+
+    private ConfigurableApplicationContext context;
+    private ObjectMapper objectMapper;
+    private List<TaskResponse> tasks;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        context = new SpringApplicationBuilder(JacksonAutoConfiguration.class)
+                .web(WebApplicationType.NONE)
+                .run();
+        objectMapper = context.getBean(ObjectMapper.class);
+        LocalDateTime now = LocalDateTime.now();
+        tasks = IntStream.range(0, rows)
+                .mapToObj(n -> {
+                    Task task = BenchmarkContext.task(n, now.plusHours(n));
+                    task.setId((long) n + 1);
+                    return TaskResponse.from(task);
+                })
+                .toList();
+        int plain = serialize().length;
+        int compressed = serializeGzip().length;
+        System.out.printf("rows=%d level=%d json=%d bytes gzip=%d bytes (%.1f%%)%n",
+                rows, level, plain, compressed, 100.0 * compressed / plain);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return objectMapper.writeValueAsBytes(tasks);
+    }
+
+    @Benchmark
+    public byte[] serializeGzip() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new LevelGzipOutputStream(bytes, level)) {
+            objectMapper.writeValue(gzip, tasks);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * GZIPOutputStream с заданным уровнем сжатия; Tomcat использует уровень по умолчанию (6)
+     */
+    private static final class LevelGzipOutputStream extends GZIPOutputStream {
+
+        LevelGzipOutputStream(ByteArrayOutputStream out, int level) throws IOException {
+            super(out);
+            def.setLevel(level);
+        }
+    }
+}
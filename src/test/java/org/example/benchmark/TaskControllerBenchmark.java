@@ -0,0 +1,71 @@
+package org.example.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Диспетчеризация запросов в TaskController через MockMvc, без фильтров безопасности
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskControllerBenchmark {
+
+    @Param({"10000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        BenchmarkContext.seed(context, rows);
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public MvcResult getTask() throws Exception {
+        long id = ThreadLocalRandom.current().nextLong(1, rows + 1);
+        return mockMvc.perform(get("/api/tasks/{id}", id)).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult getTasksPage() throws Exception {
+        return mockMvc.perform(get("/api/tasks").param("limit", "100")).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult filterMonth() throws Exception {
+        return mockMvc.perform(get("/api/tasks/filter").param("period", "month")).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult createTask() throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/tasks")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"Benchmark\",\"description\":\"Created by JMH\"}"))
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result)).andReturn();
+    }
+}
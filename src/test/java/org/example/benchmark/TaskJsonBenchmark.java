@@ -0,0 +1,55 @@
+package org.example.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.model.Task;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сериализация и десериализация Task через ObjectMapper, настроенный Spring Boot
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskJsonBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private ObjectMapper objectMapper;
+    private Task task;
+    private byte[] json;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = new SpringApplicationBuilder(JacksonAutoConfiguration.class)
+                .web(WebApplicationType.NONE)
+                .run();
+        objectMapper = context.getBean(ObjectMapper.class);
+        task = BenchmarkContext.task(42, LocalDateTime.now());
+        task.setId(42L);
+        json = objectMapper.writeValueAsBytes(task);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return objectMapper.writeValueAsBytes(task);
+    }
+
+    @Benchmark
+    public Task deserialize() throws Exception {
+        return objectMapper.readValue(json, Task.class);
+    }
+}
@@ -0,0 +1,100 @@
+package org.example.benchmark;
+
+import org.example.dto.CursorPage;
+import org.example.dto.TaskSearchHit;
+import org.example.model.Task;
+import org.example.repository.TaskRepository;
+import org.example.service.interfaces.TaskBatchService;
+import org.example.service.interfaces.TaskService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Задержка полнотекстового поиска на PostgreSQL (профиль bench-pg, база из DB_HOST/DB_NAME);
+ * таблица засевается один раз до rows строк со словами из словаря с убывающей частотой
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskSearchBenchmark {
+
+    private static final String[] WORDS = {
+            "report", "deploy", "review", "invoice", "meeting", "release", "backup", "migrate",
+            "customer", "budget", "database", "incident", "onboarding", "audit", "roadmap", "cleanup",
+            "отчёт", "релиз", "встреча", "счёт", "аудит", "миграция", "бюджет", "инцидент"
+    };
+
+    @Param({"1000000"})
+    public int rows;
+
+    /**
+     * Частое слово, редкое слово, префикс и два слова
+     */
+    @Param({"report", "инцидент", "mig", "deploy release"})
+    public String query;
+
+    private ConfigurableApplicationContext context;
+    private TaskService taskService;
+    private String secondPage;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("bench-pg");
+        taskService = context.getBean(TaskService.class);
+        long existing = context.getBean(TaskRepository.class).count();
+        if (existing < rows) {
+            seed(context.getBean(TaskBatchService.class), existing, rows);
+        }
+        secondPage = taskService.searchTasks(query, null, 20).nextCursor();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public CursorPage<TaskSearchHit> firstPage() {
+        return taskService.searchTasks(query, null, 20);
+    }
+
+    @Benchmark
+    public CursorPage<TaskSearchHit> nextPage() {
+        return taskService.searchTasks(query, secondPage, 20);
+    }
+
+    private static void seed(TaskBatchService batchService, long from, int to) {
+        SplittableRandom random = new SplittableRandom(from);
+        LocalDateTime now = LocalDateTime.now();
+        List<Task> chunk = new ArrayList<>();
+        for (long i = from; i < to; i++) {
+            Task task = new Task();
+            task.setTitle(word(random) + " " + word(random) + " " + i);
+            task.setDescription(word(random) + " " + word(random) + " " + word(random) + " " + word(random)
+                    + " for task number " + i);
+            task.setDueDate(now.plusMinutes(i % (60 * 24 * 60)));
+            chunk.add(task);
+            if (chunk.size() == 5000 || i == to - 1) {
+                batchService.createTasks(chunk);
+                chunk = new ArrayList<>();
+            }
+        }
+    }
+
+    /**
+     * Слово с частотой, убывающей по индексу словаря
+     */
+    private static String word(SplittableRandom random) {
+        int index = (int) (WORDS.length * Math.pow(random.nextDouble(), 2));
+        return WORDS[index];
+    }
+}
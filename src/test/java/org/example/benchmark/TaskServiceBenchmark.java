@@ -0,0 +1,86 @@
+package org.example.benchmark;
+
+import org.example.model.Task;
+import org.example.service.interfaces.TaskBatchService;
+import org.example.service.interfaces.TaskService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Горячие пути TaskServiceImpl на H2 в памяти
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskServiceBenchmark {
+
+    private static final int BATCH = 100;
+
+    @Param({"10000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private TaskService taskService;
+    private TaskBatchService batchService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        BenchmarkContext.seed(context, rows);
+        taskService = context.getBean(TaskService.class);
+        batchService = context.getBean(TaskBatchService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Task> getAllTasks() {
+        return taskService.getAllTasks();
+    }
+
+    @Benchmark
+    public Object getTaskById() {
+        return taskService.getTaskById(ThreadLocalRandom.current().nextLong(1, rows + 1));
+    }
+
+    @Benchmark
+    public List<Task> getTasksByPeriodAndStatus() {
+        return taskService.getTasksByPeriodAndStatus("month", false);
+    }
+
+    /**
+     * Одиночная вставка, одна транзакция на задачу
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void createdTask() {
+        for (int i = 0; i < BATCH; i++) {
+            taskService.createdTask(BenchmarkContext.task(i, LocalDateTime.now()));
+        }
+    }
+
+    /**
+     * Та же нагрузка через пакетную вставку, для сравнения с createdTask
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public Object createTasksBatch() {
+        List<Task> tasks = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            tasks.add(BenchmarkContext.task(i, LocalDateTime.now()));
+        }
+        return batchService.createTasks(tasks);
+    }
+}
@@ -0,0 +1,81 @@
+package org.example.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.config.WireFormatConfig;
+import org.example.dto.TaskResponse;
+import org.example.model.Task;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Кодирование и разбор списка задач в JSON, CBOR и Smile; размер полезной нагрузки
+ * каждого формата печатается при подготовке
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskWireFormatBenchmark {
+
+    private static final TypeReference<List<TaskResponse>> RESPONSES = new TypeReference<>() {
+    };
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    @Param({"100", "1000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private ObjectMapper mapper;
+    private List<TaskResponse> responses;
+    private byte[] payload;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = new SpringApplicationBuilder(JacksonAutoConfiguration.class)
+                .web(WebApplicationType.NONE)
+                .run();
+        ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+        mapper = switch (format) {
+            case "cbor" -> WireFormatConfig.cbor(objectMapper);
+            case "smile" -> WireFormatConfig.smile(objectMapper);
+            default -> objectMapper;
+        };
+        LocalDateTime now = LocalDateTime.now();
+        responses = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            Task task = BenchmarkContext.task(i, now);
+            task.setId((long) i + 1);
+            responses.add(TaskResponse.from(task));
+        }
+        payload = mapper.writeValueAsBytes(responses);
+        System.out.printf("%n%s, %d rows: %d bytes%n", format, rows, payload.length);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] encode() throws Exception {
+        return mapper.writeValueAsBytes(responses);
+    }
+
+    @Benchmark
+    public List<TaskResponse> decode() throws Exception {
+        return mapper.readValue(payload, RESPONSES);
+    }
+}
@@ -0,0 +1,60 @@
+package org.example.benchmark;
+
+import org.example.model.Task;
+import org.example.service.TaskWriteBehindQueue;
+import org.example.service.interfaces.TaskService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Создание задач параллельными клиентами: синхронная вставка с фиксацией на каждый запрос
+ * против очереди отложенной записи с групповой фиксацией. Режим SampleTime даёт и задержку
+ * (перцентили), и пропускную способность (число операций). На H2 в памяти fsync нет,
+ * поэтому выигрыш группировки честно виден только с profile=bench-pg
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(32)
+@Fork(1)
+public class TaskWriteBehindBenchmark {
+
+    /**
+     * Дополнительный профиль базы: пусто для H2, bench-pg для PostgreSQL
+     */
+    @Param({""})
+    public String profile;
+
+    private ConfigurableApplicationContext context;
+    private TaskService taskService;
+    private TaskWriteBehindQueue queue;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = profile.isEmpty()
+                ? BenchmarkContext.start("write-behind")
+                : BenchmarkContext.start("write-behind", profile);
+        taskService = context.getBean(TaskService.class);
+        queue = context.getBean(TaskWriteBehindQueue.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Task createdTask() {
+        return taskService.createdTask(BenchmarkContext.task(1, LocalDateTime.now()));
+    }
+
+    @Benchmark
+    public Task writeBehind() {
+        return queue.submit(BenchmarkContext.task(1, LocalDateTime.now())).join();
+    }
+}
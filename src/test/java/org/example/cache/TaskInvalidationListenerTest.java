@@ -0,0 +1,204 @@
+package org.example.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.config.CacheConfig;
+import org.example.datasource.ReplicaRoutingDataSource;
+import org.example.dto.TaskChange;
+import org.example.event.TaskChangedEvent;
+import org.example.event.TaskChangedEvent.Type;
+import org.example.reminder.DueReminderEngine;
+import org.example.service.DueDateIndex;
+import org.example.service.TaskChangeFeed;
+import org.example.service.TaskChangeTracker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+/**
+ * Проверяют разбор сообщений шины инвалидации, пачечное применение и обнаружение пропусков
+ */
+class TaskInvalidationListenerTest {
+
+    private Cache tasksCache;
+    private Cache statsCache;
+    private TaskChangeTracker changeTracker;
+    private TaskChangeFeed changeFeed;
+    private SimpleMeterRegistry meterRegistry;
+    private ObjectProvider<DueDateIndex> dueDateIndex;
+    private ObjectProvider<DueReminderEngine> reminderEngine;
+    private TaskInvalidationListener listener;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        tasksCache = mock(Cache.class);
+        statsCache = mock(Cache.class);
+        CacheManager cacheManager = mock(CacheManager.class);
+        when(cacheManager.getCache(CacheConfig.TASKS_CACHE)).thenReturn(tasksCache);
+        when(cacheManager.getCache(CacheConfig.STATS_CACHE)).thenReturn(statsCache);
+        TaskInvalidationPublisher publisher = mock(TaskInvalidationPublisher.class);
+        when(publisher.node()).thenReturn("self");
+        changeTracker = new TaskChangeTracker();
+        changeFeed = new TaskChangeFeed(100);
+        meterRegistry = new SimpleMeterRegistry();
+        dueDateIndex = mock(ObjectProvider.class);
+        reminderEngine = mock(ObjectProvider.class);
+        listener = new TaskInvalidationListener(new DataSourceProperties(), publisher, cacheManager, changeTracker,
+                changeFeed, dueDateIndex, reminderEngine, meterRegistry, Duration.ofMillis(50), Duration.ofSeconds(2), 3,
+                Duration.ofSeconds(1));
+    }
+
+    /**
+     * Сообщение должно переживать кодирование; слишком длинный список превращается в полный сброс
+     */
+    @Test
+    void message_roundTripsAndDegradesToFlush() {
+        InvalidationMessage message = new InvalidationMessage("a1", 7, 1000, Type.UPDATED, List.of(1L, 2L));
+
+        assertThat(InvalidationMessage.parse(message.encode())).isEqualTo(message);
+        List<Long> many = LongStream.range(0, 2000).boxed().toList();
+        assertThat(InvalidationMessage.parse(
+                new InvalidationMessage("a1", 8, 1000, Type.DELETED, many).encode()).isFlush()).isTrue();
+        assertThatThrownBy(() -> InvalidationMessage.parse("garbage"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Сообщения в пределах окна должны применяться одной пачкой, свои сообщения — пропускаться
+     */
+    @Test
+    void apply_evictsCoalescedIds() {
+        String etag = changeTracker.etag();
+        listener.handle(new InvalidationMessage("other", 1, 0, Type.UPDATED, List.of(1L)), 0);
+        listener.handle(new InvalidationMessage("other", 2, 0, Type.DELETED, List.of(2L)), 0);
+        listener.handle(new InvalidationMessage("self", 1, 0, Type.UPDATED, List.of(3L)), 0);
+
+        listener.apply(10);
+
+        verify(tasksCache).evict(1L);
+        verify(tasksCache).evict(2L);
+        verify(tasksCache, never()).evict(3L);
+        verify(tasksCache, never()).clear();
+        assertThat(changeTracker.etag()).isNotEqualTo(etag);
+        assertThat(meterRegistry.get("tasks.cache.invalidation.lag").timer().count()).isEqualTo(2);
+    }
+
+    /**
+     * Пропуск, не закрытый за gap-grace, должен приводить к полному сбросу,
+     * а пришедшее с опозданием сообщение — закрывать пропуск
+     */
+    @Test
+    void checkGaps_flushesOnlyUnfilledGaps() {
+        listener.handle(new InvalidationMessage("other", 1, 0, Type.UPDATED, List.of(1L)), 0);
+        listener.handle(new InvalidationMessage("other", 3, 0, Type.UPDATED, List.of(3L)), 0);
+        listener.handle(new InvalidationMessage("other", 2, 0, Type.UPDATED, List.of(2L)), 100);
+        listener.checkGaps(5000);
+        listener.apply(5000);
+        verify(tasksCache, never()).clear();
+
+        listener.handle(new InvalidationMessage("other", 5, 0, Type.UPDATED, List.of(5L)), 6000);
+        listener.checkGaps(7000);
+        listener.apply(7000);
+        verify(tasksCache, never()).clear();
+        listener.checkGaps(8000);
+        listener.apply(8000);
+        verify(tasksCache).clear();
+        verify(statsCache, atLeastOnce()).clear();
+    }
+
+    /**
+     * Шторм изменений больше max-pending-ids должен заменяться одним полным сбросом
+     */
+    @Test
+    void apply_flushesOnStorm() {
+        listener.handle(new InvalidationMessage("other", 1, 0, Type.UPDATED, List.of(1L, 2L, 3L, 4L)), 0);
+
+        listener.apply(1);
+
+        verify(tasksCache).clear();
+        verify(tasksCache, never()).evict(any());
+        assertThat(meterRegistry.get("tasks.cache.invalidation.flushes").tag("reason", "storm").counter().count())
+                .isEqualTo(1);
+    }
+
+    /**
+     * Полный сброс должен перечитывать индекс дедлайнов целиком: изменения из потерянных
+     * уведомлений иначе не попали бы в него до перезапуска
+     */
+    @Test
+    void apply_reloadsDueDateIndexOnFlush() {
+        DueDateIndex index = mock(DueDateIndex.class);
+        when(index.isReady()).thenReturn(true);
+        doAnswer(invocation -> {
+            invocation.<Consumer<DueDateIndex>>getArgument(0).accept(index);
+            return null;
+        }).when(dueDateIndex).ifAvailable(any());
+        listener.handle(new InvalidationMessage("other", 1, 0, Type.UPDATED, List.of(1L)), 0);
+        listener.handle(new InvalidationMessage("other", 4, 0, Type.UPDATED, List.of(4L)), 0);
+
+        listener.checkGaps(5000);
+        listener.apply(5000);
+
+        verify(index).warmUp();
+        assertThat(ReplicaRoutingDataSource.isPinnedToPrimary()).isFalse();
+        verify(index, never()).onTaskChanged(any());
+    }
+
+    /**
+     * Изменения с других узлов должны доходить до таймеров напоминаний, а полный сброс — перечитывать их;
+     * и то и другое читает основную БД, а не реплику, которая может ещё не видеть изменения
+     */
+    @Test
+    void apply_forwardsRemoteChangesToReminderEngine() {
+        DueReminderEngine engine = mock(DueReminderEngine.class);
+        List<Boolean> pinned = new ArrayList<>();
+        doAnswer(invocation -> {
+            pinned.add(ReplicaRoutingDataSource.isPinnedToPrimary());
+            return null;
+        }).when(engine).onTaskChanged(any());
+        doAnswer(invocation -> {
+            pinned.add(ReplicaRoutingDataSource.isPinnedToPrimary());
+            return null;
+        }).when(engine).reload();
+        doAnswer(invocation -> {
+            invocation.<Consumer<DueReminderEngine>>getArgument(0).accept(engine);
+            return null;
+        }).when(reminderEngine).ifAvailable(any());
+        listener.handle(new InvalidationMessage("other", 1, 0, Type.UPDATED, List.of(1L)), 0);
+
+        listener.apply(10);
+        verify(engine).onTaskChanged(new TaskChangedEvent(Type.UPDATED, List.of(1L)));
+
+        listener.handle(new InvalidationMessage("other", 2, 0, Type.UPDATED, List.of(1L, 2L, 3L, 4L)), 20);
+        listener.apply(30);
+        verify(engine).reload();
+        assertThat(pinned).containsExactly(true, true);
+        assertThat(ReplicaRoutingDataSource.isPinnedToPrimary()).isFalse();
+    }
+
+    /**
+     * Изменения с других узлов должны попадать в ленту SSE этого узла, иначе её подписчики их не увидят
+     */
+    @Test
+    void apply_publishesRemoteChangesToFeed() {
+        listener.handle(new InvalidationMessage("other", 1, 0, Type.CREATED, List.of(5L)), 0);
+        listener.handle(new InvalidationMessage("other", 2, 0, Type.DELETED, List.of(6L)), 0);
+
+        listener.apply(10);
+
+        assertThat(changeFeed.readAfter(0, 10)).extracting(TaskChange::taskId).containsExactlyInAnyOrder(5L, 6L);
+    }
+}
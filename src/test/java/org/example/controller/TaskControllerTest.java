@@ -1,7 +1,24 @@
 package org.example.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.config.WireFormatConfig;
+import org.example.datasource.ReplicaRoutingDataSource;
+import org.example.dto.BatchItemResult;
+import org.example.dto.CursorPage;
+import org.example.dto.TaskFilter;
+import org.example.dto.TaskPatch;
+import org.example.dto.TaskResponse;
+import org.example.dto.TaskSearchHit;
+import org.example.dto.TaskStats;
+import org.example.dto.TaskStatusCounts;
+import org.example.dto.TaskSummary;
+import org.example.event.TaskChangedEvent;
+import org.example.exception.TaskVersionConflictException;
 import org.example.model.Task;
+import org.example.service.TaskChangeTracker;
+import org.example.service.interfaces.TaskBatchService;
 import org.example.service.interfaces.TaskService;
+import org.example.web.TaskChangeBroadcaster;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -9,13 +26,24 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -25,6 +53,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  */
  @WebMvcTest(TaskController.class)
 @AutoConfigureMockMvc(addFilters = false)
+@Import(TaskChangeTracker.class)
 class TaskControllerTest {
 
     /**
@@ -39,6 +68,30 @@ class TaskControllerTest {
     @MockBean
     private TaskService taskService;
 
+    /**
+     * Мок сервиса пакетных операций
+     */
+    @MockBean
+    private TaskBatchService taskBatchService;
+
+    /**
+     * Мок рассыльщика ленты изменений
+     */
+    @MockBean
+    private TaskChangeBroadcaster changeBroadcaster;
+
+    /**
+     * Счётчик изменений, из которого контроллер строит ETag списков
+     */
+    @Autowired
+    private TaskChangeTracker changeTracker;
+
+    /**
+     * ObjectMapper приложения, на настройках которого строятся CBOR и Smile
+     */
+    @Autowired
+    private ObjectMapper objectMapper;
+
     /**
      * Тестовая задача для использования во всех тестах
      */
@@ -55,22 +108,110 @@ class TaskControllerTest {
     }
 
     /**
-     * Тест проверяет возврат списка всех задач со статусом 200
+     * Тест проверяет возврат первой страницы задач со статусом 200
      */
     @Test
     @DisplayName("GET /api/tasks")
     void getAllTasks_returnsOk() throws Exception {
-        List<Task> tasks = List.of(sampleTask);
-        when(taskService.getAllTasks()).thenReturn(tasks);
+        when(taskService.getTasksPage(null, 100)).thenReturn(new CursorPage<>(List.of(sampleTask), null));
 
         mockMvc.perform(get("/api/tasks"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$").isArray())
                 .andExpect(jsonPath("$.length()").value(1))
                 .andExpect(jsonPath("$[0].id").value(1))
-                .andExpect(jsonPath("$[0].title").value("Test Task"));
+                .andExpect(jsonPath("$[0].title").value("Test Task"))
+                .andExpect(header().doesNotExist(TaskController.NEXT_CURSOR_HEADER));
+
+        verify(taskService).getTasksPage(null, 100);
+    }
+
+    /**
+     * Тест проверяет ответ 304 без обращения к сервису, пока задачи не менялись
+     */
+    @Test
+    @DisplayName("GET /api/tasks If-None-Match")
+    void getAllTasks_unchanged_returnsNotModified() throws Exception {
+        String etag = changeTracker.etag();
+
+        mockMvc.perform(get("/api/tasks").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+
+        verifyNoInteractions(taskService);
+    }
+
+    /**
+     * Тест проверяет полный ответ с новым ETag после изменения задач
+     */
+    @Test
+    @DisplayName("GET /api/tasks If-None-Match")
+    void getAllTasks_changed_returnsOkWithNewETag() throws Exception {
+        String etag = changeTracker.etag();
+        changeTracker.onTaskChanged(TaskChangedEvent.of(TaskChangedEvent.Type.UPDATED, 1L));
+        when(taskService.getTasksPage(null, 100)).thenReturn(new CursorPage<>(List.of(sampleTask), null));
+
+        mockMvc.perform(get("/api/tasks").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, changeTracker.etag()));
+    }
+
+    /**
+     * Тест проверяет передачу курсора следующей страницы в заголовке
+     */
+    @Test
+    @DisplayName("GET /api/tasks?cursor=")
+    void getAllTasks_withCursor_returnsNextCursorHeader() throws Exception {
+        when(taskService.getTasksPage("abc", 1)).thenReturn(new CursorPage<>(List.of(sampleTask), "def"));
+
+        mockMvc.perform(get("/api/tasks")
+                        .param("cursor", "abc")
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(TaskController.NEXT_CURSOR_HEADER, "def"));
+    }
+
+    /**
+     * Тест проверяет краткое представление списка по параметру fields
+     */
+    @Test
+    @DisplayName("GET /api/tasks?fields=")
+    void getAllTasks_summaryFields_returnsSummaries() throws Exception {
+        when(taskService.getTaskSummariesPage(null, 100)).thenReturn(
+                new CursorPage<>(List.of(new TaskSummary(1L, "Test Task", false, null)), null));
+
+        mockMvc.perform(get("/api/tasks")
+                        .param("fields", "id,title,completed"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].title").value("Test Task"))
+                .andExpect(jsonPath("$[0].description").doesNotExist());
+
+        verify(taskService, never()).getTasksPage(any(), anyInt());
+    }
+
+    /**
+     * Тест проверяет возврат 400 при неизвестном поле в fields
+     */
+    @Test
+    @DisplayName("GET /api/tasks?fields=")
+    void getAllTasks_unknownField_returnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/tasks")
+                        .param("fields", "id,secret"))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Тест проверяет возврат 400 при невалидном курсоре или размере страницы
+     */
+    @Test
+    @DisplayName("GET /api/tasks?limit=")
+    void getAllTasks_invalidLimit_returnsBadRequest() throws Exception {
+        when(taskService.getTasksPage(null, 100000))
+                .thenThrow(new IllegalArgumentException("Invalid limit"));
 
-        verify(taskService).getAllTasks();
+        mockMvc.perform(get("/api/tasks")
+                        .param("limit", "100000"))
+                .andExpect(status().isBadRequest());
     }
 
     /**
@@ -111,9 +252,13 @@ class TaskControllerTest {
     void createTask_returnsCreatedTask() throws Exception {
         when(taskService.createdTask(any(Task.class))).thenReturn(sampleTask);
 
-        mockMvc.perform(post("/api/tasks")
+        MvcResult result = mockMvc.perform(post("/api/tasks")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content("{\"title\":\"New Task\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id").value(1))
                 .andExpect(jsonPath("$.title").value("Test Task"));
@@ -121,13 +266,47 @@ class TaskControllerTest {
         verify(taskService).createdTask(any(Task.class));
     }
 
+    /**
+     * Тест POST /api/tasks/batch - проверяет возврат результата по каждому элементу
+     */
+    @Test
+    @DisplayName("POST /api/tasks/batch")
+    void createTasks_returnsPerItemResults() throws Exception {
+        when(taskBatchService.createTasks(anyList())).thenReturn(List.of(
+                BatchItemResult.of(0, 10L, BatchItemResult.Status.CREATED),
+                BatchItemResult.of(1, 11L, BatchItemResult.Status.CREATED)));
+
+        mockMvc.perform(post("/api/tasks/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"title\":\"A\"},{\"title\":\"B\"}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].id").value(11))
+                .andExpect(jsonPath("$[1].status").value("CREATED"));
+    }
+
+    /**
+     * Тест DELETE /api/tasks/batch - проверяет возврат 400 при слишком большом пакете
+     */
+    @Test
+    @DisplayName("DELETE /api/tasks/batch")
+    void deleteTasks_tooLarge_returnsBadRequest() throws Exception {
+        when(taskBatchService.deleteTasks(anyList()))
+                .thenThrow(new IllegalArgumentException("Batch too large"));
+
+        mockMvc.perform(delete("/api/tasks/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1,2,3]"))
+                .andExpect(status().isBadRequest());
+    }
+
     /**
      * Тест проверяет успешное обновление задачи со статусом 200
      */
     @Test
     @DisplayName("PUT /api/tasks/{id}")
     void updateTask_success_returnsUpdatedTask() throws Exception {
-        when(taskService.updateTask(eq(1L), any(Task.class))).thenReturn(sampleTask);
+        when(taskService.updateTask(eq(1L), any(Task.class), isNull())).thenReturn(sampleTask);
 
         mockMvc.perform(put("/api/tasks/1")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -135,7 +314,7 @@ class TaskControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.title").value("Test Task"));
 
-        verify(taskService).updateTask(eq(1L), any(Task.class));
+        verify(taskService).updateTask(eq(1L), any(Task.class), isNull());
     }
 
     /**
@@ -144,7 +323,7 @@ class TaskControllerTest {
     @Test
     @DisplayName("PUT /api/tasks/{id}")
     void updateTask_notFound_returnsNotFound() throws Exception {
-        when(taskService.updateTask(eq(1L), any(Task.class)))
+        when(taskService.updateTask(eq(1L), any(Task.class), isNull()))
                 .thenThrow(new RuntimeException("Task not found"));
 
         mockMvc.perform(put("/api/tasks/1")
@@ -153,6 +332,167 @@ class TaskControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    /**
+     * Тест проверяет выдачу результатов поиска с курсором следующей страницы
+     */
+    @Test
+    @DisplayName("GET /api/tasks/search")
+    void searchTasks_returnsHitsWithNextCursor() throws Exception {
+        TaskSearchHit hit = new TaskSearchHit(1L, "Test Task", false, null, 0.6f);
+        when(taskService.searchTasks("test", null, 20)).thenReturn(new CursorPage<>(List.of(hit), "next"));
+
+        mockMvc.perform(get("/api/tasks/search").param("q", "test"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[0].rank").value(0.6))
+                .andExpect(header().string(TaskController.NEXT_CURSOR_HEADER, "next"));
+    }
+
+    /**
+     * Тест проверяет возврат 400 для запроса без слов
+     */
+    @Test
+    @DisplayName("GET /api/tasks/search")
+    void searchTasks_emptyQuery_returnsBadRequest() throws Exception {
+        when(taskService.searchTasks(eq("!!"), any(), anyInt()))
+                .thenThrow(new IllegalArgumentException("Empty search query"));
+
+        mockMvc.perform(get("/api/tasks/search").param("q", "!!"))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Тест проверяет сводку за текущую неделю по умолчанию
+     */
+    @Test
+    @DisplayName("GET /api/tasks/stats")
+    void getTaskStats_defaultsToWeekByDueDate() throws Exception {
+        TaskFilter range = new TaskFilter("week", null, null, null, null, null, TaskFilter.DEFAULT_LIMIT);
+        when(taskService.getTaskStats(range, "day", "dueDate")).thenReturn(new TaskStats("dueDate", "day",
+                null, null, new TaskStatusCounts(3, 1, 1, 1), List.of()));
+
+        mockMvc.perform(get("/api/tasks/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status.total").value(3))
+                .andExpect(jsonPath("$.status.overdue").value(1));
+    }
+
+    /**
+     * Тест проверяет, что сводка по дате создания по умолчанию берёт прошедшие 7 дней, а не будущие
+     */
+    @Test
+    @DisplayName("GET /api/tasks/stats?by=createdAt")
+    void getTaskStats_byCreatedAt_defaultsToLastWeek() throws Exception {
+        TaskFilter range = new TaskFilter("last-week", null, null, null, null, null, TaskFilter.DEFAULT_LIMIT);
+        when(taskService.getTaskStats(range, "day", "createdAt")).thenReturn(new TaskStats("createdAt", "day",
+                null, null, new TaskStatusCounts(4, 2, 2, 0), List.of()));
+
+        mockMvc.perform(get("/api/tasks/stats").param("by", "createdAt"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status.total").value(4));
+
+        verify(taskService).getTaskStats(range, "day", "createdAt");
+    }
+
+    /**
+     * Тест проверяет подписку на ленту изменений с продолжением по Last-Event-ID
+     */
+    @Test
+    @DisplayName("GET /api/tasks/changes")
+    void streamChanges_passesLastEventId() throws Exception {
+        when(changeBroadcaster.subscribe("abc-5")).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/api/tasks/changes")
+                        .header("Last-Event-ID", "abc-5")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+
+        verify(changeBroadcaster).subscribe("abc-5");
+    }
+
+    /**
+     * Тест проверяет возврат ETag с версией задачи
+     */
+    @Test
+    @DisplayName("GET /api/tasks/{id}")
+    void getTaskById_returnsETag() throws Exception {
+        sampleTask.setVersion(3);
+        when(taskService.getTaskById(1L)).thenReturn(Optional.of(sampleTask));
+
+        mockMvc.perform(get("/api/tasks/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""));
+    }
+
+    /**
+     * Тест проверяет возврат 412, если версия в If-Match устарела
+     */
+    @Test
+    @DisplayName("PUT /api/tasks/{id}")
+    void updateTask_staleIfMatch_returnsPreconditionFailed() throws Exception {
+        when(taskService.updateTask(eq(1L), any(Task.class), eq(2L)))
+                .thenThrow(new TaskVersionConflictException(1L, 2L));
+
+        mockMvc.perform(put("/api/tasks/1")
+                        .header(HttpHeaders.IF_MATCH, "\"2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"Updated Task\"}"))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    /**
+     * Тест проверяет, что слабый ETag в If-Match даёт 412 без обращения к сервису
+     */
+    @Test
+    @DisplayName("PUT и PATCH /api/tasks/{id}")
+    void weakIfMatch_returnsPreconditionFailed() throws Exception {
+        mockMvc.perform(put("/api/tasks/1")
+                        .header(HttpHeaders.IF_MATCH, "W/\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"Updated Task\"}"))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(patch("/api/tasks/1")
+                        .header(HttpHeaders.IF_MATCH, "W/\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"completed\":true}"))
+                .andExpect(status().isPreconditionFailed());
+
+        verifyNoInteractions(taskService);
+    }
+
+    /**
+     * Тест PATCH /api/tasks/{id} - проверяет частичное изменение и новую версию в ETag
+     */
+    @Test
+    @DisplayName("PATCH /api/tasks/{id}")
+    void patchTask_success_returnsNoContentWithETag() throws Exception {
+        TaskPatch patch = new TaskPatch(null, null, true, null);
+        when(taskService.patchTask(1L, patch, 4L)).thenReturn(5L);
+
+        mockMvc.perform(patch("/api/tasks/1")
+                        .header(HttpHeaders.IF_MATCH, "\"4\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"completed\":true}"))
+                .andExpect(status().isNoContent())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"5\""));
+    }
+
+    /**
+     * Тест PATCH /api/tasks/{id} - проверяет возврат 412 при конфликте версий
+     */
+    @Test
+    @DisplayName("PATCH /api/tasks/{id}")
+    void patchTask_conflict_returnsPreconditionFailed() throws Exception {
+        when(taskService.patchTask(eq(1L), any(TaskPatch.class), eq(4L)))
+                .thenThrow(new TaskVersionConflictException(1L, 4L));
+
+        mockMvc.perform(patch("/api/tasks/1")
+                        .header(HttpHeaders.IF_MATCH, "\"4\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"completed\":true}"))
+                .andExpect(status().isPreconditionFailed());
+    }
+
     /**
      * Тест проверяет успешное удаление со статусом 204
      */
@@ -186,7 +526,8 @@ class TaskControllerTest {
     @DisplayName("GET /api/tasks/filter")
     void getTasksByPeriodAndStatus_validParams_returnsOk() throws Exception {
         List<Task> tasks = List.of(sampleTask);
-        when(taskService.getTasksByPeriodAndStatus("week", true)).thenReturn(tasks);
+        TaskFilter filter = new TaskFilter("week", null, null, null, true, null, TaskFilter.DEFAULT_LIMIT);
+        when(taskService.getTasksByFilter(filter)).thenReturn(tasks);
 
         mockMvc.perform(get("/api/tasks/filter")
                         .param("period", "week")
@@ -195,7 +536,28 @@ class TaskControllerTest {
                 .andExpect(jsonPath("$").isArray())
                 .andExpect(jsonPath("$.length()").value(1));
 
-        verify(taskService).getTasksByPeriodAndStatus("week", true);
+        verify(taskService).getTasksByFilter(filter);
+    }
+
+    /**
+     * Тест проверяет передачу явного диапазона, зоны, сортировки и лимита в сервис
+     */
+    @Test
+    @DisplayName("GET /api/tasks/filter?from=&to=")
+    void getTasksByPeriodAndStatus_explicitRange_returnsOk() throws Exception {
+        TaskFilter filter = new TaskFilter(null,
+                LocalDateTime.of(2024, 1, 1, 0, 0), LocalDateTime.of(2024, 2, 1, 0, 0),
+                "Europe/Moscow", null, "dueDate,desc", 10);
+        when(taskService.getTasksByFilter(filter)).thenReturn(List.of(sampleTask));
+
+        mockMvc.perform(get("/api/tasks/filter")
+                        .param("from", "2024-01-01T00:00:00")
+                        .param("to", "2024-02-01T00:00:00")
+                        .param("zone", "Europe/Moscow")
+                        .param("sort", "dueDate,desc")
+                        .param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
     }
 
     /**
@@ -204,11 +566,90 @@ class TaskControllerTest {
     @Test
     @DisplayName("GET /api/tasks/filter")
     void getTasksByPeriodAndStatus_invalidPeriod_returnsBadRequest() throws Exception {
-        when(taskService.getTasksByPeriodAndStatus("invalid", null))
+        when(taskService.getTasksByFilter(any(TaskFilter.class)))
                 .thenThrow(new IllegalArgumentException("Invalid period"));
 
         mockMvc.perform(get("/api/tasks/filter")
                         .param("period", "invalid"))
                 .andExpect(status().isBadRequest());
     }
+
+    /**
+     * Тест проверяет, что список и выборка с ETag читаются из основной БД, а не с реплики
+     */
+    @Test
+    @DisplayName("GET /api/tasks, /api/tasks/filter на основной БД")
+    void conditionalReads_arePinnedToPrimary() throws Exception {
+        List<Boolean> pinned = new ArrayList<>();
+        when(taskService.getTasksPage(null, 100)).thenAnswer(invocation -> {
+            pinned.add(ReplicaRoutingDataSource.isPinnedToPrimary());
+            return new CursorPage<>(List.of(sampleTask), null);
+        });
+        when(taskService.getTasksByFilter(any(TaskFilter.class))).thenAnswer(invocation -> {
+            pinned.add(ReplicaRoutingDataSource.isPinnedToPrimary());
+            return List.of(sampleTask);
+        });
+
+        mockMvc.perform(get("/api/tasks")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/tasks/filter").param("period", "week")).andExpect(status().isOk());
+
+        assertThat(pinned).containsExactly(true, true);
+        assertThat(ReplicaRoutingDataSource.isPinnedToPrimary()).isFalse();
+    }
+
+    /**
+     * Тест GET /api/tasks/stream - проверяет, что CBOR и Smile выбираются по Accept
+     * и содержат те же записи, что и JSON-выгрузка
+     */
+    @Test
+    @DisplayName("GET /api/tasks/stream в CBOR и Smile")
+    void streamTasks_binaryFormats_matchJson() throws Exception {
+        Task second = new Task();
+        second.setId(2L);
+        second.setTitle("Second");
+        second.setDueDate(LocalDateTime.of(2024, 5, 1, 12, 30));
+        second.setVersion(4L);
+        doAnswer(invocation -> {
+            Consumer<Task> consumer = invocation.getArgument(0);
+            consumer.accept(sampleTask);
+            consumer.accept(second);
+            return null;
+        }).when(taskService).streamAllTasks(any());
+
+        List<TaskResponse> json = List.of(objectMapper.readValue(
+                stream(MediaType.APPLICATION_JSON), TaskResponse[].class));
+        List<TaskResponse> cbor = List.of(WireFormatConfig.cbor(objectMapper).readValue(
+                stream(MediaType.APPLICATION_CBOR), TaskResponse[].class));
+        List<TaskResponse> smile = List.of(WireFormatConfig.smile(objectMapper).readValue(
+                stream(WireFormatConfig.APPLICATION_SMILE), TaskResponse[].class));
+
+        assertThat(json).containsExactly(TaskResponse.from(sampleTask), TaskResponse.from(second));
+        assertThat(cbor).isEqualTo(json);
+        assertThat(smile).isEqualTo(json);
+    }
+
+    /**
+     * Тест GET /api/tasks/stream - проверяет 406 для формата, которого выгрузка не умеет
+     */
+    @Test
+    @DisplayName("GET /api/tasks/stream в неподдерживаемом формате")
+    void streamTasks_unsupportedFormat_returnsNotAcceptable() throws Exception {
+        mockMvc.perform(get("/api/tasks/stream").accept(MediaType.APPLICATION_XML))
+                .andExpect(status().isNotAcceptable());
+
+        verify(taskService, never()).streamAllTasks(any());
+    }
+
+    /**
+     * Выполняет выгрузку с заданным Accept, проверяет Content-Type и возвращает тело
+     */
+    private byte[] stream(MediaType accept) throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/tasks/stream").accept(accept))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(accept))
+                .andReturn().getResponse().getContentAsByteArray();
+    }
 }
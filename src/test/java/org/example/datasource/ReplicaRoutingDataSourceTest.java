@@ -0,0 +1,105 @@
+package org.example.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Проверяют выбор пула для транзакций и вывод реплик из ротации
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private DataSource primary;
+    private DataSource first;
+    private DataSource second;
+    private SimpleMeterRegistry meterRegistry;
+    private ReplicaRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() {
+        primary = mock(DataSource.class);
+        first = mock(DataSource.class);
+        second = mock(DataSource.class);
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-1", first);
+        replicas.put("replica-2", second);
+        meterRegistry = new SimpleMeterRegistry();
+        routing = new ReplicaRoutingDataSource(primary, replicas, "", Duration.ofSeconds(5), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        ReplicaRoutingDataSource.unpin();
+    }
+
+    /**
+     * Транзакции с записью и запросы вне транзакции должны идти в основную БД
+     */
+    @Test
+    void determineTarget_usesPrimaryForWrites() {
+        assertThat(routing.determineTarget()).isSameAs(primary);
+    }
+
+    /**
+     * Транзакции только на чтение должны распределяться по репликам по кругу
+     */
+    @Test
+    void determineTarget_roundRobinsReadOnly() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(routing.determineTarget()).isSameAs(first);
+        assertThat(routing.determineTarget()).isSameAs(second);
+        assertThat(routing.determineTarget()).isSameAs(first);
+        assertThat(meterRegistry.get("tasks.datasource.routed").tag("pool", "replica-1").counter().count())
+                .isEqualTo(2);
+    }
+
+    /**
+     * Привязанный к основной БД поток должен читать из неё и в транзакции только на чтение
+     */
+    @Test
+    void determineTarget_honoursPin() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        ReplicaRoutingDataSource.pinToPrimary();
+
+        assertThat(routing.determineTarget()).isSameAs(primary);
+    }
+
+    /**
+     * Недоступная реплика должна выводиться из ротации и возвращаться после восстановления;
+     * без исправных реплик чтение идёт в основную БД
+     */
+    @Test
+    void checkHealth_ejectsAndRestoresReplicas() throws SQLException {
+        Connection healthy = mock(Connection.class);
+        when(healthy.isValid(anyInt())).thenReturn(true);
+        when(first.getConnection()).thenThrow(new SQLException("connection refused")).thenReturn(healthy);
+        when(second.getConnection()).thenReturn(healthy);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        routing.checkHealth();
+        assertThat(routing.determineTarget()).isSameAs(second);
+        assertThat(routing.determineTarget()).isSameAs(second);
+
+        when(healthy.isValid(anyInt())).thenReturn(false);
+        routing.checkHealth();
+        assertThat(routing.determineTarget()).isSameAs(primary);
+
+        when(healthy.isValid(anyInt())).thenReturn(true);
+        routing.checkHealth();
+        assertThat(routing.replicas()).allMatch(ReplicaRoutingDataSource.Replica::isHealthy);
+    }
+}
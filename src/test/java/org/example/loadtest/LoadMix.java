@@ -0,0 +1,86 @@
+package org.example.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Доли операций в нагрузке, заданные строкой вида "list:10,get:50,create:10"
+ */
+final class LoadMix {
+
+    /**
+     * Операции, которые умеет выполнять нагрузочный прогон
+     */
+    enum Operation {
+        LIST, GET, FILTER, CREATE, UPDATE, DELETE
+    }
+
+    private final List<Operation> operations = new ArrayList<>();
+    private final int[] cumulative;
+    private final int total;
+
+    private LoadMix(List<Operation> operations, List<Integer> weights) {
+        this.operations.addAll(operations);
+        this.cumulative = new int[weights.size()];
+        int sum = 0;
+        for (int i = 0; i < weights.size(); i++) {
+            sum += weights.get(i);
+            cumulative[i] = sum;
+        }
+        this.total = sum;
+    }
+
+    /**
+     * Разбирает описание смеси; бросает IllegalArgumentException на неизвестной операции или нулевой сумме весов
+     */
+    static LoadMix parse(String spec) {
+        List<Operation> operations = new ArrayList<>();
+        List<Integer> weights = new ArrayList<>();
+        for (String part : spec.split(",")) {
+            String[] pair = part.trim().split(":");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Expected operation:weight, got " + part);
+            }
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight > 0) {
+                operations.add(Operation.valueOf(pair[0].trim().toUpperCase()));
+                weights.add(weight);
+            }
+        }
+        if (operations.isEmpty()) {
+            throw new IllegalArgumentException("Empty load mix: " + spec);
+        }
+        return new LoadMix(operations, weights);
+    }
+
+    /**
+     * Случайная операция в соответствии с весами
+     */
+    Operation next(Random random) {
+        int point = random.nextInt(total);
+        for (int i = 0; i < cumulative.length; i++) {
+            if (point < cumulative[i]) {
+                return operations.get(i);
+            }
+        }
+        return operations.get(operations.size() - 1);
+    }
+
+    List<Operation> operations() {
+        return operations;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder spec = new StringBuilder();
+        for (int i = 0; i < operations.size(); i++) {
+            if (i > 0) {
+                spec.append(',');
+            }
+            spec.append(operations.get(i).name().toLowerCase()).append(':')
+                    .append(cumulative[i] - (i == 0 ? 0 : cumulative[i - 1]));
+        }
+        return spec.toString();
+    }
+}
@@ -0,0 +1,380 @@
+package org.example.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.example.Main;
+import org.example.dto.BatchItemResult;
+import org.example.loadtest.LoadMix.Operation;
+import org.example.model.Task;
+import org.example.service.interfaces.TaskBatchService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Нагрузочный прогон приложения через HTTP с Basic-аутентификацией по открытой модели:
+ * запросы отправляются с заданной интенсивностью независимо от того, успели ли ответить
+ * предыдущие, а задержка отсчитывается от запланированного момента отправки, поэтому
+ * замедление сервера не скрывается уменьшением нагрузки (coordinated omission).
+ *
+ * <p>Приложение поднимается с профилями bench и loadtest (H2 в памяти); с профилем
+ * bench-pg — на локальном PostgreSQL. Перцентили задержки (HdrHistogram) и пропускная
+ * способность по каждой операции пишутся в JSON-отчёт, который можно сравнивать между коммитами:
+ * mvn -Ploadtest -DskipTests verify -Dloadtest.rate=500 -Dloadtest.mix=list:10,get:50,create:40
+ */
+public final class LoadTest {
+
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final double rate;
+    private final boolean poisson;
+    private final Duration duration;
+    private final Duration warmup;
+    private final LoadMix mix;
+    private final int rows;
+    private final long seed;
+    private final int maxInFlight;
+    private final String profiles;
+    private final String label;
+    private final Path report;
+    private final String userAuth;
+    private final String adminAuth;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<Operation, EndpointStats> stats = new EnumMap<>(Operation.class);
+    private final IdPool ids = new IdPool();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private URI baseUri;
+
+    /**
+     * Результаты одной операции
+     */
+    private static final class EndpointStats {
+        private final Histogram latency = new ConcurrentHistogram(MAX_LATENCY_MICROS, 3);
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+        private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Идентификаторы существующих задач для get, update и delete
+     */
+    private static final class IdPool {
+        private final List<Long> ids = new ArrayList<>();
+
+        synchronized void add(long id) {
+            ids.add(id);
+        }
+
+        synchronized Long random(Random random) {
+            return ids.isEmpty() ? null : ids.get(random.nextInt(ids.size()));
+        }
+
+        synchronized Long removeRandom(Random random) {
+            if (ids.isEmpty()) {
+                return null;
+            }
+            int index = random.nextInt(ids.size());
+            Long id = ids.get(index);
+            ids.set(index, ids.get(ids.size() - 1));
+            ids.remove(ids.size() - 1);
+            return id;
+        }
+    }
+
+    private LoadTest() {
+        this.rate = Double.parseDouble(System.getProperty("loadtest.rate", "200"));
+        this.poisson = !"constant".equals(System.getProperty("loadtest.arrival", "poisson"));
+        this.duration = DurationStyle.detectAndParse(System.getProperty("loadtest.duration", "60s"));
+        this.warmup = DurationStyle.detectAndParse(System.getProperty("loadtest.warmup", "15s"));
+        this.mix = LoadMix.parse(System.getProperty("loadtest.mix",
+                "list:10,get:45,filter:15,create:15,update:10,delete:5"));
+        this.rows = Integer.parseInt(System.getProperty("loadtest.rows", "10000"));
+        this.seed = Long.parseLong(System.getProperty("loadtest.seed", "42"));
+        this.maxInFlight = Integer.parseInt(System.getProperty("loadtest.max-in-flight", "2000"));
+        this.profiles = System.getProperty("loadtest.profiles", "");
+        this.label = System.getProperty("loadtest.label", "");
+        this.report = Path.of(System.getProperty("loadtest.report", "target/loadtest-report.json"));
+        this.userAuth = basic(System.getProperty("loadtest.user", "user:user123"));
+        this.adminAuth = basic(System.getProperty("loadtest.admin", "admin:admin123"));
+        mix.operations().forEach(operation -> stats.put(operation, new EndpointStats()));
+    }
+
+    public static void main(String[] args) throws Exception {
+        new LoadTest().run();
+    }
+
+    private void run() throws Exception {
+        List<String> activeProfiles = new ArrayList<>(List.of("bench", "loadtest"));
+        for (String profile : profiles.split(",")) {
+            if (!profile.isBlank()) {
+                activeProfiles.add(profile.trim());
+            }
+        }
+        Instant startedAt = Instant.now();
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(Main.class)
+                .profiles(activeProfiles.toArray(String[]::new))
+                .run();
+             HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build()) {
+            baseUri = URI.create("http://localhost:"
+                    + context.getEnvironment().getRequiredProperty("local.server.port") + "/api/tasks");
+            seed(context);
+            long measuredNanos = drive(client);
+            writeReport(startedAt, activeProfiles, measuredNanos);
+        }
+    }
+
+    private void seed(ConfigurableApplicationContext context) {
+        TaskBatchService batchService = context.getBean(TaskBatchService.class);
+        LocalDateTime now = LocalDateTime.now();
+        List<Task> chunk = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            chunk.add(task("Seeded task " + i, now.plusMinutes(i % (60 * 24 * 60)), i % 3 == 0));
+            if (chunk.size() == 1000 || i == rows - 1) {
+                for (BatchItemResult result : batchService.createTasks(chunk)) {
+                    if (result.id() != null) {
+                        ids.add(result.id());
+                    }
+                }
+                chunk = new ArrayList<>();
+            }
+        }
+    }
+
+    /**
+     * Отправляет запросы по расписанию открытой модели; возвращает длительность измеряемой части
+     */
+    private long drive(HttpClient client) throws InterruptedException {
+        Random random = new Random(seed);
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        long intended = start;
+        while (true) {
+            intended += poisson
+                    ? (long) (-Math.log(1 - random.nextDouble()) * intervalNanos)
+                    : intervalNanos;
+            if (intended >= end) {
+                break;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Operation operation = mix.next(random);
+            boolean measured = intended >= measureFrom;
+            EndpointStats endpoint = stats.get(operation);
+            if (inFlight.get() >= maxInFlight) {
+                if (measured) {
+                    endpoint.dropped.increment();
+                }
+                continue;
+            }
+            HttpRequest request = request(operation, random);
+            if (request == null) {
+                continue;
+            }
+            long scheduled = intended;
+            inFlight.incrementAndGet();
+            client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                    .whenComplete((response, error) -> {
+                        long latencyMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - scheduled);
+                        try {
+                            complete(operation, response, error, measured, latencyMicros);
+                        } finally {
+                            inFlight.decrementAndGet();
+                        }
+                    });
+        }
+        long drainDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(10);
+        }
+        return end - measureFrom;
+    }
+
+    private HttpRequest request(Operation operation, Random random) {
+        return switch (operation) {
+            case LIST -> get("?limit=50");
+            case FILTER -> get("/filter?period=week&limit=100");
+            case GET -> {
+                Long id = ids.random(random);
+                yield id == null ? null : get("/" + id);
+            }
+            case CREATE -> write("POST", "", body(random));
+            case UPDATE -> {
+                Long id = ids.random(random);
+                yield id == null ? null : write("PUT", "/" + id, body(random));
+            }
+            case DELETE -> {
+                Long id = ids.removeRandom(random);
+                yield id == null ? null : HttpRequest.newBuilder(URI.create(baseUri + "/" + id))
+                        .header("Authorization", adminAuth)
+                        .DELETE()
+                        .build();
+            }
+        };
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUri + path))
+                .header("Authorization", userAuth)
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+    }
+
+    private HttpRequest write(String method, String path, String body) {
+        return HttpRequest.newBuilder(URI.create(baseUri + path))
+                .header("Authorization", adminAuth)
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private String body(Random random) {
+        Task task = task("Load task " + random.nextInt(1_000_000),
+                LocalDateTime.now().plusHours(random.nextInt(24 * 30)), random.nextInt(3) == 0);
+        ObjectNode node = objectMapper.createObjectNode()
+                .put("title", task.getTitle())
+                .put("description", task.getDescription())
+                .put("completed", task.isCompleted())
+                .put("dueDate", task.getDueDate().withNano(0).toString());
+        return node.toString();
+    }
+
+    private void complete(Operation operation, HttpResponse<String> response, Throwable error,
+                          boolean measured, long latencyMicros) {
+        if (operation == Operation.CREATE && response != null && response.statusCode() == 200) {
+            try {
+                ids.add(objectMapper.readTree(response.body()).path("id").asLong());
+            } catch (IOException ignored) {
+                // Идентификатор не попадёт в пул, на нагрузку это не влияет
+            }
+        }
+        if (!measured) {
+            return;
+        }
+        EndpointStats endpoint = stats.get(operation);
+        endpoint.latency.recordValue(Math.min(latencyMicros, MAX_LATENCY_MICROS));
+        int status = response == null ? 0 : response.statusCode();
+        endpoint.statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+        if (error != null || status >= 400) {
+            endpoint.errors.increment();
+        }
+    }
+
+    private void writeReport(Instant startedAt, List<String> activeProfiles, long measuredNanos) throws IOException {
+        double seconds = measuredNanos / 1e9;
+        ObjectNode root = objectMapper.createObjectNode();
+        root.put("label", label);
+        root.put("startedAt", startedAt.toString());
+        ObjectNode config = root.putObject("config");
+        config.put("rate", rate);
+        config.put("arrival", poisson ? "poisson" : "constant");
+        config.put("durationSeconds", duration.toSeconds());
+        config.put("warmupSeconds", warmup.toSeconds());
+        config.put("mix", mix.toString());
+        config.put("rows", rows);
+        config.put("seed", seed);
+        config.put("maxInFlight", maxInFlight);
+        config.put("profiles", String.join(",", activeProfiles));
+
+        Histogram total = new Histogram(MAX_LATENCY_MICROS, 3);
+        long totalErrors = 0;
+        long totalDropped = 0;
+        ObjectNode endpoints = root.putObject("endpoints");
+        StringBuilder summary = new StringBuilder(String.format("%n%-8s %10s %10s %8s %8s %8s %8s %8s%n",
+                "endpoint", "requests", "req/s", "errors", "p50 ms", "p99 ms", "p99.9 ms", "max ms"));
+        for (Map.Entry<Operation, EndpointStats> entry : stats.entrySet()) {
+            EndpointStats endpoint = entry.getValue();
+            Histogram latency = endpoint.latency.copy();
+            total.add(latency);
+            totalErrors += endpoint.errors.sum();
+            totalDropped += endpoint.dropped.sum();
+            String name = entry.getKey().name().toLowerCase();
+            ObjectNode node = endpoints.putObject(name);
+            describe(node, latency, endpoint.errors.sum(), endpoint.dropped.sum(), seconds);
+            ObjectNode statuses = node.putObject("statuses");
+            new TreeMap<>(endpoint.statuses).forEach((status, count) ->
+                    statuses.put(Integer.toString(status), count.sum()));
+            summary.append(line(name, latency, endpoint.errors.sum(), seconds));
+        }
+        describe(root.putObject("total"), total, totalErrors, totalDropped, seconds);
+        summary.append(line("total", total, totalErrors, seconds));
+
+        Path parent = report.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(report.toFile(), root);
+        System.out.print(summary);
+        System.out.println("Report written to " + report.toAbsolutePath());
+    }
+
+    private static void describe(ObjectNode node, Histogram latency, long errors, long dropped, double seconds) {
+        node.put("requests", latency.getTotalCount());
+        node.put("errors", errors);
+        node.put("dropped", dropped);
+        node.put("throughput", round(latency.getTotalCount() / seconds));
+        ObjectNode millis = node.putObject("latencyMs");
+        millis.put("mean", round(latency.getMean() / 1000));
+        for (double percentile : PERCENTILES) {
+            millis.put("p" + (percentile % 1 == 0 ? Long.toString((long) percentile) : Double.toString(percentile)),
+                    round(latency.getValueAtPercentile(percentile) / 1000.0));
+        }
+        millis.put("max", round(latency.getMaxValue() / 1000.0));
+    }
+
+    private static String line(String name, Histogram latency, long errors, double seconds) {
+        return String.format("%-8s %10d %10.1f %8d %8.2f %8.2f %8.2f %8.2f%n", name, latency.getTotalCount(),
+                latency.getTotalCount() / seconds, errors,
+                latency.getValueAtPercentile(50) / 1000.0, latency.getValueAtPercentile(99) / 1000.0,
+                latency.getValueAtPercentile(99.9) / 1000.0, latency.getMaxValue() / 1000.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+
+    private static Task task(String title, LocalDateTime dueDate, boolean completed) {
+        Task task = new Task();
+        task.setTitle(title);
+        task.setDescription("Load test task generated to resemble the size of real descriptions");
+        task.setCompleted(completed);
+        task.setDueDate(dueDate);
+        return task;
+    }
+
+    private static String basic(String credentials) {
+        return "Basic " + Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,37 @@
+package org.example.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Проверяют метрику времени до первого ответа
+ */
+class FirstRequestFilterTest {
+
+    /**
+     * Метрика должна регистрироваться один раз, по первому запросу, и не меняться на следующих
+     */
+    @Test
+    void doFilter_recordsOnlyFirstRequest() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        FirstRequestFilter filter = new FirstRequestFilter(meterRegistry);
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/tasks"), new MockHttpServletResponse(),
+                new MockFilterChain());
+        double first = meterRegistry.get("tasks.startup.first-request").timeGauge().value(TimeUnit.MILLISECONDS);
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/tasks"), new MockHttpServletResponse(),
+                new MockFilterChain());
+
+        assertThat(first).isPositive();
+        assertThat(meterRegistry.get("tasks.startup.first-request").timeGauges()).hasSize(1);
+        assertThat(meterRegistry.get("tasks.startup.first-request").timeGauge().value(TimeUnit.MILLISECONDS))
+                .isEqualTo(first);
+    }
+}
@@ -0,0 +1,54 @@
+package org.example.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Проверяют подсчёт SQL-запросов на HTTP-запрос
+ */
+class QueryCountFilterTest {
+
+    private final QueryCountInspector inspector = new QueryCountInspector();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final QueryCountFilter filter = new QueryCountFilter(inspector, meterRegistry);
+
+    /**
+     * Запросы, подготовленные во время обработки, должны попадать в метрику с шаблоном маршрута
+     */
+    @Test
+    void doFilter_recordsQueriesPerRoute() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/tasks/7");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/tasks/{id}");
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            inspector.inspect("select * from tasks where id = ?");
+            inspector.inspect("select * from task_tags where task_id = ?");
+            inspector.inspect("select * from task_tags where task_id = ?");
+        });
+
+        DistributionSummary summary = meterRegistry.get("tasks.db.queries.per.request")
+                .tag("method", "GET").tag("uri", "/api/tasks/{id}").summary();
+        assertThat(summary.count()).isEqualTo(1);
+        assertThat(summary.totalAmount()).isEqualTo(3);
+    }
+
+    /**
+     * Вне HTTP-запроса (фоновые задачи) запросы не считаются и не копятся в потоке
+     */
+    @Test
+    void inspector_countsOnlyBetweenStartAndStop() {
+        inspector.inspect("select 1");
+        inspector.start();
+        inspector.inspect("select 1");
+
+        assertThat(inspector.stop()).isEqualTo(1);
+        inspector.inspect("select 1");
+        assertThat(inspector.stop()).isZero();
+    }
+}
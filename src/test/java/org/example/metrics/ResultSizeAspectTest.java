@@ -0,0 +1,46 @@
+package org.example.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.dto.CursorPage;
+import org.example.model.Task;
+import org.example.service.interfaces.TaskService;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Проверяют запись размера результата методов сервиса задач
+ */
+class ResultSizeAspectTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    /**
+     * Списки и страницы должны записываться по имени метода, прочие результаты — пропускаться
+     */
+    @Test
+    void recordSize_recordsCollectionsAndPages() {
+        TaskService target = mock(TaskService.class);
+        when(target.getAllTasks()).thenReturn(List.of(new Task(), new Task(), new Task()));
+        when(target.getTasksPage(null, 2)).thenReturn(new CursorPage<>(List.of(new Task(), new Task()), "next"));
+        when(target.getTaskById(1L)).thenReturn(Optional.of(new Task()));
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.addAspect(new ResultSizeAspect(meterRegistry));
+        TaskService service = factory.getProxy();
+
+        service.getAllTasks();
+        service.getTasksPage(null, 2);
+        service.getTaskById(1L);
+
+        assertThat(meterRegistry.get("tasks.result.size").tag("method", "getAllTasks").summary().totalAmount())
+                .isEqualTo(3);
+        assertThat(meterRegistry.get("tasks.result.size").tag("method", "getTasksPage").summary().totalAmount())
+                .isEqualTo(2);
+        assertThat(meterRegistry.find("tasks.result.size").tag("method", "getTaskById").summary()).isNull();
+    }
+}
@@ -0,0 +1,217 @@
+package org.example.reminder;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.datasource.ReplicaRoutingDataSource;
+import org.example.dto.TaskDueDate;
+import org.example.event.TaskChangedEvent;
+import org.example.event.TaskChangedEvent.Type;
+import org.example.repository.TaskRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+/**
+ * Проверяют восстановление таймеров после старта и их поддержку событиями об изменениях
+ */
+class DueReminderEngineTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+    private final MutableClock clock = new MutableClock(NOW.toInstant(ZoneOffset.UTC));
+    private final List<TaskDueEvent> fired = new CopyOnWriteArrayList<>();
+    private final Map<Long, TaskDueDate> database = new ConcurrentHashMap<>();
+    // Строки, которые основная БД уже видит, а реплика ещё нет
+    private final Set<Long> notReplicated = ConcurrentHashMap.newKeySet();
+    private TaskRepository taskRepository;
+    private DueReminderEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        taskRepository = mock(TaskRepository.class);
+        engine = new DueReminderEngine(taskRepository, List.of(fired::add, event -> {
+            throw new IllegalStateException("sink down");
+        }), new SimpleMeterRegistry(), Duration.ofSeconds(1), Duration.ofMinutes(5), Duration.ofSeconds(5), clock);
+        store(new TaskDueDate(1L, NOW.minusMinutes(2), false, 0));
+        store(new TaskDueDate(2L, NOW.plusSeconds(30), false, 0));
+        when(taskRepository.findDueDates(anyCollection())).thenAnswer(invocation ->
+                invocation.<Collection<Long>>getArgument(0).stream()
+                        .filter(id -> ReplicaRoutingDataSource.isPinnedToPrimary() || !notReplicated.contains(id))
+                        .map(database::get)
+                        .filter(Objects::nonNull)
+                        .toList());
+        when(taskRepository.streamOpenDueFrom(NOW.minusMinutes(5)))
+                .thenAnswer(invocation -> database.values().stream());
+        engine.recover();
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.destroy();
+    }
+
+    /**
+     * Срок, прошедший за время простоя, должен сработать сразу как OVERDUE, будущий — вовремя как DUE,
+     * несмотря на сбой другого получателя
+     */
+    @Test
+    void recover_firesMissedAsOverdueAndFutureOnTime() {
+        assertThat(engine.pending()).isEqualTo(2);
+
+        clock.advance(Duration.ofSeconds(1));
+        engine.tick();
+        assertThat(fired).extracting(TaskDueEvent::taskId, TaskDueEvent::kind)
+                .containsExactly(tuple(1L, TaskDueEvent.Kind.OVERDUE));
+
+        clock.advance(Duration.ofSeconds(28));
+        engine.tick();
+        assertThat(fired).hasSize(1);
+
+        clock.advance(Duration.ofSeconds(1));
+        engine.tick();
+        assertThat(fired).extracting(TaskDueEvent::taskId, TaskDueEvent::kind)
+                .containsExactly(tuple(1L, TaskDueEvent.Kind.OVERDUE), tuple(2L, TaskDueEvent.Kind.DUE));
+        assertThat(engine.pending()).isZero();
+    }
+
+    /**
+     * Выполненная или удалённая задача не должна напоминать, перенесённая — напоминать по новому сроку
+     */
+    @Test
+    void onTaskChanged_cancelsAndReschedules() {
+        store(new TaskDueDate(2L, NOW.plusSeconds(30), true, 1));
+        engine.onTaskChanged(TaskChangedEvent.of(Type.UPDATED, 2L));
+        store(new TaskDueDate(3L, NOW.plusSeconds(10), false, 0));
+        engine.onTaskChanged(TaskChangedEvent.of(Type.CREATED, 3L));
+        database.remove(1L);
+        engine.onTaskChanged(TaskChangedEvent.of(Type.DELETED, 1L));
+
+        clock.advance(Duration.ofMinutes(1));
+        engine.tick();
+
+        assertThat(fired).extracting(TaskDueEvent::taskId).containsExactly(3L);
+    }
+
+    /**
+     * Изменение задачи с уже прошедшим сроком не должно повторно напоминать о нём
+     */
+    @Test
+    void onTaskChanged_doesNotRefirePastDueOnUpdate() {
+        store(new TaskDueDate(1L, NOW.minusMinutes(2), false, 1));
+        engine.onTaskChanged(TaskChangedEvent.of(Type.UPDATED, 1L));
+
+        clock.advance(Duration.ofSeconds(1));
+        engine.tick();
+
+        assertThat(fired).isEmpty();
+    }
+
+    /**
+     * Только что созданная задача, которой ещё нет на реплике, не должна терять напоминание:
+     * и постановка таймера, и сверка при срабатывании читают основную БД
+     */
+    @Test
+    void tick_recheckSeesRowsNotYetReplicated() {
+        store(new TaskDueDate(3L, NOW.plusSeconds(10), false, 0));
+        notReplicated.add(3L);
+        engine.onTaskChanged(TaskChangedEvent.of(Type.CREATED, 3L));
+
+        clock.advance(Duration.ofSeconds(10));
+        engine.tick();
+
+        assertThat(fired).extracting(TaskDueEvent::taskId).contains(3L);
+        assertThat(ReplicaRoutingDataSource.isPinnedToPrimary()).isFalse();
+    }
+
+    /**
+     * Изменение, о котором узел не узнал, не должно приводить к напоминанию по старому сроку:
+     * выполненная задача молчит, перенесённая напоминает по новому сроку
+     */
+    @Test
+    void tick_rechecksFiredTimersAgainstDatabase() {
+        store(new TaskDueDate(1L, NOW.minusMinutes(2), true, 1));
+        store(new TaskDueDate(2L, NOW.plusSeconds(45), false, 1));
+
+        clock.advance(Duration.ofSeconds(30));
+        engine.tick();
+        assertThat(fired).isEmpty();
+        assertThat(engine.pending()).isEqualTo(1);
+
+        clock.advance(Duration.ofSeconds(15));
+        engine.tick();
+        assertThat(fired).extracting(TaskDueEvent::taskId, TaskDueEvent::dueAt)
+                .containsExactly(tuple(2L, NOW.plusSeconds(45).toInstant(ZoneOffset.UTC)));
+    }
+
+    /**
+     * Перечитывание после потери уведомлений должно ставить новые сроки, не повторяя прошедшие
+     */
+    @Test
+    void reload_schedulesMissedFutureTasksOnly() {
+        clock.advance(Duration.ofSeconds(1));
+        engine.tick();
+        fired.clear();
+        store(new TaskDueDate(3L, NOW.plusSeconds(20), false, 0));
+        when(taskRepository.streamOpenDueFrom(NOW.plusSeconds(1)))
+                .thenAnswer(invocation -> database.values().stream());
+
+        engine.reload();
+        clock.advance(Duration.ofSeconds(30));
+        engine.tick();
+
+        assertThat(fired).extracting(TaskDueEvent::taskId).containsExactlyInAnyOrder(2L, 3L);
+    }
+
+    private void store(TaskDueDate row) {
+        database.put(row.id(), row);
+    }
+
+    /**
+     * Часы, которые тест двигает вручную
+     */
+    private static final class MutableClock extends Clock {
+
+        private volatile Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
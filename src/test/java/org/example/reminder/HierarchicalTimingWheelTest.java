@@ -0,0 +1,104 @@
+package org.example.reminder;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Проверяют срабатывание, отмену и перестановку таймеров колеса
+ */
+class HierarchicalTimingWheelTest {
+
+    private final Map<Long, Long> firedAt = new HashMap<>();
+
+    /**
+     * Таймеры на всех уровнях должны срабатывать ровно на своём тике
+     */
+    @Test
+    void advanceTo_firesEachTimerAtItsTick() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(1_000, 4);
+        long[] deltas = {1, 63, 64, 65, 4_095, 4_096, 4_097, 262_144, 300_000};
+        for (int i = 0; i < deltas.length; i++) {
+            wheel.schedule(i, 1_000 + deltas[i]);
+        }
+
+        advance(wheel, 1_000 + 300_000);
+
+        for (int i = 0; i < deltas.length; i++) {
+            assertThat(firedAt).containsEntry((long) i, 1_000 + deltas[i]);
+        }
+        assertThat(wheel.size()).isZero();
+    }
+
+    /**
+     * Отменённый таймер не должен срабатывать, переставленный — срабатывать по новому сроку
+     */
+    @Test
+    void cancelAndReschedule() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(0, 4);
+        wheel.schedule(1, 100);
+        wheel.schedule(2, 100);
+        wheel.schedule(3, 5_000);
+
+        assertThat(wheel.cancel(1)).isTrue();
+        assertThat(wheel.cancel(1)).isFalse();
+        wheel.schedule(3, 50);
+        advance(wheel, 10_000);
+
+        assertThat(firedAt).containsOnlyKeys(2L, 3L).containsEntry(3L, 50L);
+    }
+
+    /**
+     * Срок в прошлом срабатывает на следующем тике, срок за горизонтом — вовремя
+     */
+    @Test
+    void schedule_handlesPastAndBeyondHorizon() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(1_000, 4);
+        long beyond = 1_000 + (1L << 24) + 12_345;
+        wheel.schedule(1, 10);
+        wheel.schedule(2, beyond);
+
+        advance(wheel, 1_001);
+        assertThat(firedAt).containsOnlyKeys(1L).containsEntry(1L, 1_001L);
+
+        advance(wheel, beyond);
+        assertThat(firedAt).containsEntry(2L, beyond);
+    }
+
+    /**
+     * Случайные сроки с отменами должны срабатывать ровно тогда же, что и по простому списку
+     */
+    @Test
+    void advanceTo_matchesNaiveScheduleForRandomTimers() {
+        Random random = new Random(42);
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(7, 16);
+        Map<Long, Long> expected = new HashMap<>();
+        for (long id = 0; id < 20_000; id++) {
+            long deadline = 7 + 1 + random.nextInt(1 << random.nextInt(21));
+            wheel.schedule(id, deadline);
+            expected.put(id, deadline);
+        }
+        List<Long> cancelled = new ArrayList<>();
+        for (long id = 0; id < 20_000; id += 7) {
+            wheel.cancel(id);
+            expected.remove(id);
+            cancelled.add(id);
+        }
+
+        advance(wheel, 7 + (1 << 20) + 1);
+
+        assertThat(firedAt).isEqualTo(expected);
+        assertThat(firedAt).doesNotContainKeys(cancelled.toArray(Long[]::new));
+        assertThat(wheel.size()).isZero();
+    }
+
+    private void advance(HierarchicalTimingWheel wheel, long tick) {
+        wheel.advanceTo(tick, (id, deadline) -> firedAt.put(id, wheel.currentTick()));
+    }
+}
@@ -0,0 +1,73 @@
+package org.example.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Проверяют, что V5 доводит схему, созданную ещё через ddl-auto=update и принятую Flyway
+ * за версию 1 без выполнения V1, до того, что ждут сущности и запросы по срокам
+ */
+class LegacySchemaMigrationTest {
+
+    private final SingleConnectionDataSource dataSource = new SingleConnectionDataSource(
+            "jdbc:h2:mem:legacy;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE", true);
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+    @AfterEach
+    void tearDown() {
+        dataSource.destroy();
+    }
+
+    /**
+     * На старой схеме V5 должна добавить version со значением 0 для существующих строк и оба индекса
+     * по срокам, а повторный прогон — ничего не менять
+     */
+    @Test
+    void v5_upgradesBaselineSchemaIdempotently() throws SQLException {
+        jdbcTemplate.execute("""
+                CREATE TABLE tasks (
+                    id          bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+                    title       varchar(255) NOT NULL,
+                    description varchar(255),
+                    completed   boolean      NOT NULL,
+                    due_date    timestamp(6),
+                    created_at  timestamp(6)
+                )""");
+        jdbcTemplate.update("INSERT INTO tasks (title, completed) VALUES ('legacy', false)");
+        ResourceDatabasePopulator v5 = new ResourceDatabasePopulator(
+                new ClassPathResource("db/migration/V5__align_legacy_tasks_schema.sql"));
+
+        v5.execute(dataSource);
+        v5.execute(dataSource);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT version FROM tasks WHERE title = 'legacy'", Long.class))
+                .isZero();
+        assertThat(indexes()).contains("idx_tasks_completed_due_date", "idx_tasks_due_date");
+    }
+
+    private Set<String> indexes() throws SQLException {
+        Set<String> names = new HashSet<>();
+        try (Connection connection = dataSource.getConnection();
+             ResultSet rs = connection.getMetaData().getIndexInfo(null, null, "tasks", false, false)) {
+            while (rs.next()) {
+                String name = rs.getString("INDEX_NAME");
+                if (name != null) {
+                    names.add(name.toLowerCase());
+                }
+            }
+        }
+        return names;
+    }
+}
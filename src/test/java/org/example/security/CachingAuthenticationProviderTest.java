@@ -0,0 +1,84 @@
+package org.example.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+/**
+ * Проверяют кэширование успешных аутентификаций и его сброс
+ */
+class CachingAuthenticationProviderTest {
+
+    private AuthenticationProvider delegate;
+    private AuthenticationCache cache;
+    private CachingAuthenticationProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(AuthenticationProvider.class);
+        cache = new AuthenticationCache(Duration.ofMinutes(1), 100);
+        provider = new CachingAuthenticationProvider(delegate, cache);
+    }
+
+    /**
+     * Повторный запрос с теми же учётными данными не должен доходить до делегата
+     */
+    @Test
+    void authenticate_secondCallIsServedFromCache() {
+        when(delegate.authenticate(any())).thenReturn(authenticated("user"));
+
+        provider.authenticate(token("user", "secret"));
+        Authentication second = provider.authenticate(token("user", "secret"));
+
+        assertThat(second.getName()).isEqualTo("user");
+        verify(delegate, times(1)).authenticate(any());
+    }
+
+    /**
+     * Другой пароль должен проверяться заново, а неудача не кэшироваться
+     */
+    @Test
+    void authenticate_wrongPasswordIsNotServedFromCache() {
+        when(delegate.authenticate(any())).thenReturn(authenticated("user"));
+        provider.authenticate(token("user", "secret"));
+
+        when(delegate.authenticate(any())).thenThrow(new BadCredentialsException("bad"));
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(token("user", "guess")));
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(token("user", "guess")));
+
+        verify(delegate, times(3)).authenticate(any());
+    }
+
+    /**
+     * После изменения пользователя его записи должны удаляться из кэша
+     */
+    @Test
+    void evictUser_forcesFullCheck() {
+        when(delegate.authenticate(any())).thenReturn(authenticated("user"));
+        provider.authenticate(token("user", "secret"));
+
+        cache.evictUser("user");
+        provider.authenticate(token("user", "secret"));
+
+        verify(delegate, times(2)).authenticate(any());
+    }
+
+    private UsernamePasswordAuthenticationToken token(String username, String password) {
+        return UsernamePasswordAuthenticationToken.unauthenticated(username, password);
+    }
+
+    private Authentication authenticated(String username) {
+        return UsernamePasswordAuthenticationToken.authenticated(username, null,
+                AuthorityUtils.createAuthorityList("ROLE_USER"));
+    }
+}
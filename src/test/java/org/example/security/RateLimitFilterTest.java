@@ -0,0 +1,70 @@
+package org.example.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.example.security.TokenBucketLimiter.Limit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Проверяют, что фильтр допуска держит место в адаптивном лимите на время асинхронного ответа
+ */
+class RateLimitFilterTest {
+
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter =
+            new AdaptiveConcurrencyLimiter(() -> 0, 5, 1, 1, 1);
+    private final RateLimitFilter filter = new RateLimitFilter(
+            new TokenBucketLimiter(Map.of(
+                    RequestClass.READ, new Limit(1000, 1000),
+                    RequestClass.SCAN, new Limit(1000, 1000)), Duration.ofMinutes(1), 100),
+            concurrencyLimiter, Map.of(), new SimpleMeterRegistry());
+
+    @AfterEach
+    void tearDown() {
+        concurrencyLimiter.close();
+    }
+
+    /**
+     * Выгрузка должна занимать место до завершения ответа, а не до выхода из фильтра,
+     * и возвращать его ровно один раз
+     */
+    @Test
+    void asyncResponse_holdsSlotUntilComplete() throws Exception {
+        MockHttpServletRequest stream = request("/api/tasks/stream");
+        filter.doFilter(stream, new MockHttpServletResponse(), startAsync());
+
+        assertThat(concurrencyLimiter.inFlight()).isEqualTo(1);
+        assertThat(status("/api/tasks")).isEqualTo(503);
+
+        ((MockAsyncContext) stream.getAsyncContext()).complete();
+
+        assertThat(concurrencyLimiter.inFlight()).isZero();
+        assertThat(status("/api/tasks")).isEqualTo(200);
+        assertThat(concurrencyLimiter.inFlight()).isZero();
+    }
+
+    private int status(String path) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(path), response, new MockFilterChain());
+        return response.getStatus();
+    }
+
+    private static MockHttpServletRequest request(String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setAsyncSupported(true);
+        return request;
+    }
+
+    private static FilterChain startAsync() {
+        return (request, response) -> request.startAsync();
+    }
+}
@@ -0,0 +1,80 @@
+package org.example.security;
+
+import org.example.security.TokenBucketLimiter.Limit;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Проверяют token bucket и адаптивный лимит параллелизма
+ */
+class RateLimitersTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    /**
+     * Должен пропускать burst запросов подряд, затем один запрос на интервал пополнения
+     */
+    @Test
+    void tokenBucket_allowsBurstThenSteadyRate() {
+        AtomicLong now = new AtomicLong(SECOND);
+        TokenBucketLimiter limiter = new TokenBucketLimiter(
+                Map.of(RequestClass.WRITE, new Limit(2, 3)), Duration.ofMinutes(1), 100, now::get);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire("user:a", RequestClass.WRITE, 1.0)).isZero();
+        }
+        assertThat(limiter.tryAcquire("user:a", RequestClass.WRITE, 1.0)).isEqualTo(SECOND / 2);
+        assertThat(limiter.tryAcquire("user:b", RequestClass.WRITE, 1.0)).isZero();
+
+        now.addAndGet(SECOND / 2);
+        assertThat(limiter.tryAcquire("user:a", RequestClass.WRITE, 1.0)).isZero();
+        assertThat(limiter.tryAcquire("user:a", RequestClass.WRITE, 1.0)).isPositive();
+    }
+
+    /**
+     * Множитель роли должен ускорять пополнение ведра
+     */
+    @Test
+    void tokenBucket_multiplierRaisesRate() {
+        AtomicLong now = new AtomicLong(SECOND);
+        TokenBucketLimiter limiter = new TokenBucketLimiter(
+                Map.of(RequestClass.READ, new Limit(1, 1)), Duration.ofMinutes(1), 100, now::get);
+
+        assertThat(limiter.tryAcquire("user:admin", RequestClass.READ, 4.0)).isZero();
+        now.addAndGet(SECOND / 4);
+        assertThat(limiter.tryAcquire("user:admin", RequestClass.READ, 4.0)).isZero();
+    }
+
+    /**
+     * Лимит должен снижаться при очереди за соединениями и отсекать тяжёлые выборки раньше записей
+     */
+    @Test
+    void concurrencyLimiter_backsOffUnderPoolPressure() {
+        AtomicInteger pending = new AtomicInteger(10);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(pending::get, 5, 2, 10, 100);
+        try {
+            limiter.adjust();
+            assertThat(limiter.limit()).isEqualTo(9);
+
+            for (int i = 0; i < 4; i++) {
+                assertThat(limiter.tryAcquire(RequestClass.SCAN)).isTrue();
+            }
+            assertThat(limiter.tryAcquire(RequestClass.SCAN)).isFalse();
+            assertThat(limiter.tryAcquire(RequestClass.WRITE)).isTrue();
+
+            pending.set(0);
+            limiter.adjust();
+            assertThat(limiter.limit()).isEqualTo(9);
+            limiter.release();
+            assertThat(limiter.inFlight()).isEqualTo(4);
+        } finally {
+            limiter.close();
+        }
+    }
+}
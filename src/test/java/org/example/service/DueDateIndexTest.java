@@ -0,0 +1,112 @@
+package org.example.service;
+
+import org.example.dto.TaskDueDate;
+import org.example.event.TaskChangedEvent;
+import org.example.event.TaskChangedEvent.Type;
+import org.example.repository.TaskRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+/**
+ * Проверяют выборки по диапазону и поддержку индекса по дедлайнам событиями об изменениях
+ */
+class DueDateIndexTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2024, 5, 1, 0, 0);
+
+    private TaskRepository taskRepository;
+    private DueDateIndex index;
+
+    @BeforeEach
+    void setUp() {
+        taskRepository = mock(TaskRepository.class);
+        index = new DueDateIndex(taskRepository);
+        when(taskRepository.streamDueDates()).thenReturn(Stream.of(
+                new TaskDueDate(1L, DAY.plusHours(10), false, 0),
+                new TaskDueDate(2L, DAY.plusHours(5), true, 0),
+                new TaskDueDate(3L, DAY.plusDays(1), false, 0)));
+        index.warmUp();
+    }
+
+    /**
+     * Должен возвращать задачи из полуоткрытого диапазона по возрастанию дедлайна
+     */
+    @Test
+    void findIds_returnsRangeOrderedByDueDate() {
+        assertThat(index.isReady()).isTrue();
+        assertThat(index.findIds(DAY, DAY.plusDays(1), null, 10)).containsExactly(2L, 1L);
+        assertThat(index.findIds(DAY, DAY.plusDays(1), false, 10)).containsExactly(1L);
+        assertThat(index.findIds(DAY, DAY.plusDays(2), null, 2)).containsExactly(2L, 1L);
+    }
+
+    /**
+     * Должен переносить задачу при смене дедлайна и не откатывать её к старой версии
+     */
+    @Test
+    void onTaskChanged_movesUpdatedTaskAndKeepsNewestVersion() {
+        when(taskRepository.findDueDates(List.of(3L)))
+                .thenReturn(List.of(new TaskDueDate(3L, DAY.plusHours(1), true, 2)));
+        index.onTaskChanged(TaskChangedEvent.of(Type.UPDATED, 3L));
+
+        when(taskRepository.findDueDates(List.of(3L)))
+                .thenReturn(List.of(new TaskDueDate(3L, DAY.plusDays(1), false, 1)));
+        index.onTaskChanged(TaskChangedEvent.of(Type.UPDATED, 3L));
+
+        assertThat(index.findIds(DAY, DAY.plusDays(1), true, 10)).containsExactly(3L, 2L);
+        assertThat(index.findIds(DAY.plusDays(1), DAY.plusDays(2), null, 10)).isEmpty();
+    }
+
+    /**
+     * Должен удалять задачу из индекса без обращения к БД
+     */
+    @Test
+    void onTaskChanged_removesDeletedTask() {
+        index.onTaskChanged(TaskChangedEvent.of(Type.DELETED, 1L));
+
+        assertThat(index.findIds(DAY, DAY.plusDays(2), null, 10)).containsExactly(2L, 3L);
+        verify(taskRepository, never()).findDueDates(anyCollection());
+    }
+
+    /**
+     * Должен находить расхождения индекса с БД
+     */
+    @Test
+    void verify_reportsDifferences() {
+        when(taskRepository.streamDueDates()).thenReturn(Stream.of(
+                new TaskDueDate(1L, DAY.plusHours(10), false, 0),
+                new TaskDueDate(2L, DAY.plusHours(5), true, 1),
+                new TaskDueDate(4L, DAY, false, 0)));
+
+        DueDateIndex.Report report = index.verify();
+
+        assertThat(report.consistent()).isFalse();
+        assertThat(report.missing()).isEqualTo(1);
+        assertThat(report.stale()).isEqualTo(1);
+        assertThat(report.extra()).isEqualTo(1);
+        assertThat(report.sample()).containsExactlyInAnyOrder(2L, 4L, 3L);
+    }
+
+    /**
+     * Повторный прогрев должен перечитывать индекс целиком, включая удаление исчезнувших задач
+     */
+    @Test
+    void warmUp_reloadReplacesIndex() {
+        when(taskRepository.streamDueDates()).thenReturn(Stream.of(
+                new TaskDueDate(1L, DAY.plusHours(12), true, 1),
+                new TaskDueDate(2L, DAY.plusHours(5), true, 0)));
+
+        index.warmUp();
+
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.findIds(DAY, DAY.plusDays(2), null, 10)).containsExactly(2L, 1L);
+        assertThat(index.findIds(DAY, DAY.plusDays(2), false, 10)).isEmpty();
+    }
+}
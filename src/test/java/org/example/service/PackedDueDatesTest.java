@@ -0,0 +1,74 @@
+package org.example.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Проверяют упакованный индекс дедлайнов на объёмах, при которых блоки делятся и пустеют
+ */
+class PackedDueDatesTest {
+
+    /**
+     * Выборки должны совпадать с эталонной картой после случайных вставок, переносов и удалений
+     */
+    @Test
+    void find_matchesReferenceAfterRandomChanges() {
+        PackedDueDates packed = new PackedDueDates(16);
+        TreeMap<Long, long[]> reference = new TreeMap<>();
+        Random random = new Random(42);
+        for (int step = 0; step < 50_000; step++) {
+            long id = random.nextInt(5 * PackedDueDates.RUN);
+            if (random.nextInt(4) == 0) {
+                assertThat(packed.remove(id)).isEqualTo(reference.remove(id) != null);
+            } else {
+                long due = random.nextInt(1_000);
+                boolean completed = random.nextBoolean();
+                long[] previous = reference.get(id);
+                long version = previous == null ? 0 : previous[1] + 1;
+                packed.put(id, due, version, completed);
+                reference.put(id, new long[]{due, version, completed ? 1 : 0});
+            }
+        }
+
+        assertThat(packed.size()).isEqualTo(reference.size());
+        assertThat(packed.ids()).containsExactlyInAnyOrderElementsOf(reference.keySet());
+        assertThat(packed.find(100, 900, null, Integer.MAX_VALUE)).isEqualTo(expected(reference, 100, 900, null));
+        assertThat(packed.find(0, 1_000, true, Integer.MAX_VALUE)).isEqualTo(expected(reference, 0, 1_000, true));
+        assertThat(packed.find(0, 1_000, false, 10)).isEqualTo(expected(reference, 0, 1_000, false).subList(0, 10));
+        reference.forEach((id, entry) ->
+                assertThat(packed.matches(id, entry[0], entry[1], entry[2] == 1)).isTrue());
+    }
+
+    /**
+     * Более старая версия не должна перетирать более новую
+     */
+    @Test
+    void put_ignoresOlderVersion() {
+        PackedDueDates packed = new PackedDueDates(16);
+        packed.put(1L, 20, 2, false);
+
+        assertThat(packed.put(1L, 10, 1, true)).isFalse();
+
+        assertThat(packed.matches(1L, 20, 2, false)).isTrue();
+        assertThat(packed.find(0, 15, null, 10)).isEmpty();
+    }
+
+    private static List<Long> expected(TreeMap<Long, long[]> reference, long from, long to, Boolean completed) {
+        List<Long> ids = new ArrayList<>();
+        reference.entrySet().stream()
+                .filter(e -> e.getValue()[0] >= from && e.getValue()[0] < to)
+                .filter(e -> completed == null || (e.getValue()[2] == 1) == completed)
+                .sorted(Comparator.<Map.Entry<Long, long[]>>comparingLong(e -> e.getValue()[0])
+                        .thenComparingLong(Map.Entry::getKey))
+                .forEach(e -> ids.add(e.getKey()));
+        return ids;
+    }
+}
@@ -0,0 +1,94 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.config.CacheConfig;
+import org.example.event.TaskChangedEvent;
+import org.example.event.TaskChangedEvent.Type;
+import org.example.repository.TaskRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Проверяют пачечную очистку и архивацию задач
+ */
+class TaskArchiverTest {
+
+    private TaskRepository taskRepository;
+    private ApplicationEventPublisher eventPublisher;
+    private Cache cache;
+    private SimpleMeterRegistry meterRegistry;
+    private TaskArchiver archiver;
+
+    @BeforeEach
+    void setUp() {
+        taskRepository = mock(TaskRepository.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        cache = mock(Cache.class);
+        CacheManager cacheManager = mock(CacheManager.class);
+        when(cacheManager.getCache(CacheConfig.TASKS_CACHE)).thenReturn(cache);
+        meterRegistry = new SimpleMeterRegistry();
+        archiver = new TaskArchiver(taskRepository, mock(PlatformTransactionManager.class), eventPublisher,
+                cacheManager, meterRegistry, Duration.ofDays(30), Duration.ofDays(7), 2, 3, Duration.ZERO);
+    }
+
+    /**
+     * Должен продолжать, пока пачки полные, останавливаться на неполной,
+     * публиковать удаление и вычищать задачи из кэша
+     */
+    @Test
+    void run_drainsUntilShortBatch() {
+        when(taskRepository.purgeDeleted(any(), eq(2))).thenReturn(List.of(1L, 2L), List.of(3L));
+
+        archiver.run();
+
+        verify(taskRepository, times(2)).purgeDeleted(any(), eq(2));
+        verify(eventPublisher).publishEvent(new TaskChangedEvent(Type.DELETED, List.of(3L)));
+        verify(cache).evict(3L);
+        assertThat(meterRegistry.get("tasks.archive.rows").tag("action", "purged").counter().count())
+                .isEqualTo(3);
+    }
+
+    /**
+     * Не должен выполнять больше max-batches пачек за запуск
+     */
+    @Test
+    void run_stopsAtMaxBatches() {
+        when(taskRepository.archiveCompleted(any(), eq(2))).thenReturn(List.of(1L, 2L));
+        when(taskRepository.purgeDeleted(any(), anyInt())).thenReturn(List.of());
+
+        archiver.run();
+
+        verify(taskRepository, times(3)).archiveCompleted(any(), eq(2));
+    }
+
+    /**
+     * Должен создавать секции архива для каждого месяца до границы переноса
+     */
+    @Test
+    void run_createsPartitionsFromOldestMonth() {
+        YearMonth last = YearMonth.from(LocalDateTime.now().minusDays(30));
+        when(taskRepository.findOldestCompletedCreatedBefore(any()))
+                .thenReturn(last.minusMonths(2).atDay(15).atStartOfDay());
+        when(taskRepository.purgeDeleted(any(), anyInt())).thenReturn(List.of());
+        when(taskRepository.archiveCompleted(any(), anyInt())).thenReturn(List.of());
+
+        archiver.run();
+
+        verify(taskRepository).createArchivePartition(last.minusMonths(2));
+        verify(taskRepository).createArchivePartition(last.minusMonths(1));
+        verify(taskRepository).createArchivePartition(last);
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+}
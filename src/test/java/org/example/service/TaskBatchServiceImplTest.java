@@ -0,0 +1,97 @@
+package org.example.service;
+
+import jakarta.persistence.EntityManager;
+import org.example.dto.BatchItemResult;
+import org.example.dto.BatchItemResult.Status;
+import org.example.model.Task;
+import org.example.repository.TaskRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+/**
+ * Проверяют разбиение пакетных операций на пачки и результаты по элементам
+ */
+class TaskBatchServiceImplTest {
+
+    private TaskRepository taskRepository;
+    private TaskBatchServiceImpl batchService;
+
+    @BeforeEach
+    void setUp() {
+        taskRepository = mock(TaskRepository.class);
+        batchService = new TaskBatchServiceImpl(taskRepository, mock(EntityManager.class),
+                mock(PlatformTransactionManager.class), mock(ApplicationEventPublisher.class), 2, 5);
+    }
+
+    /**
+     * Должен сохранять задачи пачками и возвращать их идентификаторы по порядку
+     */
+    @Test
+    void createTasks_savesInChunks() {
+        when(taskRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Task> chunk = new ArrayList<>(invocation.getArgument(0));
+            chunk.forEach(task -> task.setId((long) task.getTitle().hashCode()));
+            return chunk;
+        });
+
+        List<BatchItemResult> results = batchService.createTasks(List.of(task("a"), task("b"), task("c")));
+
+        verify(taskRepository, times(2)).saveAll(anyList());
+        assertThat(results).extracting(BatchItemResult::index).containsExactly(0, 1, 2);
+        assertThat(results).extracting(BatchItemResult::status).containsOnly(Status.CREATED);
+        assertThat(results.get(2).id()).isEqualTo((long) "c".hashCode());
+    }
+
+    /**
+     * Должен помечать всю пачку как FAILED, если её транзакция упала
+     */
+    @Test
+    void createTasks_marksFailedChunk() {
+        when(taskRepository.saveAll(anyList())).thenThrow(new IllegalStateException("boom"));
+
+        List<BatchItemResult> results = batchService.createTasks(List.of(task("a")));
+
+        assertThat(results).singleElement()
+                .satisfies(result -> assertThat(result.status()).isEqualTo(Status.FAILED));
+    }
+
+    /**
+     * Должен мягко удалять найденные задачи и отличать их от несуществующих
+     */
+    @Test
+    void deleteTasks_reportsNotFound() {
+        when(taskRepository.findExistingIds(List.of(1L, 2L))).thenReturn(List.of(1L));
+
+        List<BatchItemResult> results = batchService.deleteTasks(List.of(1L, 2L));
+
+        verify(taskRepository).softDeleteAllById(eq(Set.of(1L)), any(LocalDateTime.class));
+        assertThat(results).extracting(BatchItemResult::status)
+                .containsExactly(Status.DELETED, Status.NOT_FOUND);
+    }
+
+    /**
+     * Должен бросать IllegalArgumentException при превышении размера пакета
+     */
+    @Test
+    void deleteTasks_throwsWhenTooLarge() {
+        assertThrows(IllegalArgumentException.class,
+                () -> batchService.deleteTasks(List.of(1L, 2L, 3L, 4L, 5L, 6L)));
+    }
+
+    private Task task(String title) {
+        Task task = new Task();
+        task.setTitle(title);
+        return task;
+    }
+}
@@ -0,0 +1,78 @@
+package org.example.service;
+
+import org.example.dto.TaskChange;
+import org.example.event.TaskChangedEvent;
+import org.example.event.TaskChangedEvent.Type;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Проверяют нумерацию, вытеснение и возобновление чтения ленты изменений
+ */
+class TaskChangeFeedTest {
+
+    private TaskChangeFeed feed;
+
+    @BeforeEach
+    void setUp() {
+        feed = new TaskChangeFeed(3);
+    }
+
+    /**
+     * Должен нумеровать изменения подряд и отдавать их после указанного номера
+     */
+    @Test
+    void readAfter_returnsChangesInOrder() {
+        feed.onTaskChanged(new TaskChangedEvent(Type.CREATED, List.of(10L, 11L)));
+        feed.onTaskChanged(TaskChangedEvent.of(Type.DELETED, 10L));
+
+        assertThat(feed.readAfter(0, 10)).containsExactly(
+                new TaskChange(1, Type.CREATED, 10L),
+                new TaskChange(2, Type.CREATED, 11L),
+                new TaskChange(3, Type.DELETED, 10L));
+        assertThat(feed.readAfter(2, 10)).containsExactly(new TaskChange(3, Type.DELETED, 10L));
+        assertThat(feed.readAfter(3, 10)).isEmpty();
+    }
+
+    /**
+     * Должен возвращать null, если нужные изменения уже вытеснены из буфера
+     */
+    @Test
+    void readAfter_returnsNullWhenOverwritten() {
+        for (long id = 1; id <= 5; id++) {
+            feed.onTaskChanged(TaskChangedEvent.of(Type.UPDATED, id));
+        }
+
+        assertThat(feed.readAfter(1, 10)).isNull();
+        assertThat(feed.readAfter(2, 10)).extracting(TaskChange::taskId).containsExactly(3L, 4L, 5L);
+    }
+
+    /**
+     * Должен принимать только токены, выданные этим экземпляром ленты
+     */
+    @Test
+    void resolve_acceptsOwnTokensOnly() {
+        feed.onTaskChanged(TaskChangedEvent.of(Type.CREATED, 1L));
+
+        assertThat(feed.resolve(feed.token(1))).isEqualTo(1);
+        assertThat(feed.resolve("other-1")).isEqualTo(-1);
+        assertThat(feed.resolve(null)).isEqualTo(-1);
+    }
+
+    /**
+     * Должен оповещать слушателей о каждом добавлении
+     */
+    @Test
+    void onTaskChanged_notifiesListeners() {
+        int[] calls = new int[1];
+        feed.addListener(() -> calls[0]++);
+
+        feed.onTaskChanged(TaskChangedEvent.of(Type.CREATED, 1L));
+
+        assertThat(calls[0]).isEqualTo(1);
+    }
+}
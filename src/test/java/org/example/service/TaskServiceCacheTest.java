@@ -0,0 +1,155 @@
+package org.example.service;
+
+import jakarta.persistence.EntityManager;
+import org.example.config.CacheConfig;
+import org.example.model.Task;
+import org.example.repository.TaskRepository;
+import org.example.service.interfaces.TaskService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Проверяют кэш задач по идентификатору в собранном контексте: попадание, запись после
+ * изменения и вытеснение после удаления, которое не должен обгонять параллельный читатель,
+ * а также транзакцию вокруг изменения
+ */
+class TaskServiceCacheTest {
+
+    /**
+     * Включает транзакции для сервиса, собранного в тесте; кэш включает CacheConfig
+     */
+    @Configuration
+    @EnableTransactionManagement
+    static class Infrastructure {
+    }
+
+    private final TaskRepository taskRepository = mock(TaskRepository.class);
+    private final DataSource dataSource = mock(DataSource.class);
+    private AnnotationConfigApplicationContext context;
+    private TaskService service;
+    private Cache cache;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        Connection connection = mock(Connection.class);
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(taskRepository.findById(1L)).thenAnswer(invocation -> Optional.of(task("stored")));
+        when(taskRepository.save(any(Task.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        context = new AnnotationConfigApplicationContext();
+        context.getBeanFactory().setConversionService(ApplicationConversionService.getSharedInstance());
+        context.register(Infrastructure.class, CacheConfig.class);
+        context.registerBean(PlatformTransactionManager.class, () -> new DataSourceTransactionManager(dataSource));
+        context.registerBean(TaskServiceImpl.class, () -> new TaskServiceImpl(taskRepository,
+                mock(EntityManager.class), context, Optional.empty()));
+        context.refresh();
+        service = context.getBean(TaskService.class);
+        cache = context.getBean(CacheManager.class).getCache(CacheConfig.TASKS_CACHE);
+    }
+
+    @AfterEach
+    void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Повторное чтение задачи должно обслуживаться кэшем
+     */
+    @Test
+    void getTaskById_readsRepositoryOnce() {
+        service.getTaskById(1L);
+        Optional<Task> cached = service.getTaskById(1L);
+
+        assertThat(cached).map(Task::getTitle).contains("stored");
+        verify(taskRepository, times(1)).findById(1L);
+    }
+
+    /**
+     * После изменения чтение должно получать из кэша новую версию, не обращаясь к репозиторию
+     */
+    @Test
+    void updateTask_putsUpdatedTask() {
+        service.getTaskById(1L);
+
+        service.updateTask(1L, task("renamed"));
+        Optional<Task> cached = service.getTaskById(1L);
+
+        assertThat(cached).map(Task::getTitle).contains("renamed");
+        // Второе чтение — внутри updateTask; getTaskById после изменения в репозиторий не ходит
+        verify(taskRepository, times(2)).findById(1L);
+    }
+
+    /**
+     * Чтение, проверка версии и запись должны идти в одной транзакции
+     */
+    @Test
+    void updateTask_readsAndSavesInOneTransaction() {
+        Object[] transactions = new Object[2];
+        when(taskRepository.findById(1L)).thenAnswer(invocation -> {
+            transactions[0] = TransactionSynchronizationManager.getResource(dataSource);
+            return Optional.of(task("stored"));
+        });
+        when(taskRepository.save(any(Task.class))).thenAnswer(invocation -> {
+            transactions[1] = TransactionSynchronizationManager.getResource(dataSource);
+            return invocation.getArgument(0);
+        });
+
+        service.updateTask(1L, task("renamed"), 0L);
+
+        assertThat(transactions[0]).isNotNull().isSameAs(transactions[1]);
+    }
+
+    /**
+     * Чтение, вернувшее старую строку после удаления, но до фиксации, не должно оставить её в кэше
+     */
+    @Test
+    void deleteTask_evictsAfterCommit() {
+        service.getTaskById(1L);
+        when(taskRepository.softDeleteById(eq(1L), any(LocalDateTime.class))).thenAnswer(invocation -> {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    CompletableFuture.runAsync(() -> service.getTaskById(1L)).join();
+                }
+            });
+            return 1;
+        });
+
+        service.deleteTask(1L);
+
+        assertThat(cache.get(1L)).isNull();
+        service.getTaskById(1L);
+        // Параллельный читатель до фиксации ещё видит кэш; после неё чтение снова идёт в репозиторий
+        verify(taskRepository, times(2)).findById(1L);
+    }
+
+    private static Task task(String title) {
+        Task task = new Task();
+        task.setId(1L);
+        task.setTitle(title);
+        task.setVersion(0L);
+        return task;
+    }
+}
@@ -1,12 +1,30 @@
 package org.example.service;
 
+import jakarta.persistence.EntityManager;
+import org.example.dto.CursorPage;
+import org.example.dto.TaskBucketCount;
+import org.example.dto.TaskFilter;
+import org.example.dto.TaskPatch;
+import org.example.dto.TaskSearchHit;
+import org.example.dto.TaskStats;
+import org.example.dto.TaskStatusCounts;
+import org.example.dto.TaskSummary;
+import org.example.exception.TaskVersionConflictException;
 import org.example.model.Task;
 import org.example.repository.TaskRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.LongStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -23,7 +41,8 @@ class TaskServiceImplTest {
     @BeforeEach
     void setUp() {
         taskRepository = mock(TaskRepository.class);
-        taskService = new TaskServiceImpl(taskRepository);
+        taskService = new TaskServiceImpl(taskRepository, mock(EntityManager.class),
+                mock(ApplicationEventPublisher.class), Optional.empty());
     }
 
     /**
@@ -39,6 +58,128 @@ class TaskServiceImplTest {
         verify(taskRepository).findAll();
     }
 
+    /**
+     * Должен возвращать курсор следующей страницы, если задач больше лимита
+     */
+    @Test
+    void getTasksPage_returnsNextCursorWhenMoreRows() {
+        when(taskRepository.findAllByIdGreaterThanOrderByIdAsc(eq(0L), any()))
+                .thenReturn(LongStream.rangeClosed(1, 3).mapToObj(this::taskWithId).toList());
+
+        CursorPage<Task> page = taskService.getTasksPage(null, 2);
+
+        assertThat(page.items()).extracting(Task::getId).containsExactly(1L, 2L);
+        assertThat(page.nextCursor()).isNotNull();
+
+        taskService.getTasksPage(page.nextCursor(), 2);
+        verify(taskRepository).findAllByIdGreaterThanOrderByIdAsc(eq(2L), any());
+    }
+
+    /**
+     * Должен строить краткую страницу из проекции, не загружая сущности
+     */
+    @Test
+    void getTaskSummariesPage_usesProjection() {
+        when(taskRepository.findSummariesAfter(eq(0L), any()))
+                .thenReturn(List.of(new TaskSummary(1L, "A", false, null), new TaskSummary(2L, "B", true, null)));
+
+        CursorPage<TaskSummary> page = taskService.getTaskSummariesPage(null, 1);
+
+        assertThat(page.items()).extracting(TaskSummary::id).containsExactly(1L);
+        assertThat(page.nextCursor()).isNotNull();
+        verify(taskRepository, never()).findAllByIdGreaterThanOrderByIdAsc(any(), any());
+    }
+
+    /**
+     * Не должен возвращать курсор на последней странице
+     */
+    @Test
+    void getTasksPage_lastPageHasNoCursor() {
+        when(taskRepository.findAllByIdGreaterThanOrderByIdAsc(eq(0L), any()))
+                .thenReturn(List.of(taskWithId(1L)));
+
+        CursorPage<Task> page = taskService.getTasksPage(null, 2);
+
+        assertThat(page.items()).hasSize(1);
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    /**
+     * Должен бросать IllegalArgumentException при повреждённом курсоре или лимите
+     */
+    @Test
+    void getTasksPage_throwsOnInvalidInput() {
+        assertThrows(IllegalArgumentException.class,
+                () -> taskService.getTasksPage("not-a-cursor", 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> taskService.getTasksPage(null, TaskServiceImpl.MAX_PAGE_SIZE + 1));
+    }
+
+    /**
+     * Должен строить префиксный tsquery из слов запроса и отбрасывать прочие символы
+     */
+    @Test
+    void toTsQuery_joinsPrefixTerms() {
+        assertThat(TaskServiceImpl.toTsQuery("Deploy  re-lease!")).isEqualTo("deploy:* & re:* & lease:*");
+        assertThat(TaskServiceImpl.toTsQuery("Отчёт 2024")).isEqualTo("отчёт:* & 2024:*");
+        assertThrows(IllegalArgumentException.class, () -> TaskServiceImpl.toTsQuery(" & | ! "));
+    }
+
+    /**
+     * Должен передавать позицию из курсора поиска и возвращать курсор после последней строки
+     */
+    @Test
+    void searchTasks_continuesFromCursor() {
+        TaskSearchHit first = new TaskSearchHit(7L, "Deploy", false, null, 0.5f);
+        TaskSearchHit second = new TaskSearchHit(9L, "Deploy again", false, null, 0.25f);
+        when(taskRepository.search("deploy:*", null, null, 2)).thenReturn(List.of(first, second));
+        when(taskRepository.search("deploy:*", 0.5f, 7L, 2)).thenReturn(List.of(second));
+
+        CursorPage<TaskSearchHit> page = taskService.searchTasks("deploy", null, 1);
+        CursorPage<TaskSearchHit> next = taskService.searchTasks("deploy", page.nextCursor(), 1);
+
+        assertThat(page.items()).containsExactly(first);
+        assertThat(next.items()).containsExactly(second);
+        assertThat(next.nextCursor()).isNull();
+    }
+
+    /**
+     * Должен собирать сводку из агрегирующего запроса и гистограммы по тому же диапазону
+     */
+    @Test
+    void getTaskStats_combinesStatusAndBuckets() {
+        LocalDateTime from = LocalDateTime.of(2024, 5, 1, 0, 0);
+        LocalDateTime to = from.plusDays(7);
+        TaskFilter range = new TaskFilter(null, from, to, ZoneId.systemDefault().getId(), null, null,
+                TaskFilter.DEFAULT_LIMIT);
+        TaskStatusCounts status = new TaskStatusCounts(5, 2, 2, 1);
+        List<TaskBucketCount> buckets = List.of(new TaskBucketCount(from, 2, 3));
+        when(taskRepository.countStatusesCreatedWithin(eq(from), eq(to), any())).thenReturn(status);
+        when(taskRepository.countByBucket("createdAt", "day", from, to)).thenReturn(buckets);
+
+        TaskStats stats = taskService.getTaskStats(range, "day", "createdAt");
+
+        assertThat(stats.status()).isEqualTo(status);
+        assertThat(stats.buckets()).isEqualTo(buckets);
+        assertThrows(IllegalArgumentException.class, () -> taskService.getTaskStats(range, "hour", "dueDate"));
+        assertThrows(IllegalArgumentException.class, () -> taskService.getTaskStats(range, "day", "title"));
+    }
+
+    /**
+     * Прошедшая неделя должна заканчиваться концом сегодняшнего дня и начинаться шестью днями раньше
+     */
+    @Test
+    void getTaskStats_lastWeekCoversPastSevenDays() {
+        ZoneId zone = ZoneId.of("UTC");
+        LocalDateTime tomorrow = LocalDate.now(zone).plusDays(1).atStartOfDay();
+        TaskFilter range = new TaskFilter("last-week", null, null, zone.getId(), null, null, TaskFilter.DEFAULT_LIMIT);
+
+        TaskStats stats = taskService.getTaskStats(range, "day", "createdAt");
+
+        assertThat(stats.to()).isEqualTo(serverTime(tomorrow, zone));
+        assertThat(stats.from()).isEqualTo(serverTime(tomorrow.minusDays(7), zone));
+    }
+
     /**
      * Должен возвращать Optional с задачей, если она найдена по id
      */
@@ -100,15 +241,57 @@ class TaskServiceImplTest {
     }
 
     /**
-     * Должен удалять задачу, если она существует
+     * Должен бросать TaskVersionConflictException, если версия задачи не совпадает с ожидаемой
      */
     @Test
-    void deleteTask_deletesWhenExists() {
+    void updateTask_throwsOnVersionMismatch() {
+        Task existing = taskWithId(1L);
+        existing.setVersion(5);
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(existing));
+
+        assertThrows(TaskVersionConflictException.class,
+                () -> taskService.updateTask(1L, new Task(), 4L));
+        verify(taskRepository, never()).save(any());
+    }
+
+    /**
+     * Должен возвращать следующую версию после успешного частичного изменения
+     */
+    @Test
+    void patchTask_returnsNextVersion() {
+        TaskPatch patch = new TaskPatch(null, null, true, null);
+        when(taskRepository.patch(1L, patch, 4L)).thenReturn(1);
+
+        assertThat(taskService.patchTask(1L, patch, 4L)).isEqualTo(5L);
+    }
+
+    /**
+     * Должен отличать конфликт версий от отсутствующей задачи при частичном изменении
+     */
+    @Test
+    void patchTask_distinguishesConflictFromNotFound() {
+        TaskPatch patch = new TaskPatch("New", null, null, null);
+        when(taskRepository.patch(any(), any(), any())).thenReturn(0);
         when(taskRepository.existsById(1L)).thenReturn(true);
 
+        assertThrows(TaskVersionConflictException.class, () -> taskService.patchTask(1L, patch, 4L));
+        assertThrows(RuntimeException.class, () -> taskService.patchTask(2L, patch, 4L));
+        assertThrows(IllegalArgumentException.class,
+                () -> taskService.patchTask(1L, new TaskPatch(null, null, null, null), null));
+    }
+
+    /**
+     * Должен мягко удалять задачу одним запросом, если она существует
+     */
+    @Test
+    void deleteTask_softDeletesWhenExists() {
+        when(taskRepository.softDeleteById(eq(1L), any())).thenReturn(1);
+
         taskService.deleteTask(1L);
 
-        verify(taskRepository).deleteById(1L);
+        verify(taskRepository).softDeleteById(eq(1L), any(LocalDateTime.class));
+        verify(taskRepository, never()).existsById(any());
+        verify(taskRepository, never()).deleteById(any());
     }
 
     /**
@@ -116,7 +299,7 @@ class TaskServiceImplTest {
      */
     @Test
     void deleteTask_throwsWhenNotExists() {
-        when(taskRepository.existsById(1L)).thenReturn(false);
+        when(taskRepository.softDeleteById(eq(1L), any())).thenReturn(0);
 
         assertThrows(RuntimeException.class,
                 () -> taskService.deleteTask(1L));
@@ -129,7 +312,7 @@ class TaskServiceImplTest {
     void getTasksByPeriodAndStatus_callsRepositoryForToday() {
         taskService.getTasksByPeriodAndStatus("today", null);
 
-        verify(taskRepository).findAllByDueDateBetween(any(), any());
+        verify(taskRepository).findAllDueWithin(any(), any(), any());
     }
 
     /**
@@ -139,7 +322,41 @@ class TaskServiceImplTest {
     void getTasksByPeriodAndStatus_callsRepositoryForWeekWithCompleted() {
         taskService.getTasksByPeriodAndStatus("week", true);
 
-        verify(taskRepository).findAllByDueDateBetweenAndCompleted(any(), any(), eq(true));
+        verify(taskRepository).findAllDueWithinByCompleted(eq(true), any(), any(), any());
+    }
+
+    /**
+     * Должен переводить явный диапазон из зоны клиента в зону сервера
+     * и передавать сортировку и лимит в запрос
+     */
+    @Test
+    void getTasksByFilter_convertsRangeAndPushesDownSortAndLimit() {
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2024, 1, 2, 0, 0);
+        ZoneId client = ZoneId.of("Pacific/Auckland");
+
+        taskService.getTasksByFilter(new TaskFilter(null, from, to, client.getId(), null, "createdAt,desc", 20));
+
+        LocalDateTime expectedFrom = from.atZone(client).withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        verify(taskRepository).findAllDueWithin(eq(expectedFrom), any(), pageable.capture());
+        assertThat(pageable.getValue().getPageSize()).isEqualTo(20);
+        assertThat(pageable.getValue().getSort().getOrderFor("createdAt").getDirection())
+                .isEqualTo(Sort.Direction.DESC);
+    }
+
+    /**
+     * Должен бросать IllegalArgumentException при некорректном диапазоне, зоне или сортировке
+     */
+    @Test
+    void getTasksByFilter_throwsOnInvalidInput() {
+        LocalDateTime now = LocalDateTime.now();
+        assertThrows(IllegalArgumentException.class, () -> taskService.getTasksByFilter(
+                new TaskFilter(null, now, now.minusDays(1), null, null, null, 10)));
+        assertThrows(IllegalArgumentException.class, () -> taskService.getTasksByFilter(
+                new TaskFilter("today", null, null, "Mars/Base", null, null, 10)));
+        assertThrows(IllegalArgumentException.class, () -> taskService.getTasksByFilter(
+                new TaskFilter("today", null, null, null, null, "description", 10)));
     }
 
     /**
@@ -150,4 +367,14 @@ class TaskServiceImplTest {
         assertThrows(IllegalArgumentException.class,
                 () -> taskService.getTasksByPeriodAndStatus("year", null));
     }
+
+    private Task taskWithId(long id) {
+        Task task = new Task();
+        task.setId(id);
+        return task;
+    }
+
+    private static LocalDateTime serverTime(LocalDateTime time, ZoneId zone) {
+        return time.atZone(zone).withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+    }
 }
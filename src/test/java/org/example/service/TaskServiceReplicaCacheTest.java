@@ -0,0 +1,116 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.example.config.CacheConfig;
+import org.example.datasource.ReplicaRoutingDataSource;
+import org.example.model.Task;
+import org.example.repository.TaskRepository;
+import org.example.service.interfaces.TaskService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Проверяют, что общий кэш задач заполняется из основной БД, а не с отстающей реплики
+ */
+class TaskServiceReplicaCacheTest {
+
+    /**
+     * Включает кэш и транзакции для сервиса, собранного в тесте
+     */
+    @Configuration
+    @EnableCaching
+    @EnableTransactionManagement
+    static class Infrastructure {
+    }
+
+    private final DataSource primary = mock(DataSource.class);
+    private final DataSource replica = mock(DataSource.class);
+    private final TaskRepository taskRepository = mock(TaskRepository.class);
+    private AnnotationConfigApplicationContext context;
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        Connection primaryConnection = connection("primary");
+        Connection replicaConnection = connection("replica");
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        dataSource = new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary,
+                Map.of("replica-1", replica), "", Duration.ofSeconds(5), new SimpleMeterRegistry()));
+        // Основная БД уже видит версию 2, реплика ещё отдаёт версию 1
+        when(taskRepository.findById(1L)).thenAnswer(invocation -> {
+            Connection connection = DataSourceUtils.getConnection(dataSource);
+            return Optional.of(task("primary".equals(connection.getCatalog()) ? 2 : 1));
+        });
+
+        context = new AnnotationConfigApplicationContext();
+        context.register(Infrastructure.class);
+        context.registerBean(CacheManager.class, () -> new ConcurrentMapCacheManager(CacheConfig.TASKS_CACHE));
+        context.registerBean(PlatformTransactionManager.class, () -> new DataSourceTransactionManager(dataSource));
+        context.registerBean(TaskServiceImpl.class, () -> new TaskServiceImpl(taskRepository,
+                mock(EntityManager.class), context, Optional.empty()));
+        context.refresh();
+    }
+
+    @AfterEach
+    void tearDown() {
+        context.close();
+    }
+
+    /**
+     * После вытеснения задачи из кэша следующий промах должен читать основную БД,
+     * иначе строка отстающей реплики осталась бы в кэше на весь TTL
+     */
+    @Test
+    void getTaskById_afterEvict_doesNotCacheReplicaRow() throws SQLException {
+        TaskService service = context.getBean(TaskService.class);
+        Cache cache = context.getBean(CacheManager.class).getCache(CacheConfig.TASKS_CACHE);
+        service.getTaskById(1L);
+        cache.evict(1L);
+
+        Optional<Task> loaded = service.getTaskById(1L);
+
+        assertThat(loaded).map(Task::getVersion).contains(2L);
+        assertThat(cache.get(1L, Task.class).getVersion()).isEqualTo(2L);
+        verify(replica, never()).getConnection();
+        assertThat(ReplicaRoutingDataSource.isPinnedToPrimary()).isFalse();
+    }
+
+    private static Connection connection(String catalog) throws SQLException {
+        Connection connection = mock(Connection.class);
+        when(connection.getCatalog()).thenReturn(catalog);
+        when(connection.getAutoCommit()).thenReturn(true);
+        return connection;
+    }
+
+    private static Task task(long version) {
+        Task task = new Task();
+        task.setId(1L);
+        task.setTitle("title");
+        task.setVersion(version);
+        return task;
+    }
+}
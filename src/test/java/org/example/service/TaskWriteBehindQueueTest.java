@@ -0,0 +1,114 @@
+package org.example.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.example.model.Task;
+import org.example.repository.TaskRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+/**
+ * Проверяют групповую вставку задач очередью отложенной записи
+ */
+class TaskWriteBehindQueueTest {
+
+    private TaskRepository taskRepository;
+    private TaskWriteBehindQueue queue;
+    private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+    private final AtomicLong ids = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        taskRepository = mock(TaskRepository.class);
+        when(taskRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Task> chunk = new ArrayList<>(invocation.getArgument(0));
+            batchSizes.add(chunk.size());
+            if (chunk.stream().anyMatch(task -> "bad".equals(task.getTitle()))) {
+                throw new IllegalStateException("constraint violation");
+            }
+            chunk.forEach(task -> task.setId(ids.incrementAndGet()));
+            return chunk;
+        });
+        queue = new TaskWriteBehindQueue(taskRepository, mock(EntityManager.class),
+                mock(PlatformTransactionManager.class), mock(ApplicationEventPublisher.class),
+                new SimpleMeterRegistry(), 100, 10, Duration.ofMillis(200), Duration.ZERO);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        queue.destroy();
+    }
+
+    /**
+     * Задачи, пришедшие в пределах linger, должны вставляться одной пачкой и получать свои id
+     */
+    @Test
+    void submit_groupsConcurrentTasksIntoOneBatch() {
+        List<CompletableFuture<Task>> results = List.of(
+                queue.submit(task("a")), queue.submit(task("b")), queue.submit(task("c")));
+
+        assertThat(results).allSatisfy(result -> assertThat(result.join().getId()).isNotNull());
+        assertThat(results.get(2).join().getTitle()).isEqualTo("c");
+        assertThat(batchSizes).containsExactly(3);
+    }
+
+    /**
+     * Ошибка одной задачи не должна ронять остальные задачи пачки
+     */
+    @Test
+    void submit_isolatesFailingTask() {
+        CompletableFuture<Task> good = queue.submit(task("good"));
+        CompletableFuture<Task> bad = queue.submit(task("bad"));
+
+        assertThat(good.join().getId()).isNotNull();
+        assertThatThrownBy(bad::join).isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(batchSizes).containsExactly(2, 1, 1);
+    }
+
+    /**
+     * Прерванный писатель должен завершаться, а не крутиться: недобранная пачка и всё,
+     * что осталось в очереди, отклоняются RejectedExecutionException, новые задачи не принимаются
+     */
+    @Test
+    void interruptedWriter_exitsAndRejectsPendingTasks() throws InterruptedException {
+        TaskWriteBehindQueue lingering = new TaskWriteBehindQueue(taskRepository, mock(EntityManager.class),
+                mock(PlatformTransactionManager.class), mock(ApplicationEventPublisher.class),
+                new SimpleMeterRegistry(), 100, 10, Duration.ofSeconds(10), Duration.ZERO);
+        CompletableFuture<Task> first = lingering.submit(task("a"));
+        CompletableFuture<Task> second = lingering.submit(task("b"));
+
+        lingering.writer().interrupt();
+        lingering.writer().join(1000);
+        lingering.destroy();
+
+        assertThat(lingering.writer().isAlive()).isFalse();
+        assertThat(List.of(first, second)).allSatisfy(result -> assertThatThrownBy(result::join)
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(RejectedExecutionException.class));
+        assertThatThrownBy(() -> lingering.submit(task("c"))).isInstanceOf(RejectedExecutionException.class);
+        verify(taskRepository, never()).saveAll(anyList());
+    }
+
+    private Task task(String title) {
+        Task task = new Task();
+        task.setTitle(title);
+        return task;
+    }
+}
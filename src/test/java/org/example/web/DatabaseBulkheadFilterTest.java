@@ -0,0 +1,68 @@
+package org.example.web;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Проверяют, что ограничитель держит разрешение на время асинхронного ответа
+ * и не ограничивает пути, не обращающиеся к БД
+ */
+class DatabaseBulkheadFilterTest {
+
+    private final DatabaseBulkheadFilter filter =
+            new DatabaseBulkheadFilter(1, Duration.ZERO, List.of("/api/tasks/changes"));
+
+    /**
+     * Асинхронная выгрузка должна занимать разрешение до завершения ответа, а не до выхода из фильтра
+     */
+    @Test
+    void asyncResponse_holdsPermitUntilComplete() throws Exception {
+        MockHttpServletRequest stream = request("/api/tasks/stream");
+        filter.doFilter(stream, new MockHttpServletResponse(), startAsync());
+
+        assertThat(status("/api/tasks")).isEqualTo(503);
+
+        ((MockAsyncContext) stream.getAsyncContext()).complete();
+
+        assertThat(status("/api/tasks")).isEqualTo(200);
+        assertThat(status("/api/tasks")).isEqualTo(200);
+    }
+
+    /**
+     * Лента изменений не обращается к БД и не должна ни занимать разрешение, ни упираться в лимит
+     */
+    @Test
+    void excludedPath_bypassesBulkhead() throws Exception {
+        filter.doFilter(request("/api/tasks/changes"), new MockHttpServletResponse(), startAsync());
+        assertThat(status("/api/tasks")).isEqualTo(200);
+
+        filter.doFilter(request("/api/tasks/stream"), new MockHttpServletResponse(), startAsync());
+        assertThat(status("/api/tasks/changes")).isEqualTo(200);
+        assertThat(status("/api/tasks")).isEqualTo(503);
+    }
+
+    private int status(String path) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(path), response, new MockFilterChain());
+        return response.getStatus();
+    }
+
+    private static MockHttpServletRequest request(String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setAsyncSupported(true);
+        return request;
+    }
+
+    private static FilterChain startAsync() {
+        return (request, response) -> request.startAsync();
+    }
+}
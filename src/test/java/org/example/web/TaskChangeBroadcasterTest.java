@@ -0,0 +1,86 @@
+package org.example.web;
+
+import org.example.event.TaskChangedEvent;
+import org.example.event.TaskChangedEvent.Type;
+import org.example.service.TaskChangeFeed;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Проверяют, что клиент, который не читает ленту, не останавливает рассылку остальным
+ */
+class TaskChangeBroadcasterTest {
+
+    private final TaskChangeFeed feed = new TaskChangeFeed(100);
+    private final TaskChangeBroadcaster broadcaster = new TaskChangeBroadcaster(feed, 1,
+            Duration.ofMinutes(30), Duration.ofHours(1), Duration.ofMillis(200));
+
+    @AfterEach
+    void tearDown() {
+        broadcaster.destroy();
+    }
+
+    /**
+     * Зависшая отправка должна отключать медленного подписчика и освобождать единственный поток рассылки
+     */
+    @Test
+    void stalledSend_disconnectsSubscriberAndFreesDispatcher() throws Exception {
+        StalledEmitter slow = new StalledEmitter();
+        broadcaster.subscribe(slow, null);
+        feed.onTaskChanged(TaskChangedEvent.of(Type.CREATED, 1L));
+        assertThat(slow.sending.await(5, TimeUnit.SECONDS)).isTrue();
+
+        CountingEmitter fast = new CountingEmitter();
+        broadcaster.subscribe(fast, null);
+        feed.onTaskChanged(TaskChangedEvent.of(Type.UPDATED, 1L));
+
+        assertThat(fast.received.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(slow.failed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(broadcaster.subscriberCount()).isEqualTo(1);
+    }
+
+    /**
+     * Эмиттер, отправка в который блокируется, пока поток не прервут
+     */
+    private static final class StalledEmitter extends SseEmitter {
+
+        final CountDownLatch sending = new CountDownLatch(1);
+        final CountDownLatch failed = new CountDownLatch(1);
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sending.countDown();
+            try {
+                new CountDownLatch(1).await();
+            } catch (InterruptedException e) {
+                throw new IOException("interrupted", e);
+            }
+        }
+
+        @Override
+        public void completeWithError(Throwable ex) {
+            failed.countDown();
+        }
+    }
+
+    /**
+     * Эмиттер, который только считает отправленные события
+     */
+    private static final class CountingEmitter extends SseEmitter {
+
+        final CountDownLatch received = new CountDownLatch(1);
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            received.countDown();
+        }
+    }
+}